@@ -0,0 +1,87 @@
+package hac.benchmarks;
+
+import hac.service.CatalogImportReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admin catalog uploads of {@value #ROWS} courses: one of new courses, and one that updates courses already
+ * in the catalog. Each call is a whole upload, so every iteration is a single shot.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CatalogImportBenchmark {
+
+    static final int ROWS = 20_000;
+
+    private static final AtomicInteger uploads = new AtomicInteger();
+
+    /**
+     * A CSV of courses whose codes are not in the catalog yet, generated before each upload.
+     */
+    @State(Scope.Thread)
+    public static class NewCourses {
+        String csv;
+
+        @Setup(Level.Invocation)
+        public void generate() {
+            csv = catalogCsv(60_000_000 + uploads.getAndIncrement() * ROWS);
+        }
+    }
+
+    /**
+     * A CSV of courses imported once before the measurement, so every upload updates them.
+     */
+    @State(Scope.Benchmark)
+    public static class ExistingCourses {
+        String csv;
+
+        @Setup(Level.Trial)
+        public void importOnce(CatalogState catalog) throws IOException {
+            csv = catalogCsv(90_000_000);
+            catalog.catalogImport.importCsv(new StringReader(csv), false);
+        }
+    }
+
+    /**
+     * POST /api/admin/courses/import with new courses only.
+     */
+    @Benchmark
+    public CatalogImportReport importNewCourses(CatalogState catalog, NewCourses upload) throws IOException {
+        return catalog.catalogImport.importCsv(new StringReader(upload.csv), false);
+    }
+
+    /**
+     * The same upload with updates enabled, for courses that all exist already.
+     */
+    @Benchmark
+    public CatalogImportReport reimportAsUpdates(CatalogState catalog, ExistingCourses upload) throws IOException {
+        return catalog.catalogImport.importCsv(new StringReader(upload.csv), true);
+    }
+
+    static String catalogCsv(int firstCode) {
+        StringBuilder csv = new StringBuilder("code,name,professor,description,capacity,credits\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(firstCode + i).append(",Imported ").append(firstCode + i).append(",Prof ").append(i % 300)
+                    .append(",\"Course ").append(i).append(", imported in bulk\",30,3\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,144 @@
+package hac.benchmarks;
+
+import hac.Ex5TemplateApplication;
+import hac.controllers.CourseController;
+import hac.controllers.StudentController;
+import hac.entity.Course;
+import hac.service.CatalogImportService;
+import hac.service.CourseSearchIndex;
+import hac.service.DashboardMetrics;
+import hac.service.GradeAnalyticsService;
+import hac.service.GradeImportService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The application running on an in-memory H2 database in MySQL mode, filled with a synthetic catalog.
+ * One instance per fork; the data is generated from a fixed seed so every run sees the same tables.
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    private static final String[] GRADES = GradeImportService.VALID_GRADES.toArray(new String[0]);
+    private static final int BATCH_SIZE = 5_000;
+
+    /**
+     * small: 1k courses, 10k students, 40k enrollments. large: 50k courses, 500k students, 2M enrollments.
+     */
+    @Param({"small", "large"})
+    public String dataset;
+
+    ConfigurableApplicationContext context;
+    StudentController studentController;
+    CourseController courseController;
+    JdbcTemplate jdbc;
+    CatalogImportService catalogImport;
+    GradeAnalyticsService gradeAnalytics;
+    // stands in for open-session-in-view, which keeps lazy associations loadable while a request runs
+    TransactionTemplate readOnly;
+
+    int[] courseIds;
+    int[] studentKeys;
+    String[] studentLoginIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        int courses = dataset.equals("large") ? 50_000 : 1_000;
+        int students = dataset.equals("large") ? 500_000 : 10_000;
+        int coursesPerStudent = 4;
+
+        // command line arguments, so they win over application.properties
+        context = new SpringApplicationBuilder(Ex5TemplateApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--server.port=0",
+                "--logging.level.root=WARN");
+        studentController = context.getBean(StudentController.class);
+        courseController = context.getBean(CourseController.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+        catalogImport = context.getBean(CatalogImportService.class);
+        gradeAnalytics = context.getBean(GradeAnalyticsService.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        Random random = new Random(42);
+        insertCourses(courses);
+        insertStudents(students);
+        courseIds = jdbc.queryForList("SELECT course_id FROM course ORDER BY course_id", Integer.class)
+                .stream().mapToInt(Integer::intValue).toArray();
+        studentKeys = jdbc.queryForList("SELECT id FROM student ORDER BY id", Integer.class)
+                .stream().mapToInt(Integer::intValue).toArray();
+        studentLoginIds = jdbc.queryForList("SELECT student_id FROM student ORDER BY id", String.class)
+                .toArray(new String[0]);
+        insertEnrollments(random, coursesPerStudent);
+
+        context.getBean(DashboardMetrics.class).refresh();
+        context.getBean(CourseSearchIndex.class).refresh();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private void insertCourses(int count) {
+        List<Course> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Course("Course " + i, "Prof. " + (i % 900), String.format("S%07d", i),
+                    "Synthetic course number " + i + " of the benchmark catalog"));
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                catalogImport.importCourses(rows, false);
+                rows.clear();
+            }
+        }
+    }
+
+    private void insertStudents(int count) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{String.valueOf(200_000_000 + i), "student" + i + "@bench.example.com"});
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbc.batchUpdate("INSERT INTO student (student_id, student_email) VALUES (?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    // popular courses get most of the enrollments, as they do at registration
+    private void insertEnrollments(Random random, int coursesPerStudent) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        Set<Integer> picked = new HashSet<>();
+        for (int s = 0; s < studentKeys.length; s++) {
+            picked.clear();
+            while (picked.size() < Math.min(coursesPerStudent, courseIds.length)) {
+                picked.add(courseIds[(int) (courseIds.length * Math.pow(random.nextDouble(), 2))]);
+            }
+            for (int courseId : picked) {
+                String grade = random.nextInt(10) < 6 ? GRADES[random.nextInt(GRADES.length)] : null;
+                rows.add(new Object[]{courseId, studentKeys[s], grade});
+            }
+            if (rows.size() >= BATCH_SIZE || s == studentKeys.length - 1) {
+                jdbc.batchUpdate("INSERT INTO course_student (course_id, student_id, grade) VALUES (?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hac.benchmarks;
+
+import hac.entity.Course;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admin writes: adding a course and deleting a course that has a roster.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseAdminBenchmark {
+
+    private static final int ROSTER_SIZE = 40;
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * A course with an enrolled, partly graded roster, inserted before each delete.
+     */
+    @State(Scope.Thread)
+    public static class DoomedCourse {
+        private final SplittableRandom random = new SplittableRandom(11);
+        int id;
+
+        @Setup(Level.Invocation)
+        public void insert(CatalogState catalog) {
+            int n = sequence.incrementAndGet();
+            catalog.catalogImport.importCourses(List.of(new Course("Doomed course " + n, "Prof. Doomed",
+                    String.format("D%07d", n), "Deleted by the benchmark")), false);
+            id = catalog.jdbc.queryForObject("SELECT course_id FROM course WHERE code = ?", Integer.class,
+                    String.format("D%07d", n));
+            List<Object[]> roster = new ArrayList<>(ROSTER_SIZE);
+            int first = random.nextInt(catalog.studentKeys.length - ROSTER_SIZE);
+            for (int i = 0; i < ROSTER_SIZE; i++) {
+                int student = catalog.studentKeys[first + i];
+                roster.add(new Object[]{id, student, i % 2 == 0 ? "A" : null});
+            }
+            catalog.jdbc.batchUpdate("INSERT INTO course_student (course_id, student_id, grade) VALUES (?, ?, ?)", roster);
+        }
+    }
+
+    /**
+     * POST /admin/add-course with a code that does not exist yet.
+     */
+    @Benchmark
+    public String saveCourse(CatalogState catalog) {
+        int n = sequence.incrementAndGet();
+        Course course = new Course("Benchmark course " + n, "Prof. Bench", String.format("B%07d", n),
+                "Added by the benchmark");
+        return catalog.courseController.saveCourse(course, new BeanPropertyBindingResult(course, "course"),
+                new RedirectAttributesModelMap());
+    }
+
+    /**
+     * GET /admin/course-delete/{id} for a course with {@value #ROSTER_SIZE} enrollments.
+     */
+    @Benchmark
+    public String deleteCourse(CatalogState catalog, DoomedCourse doomed) {
+        return catalog.courseController.deleteCourse(doomed.id, new RedirectAttributesModelMap());
+    }
+}
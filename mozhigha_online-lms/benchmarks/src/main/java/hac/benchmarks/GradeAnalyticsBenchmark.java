@@ -0,0 +1,62 @@
+package hac.benchmarks;
+
+import hac.service.GradeAnalyticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The grade analytics report over every course of the synthetic catalog, computed from scratch and
+ * served from the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeAnalyticsBenchmark {
+
+    /**
+     * Marks every course as regraded before each call, so nothing is served from the cache.
+     */
+    @State(Scope.Thread)
+    public static class Regraded {
+        private List<Integer> courseIds;
+
+        @Setup(Level.Invocation)
+        public void regrade(CatalogState catalog) {
+            if (courseIds == null) {
+                courseIds = Arrays.stream(catalog.courseIds).boxed().toList();
+            }
+            catalog.gradeAnalytics.gradesChanged(courseIds);
+        }
+    }
+
+    /**
+     * GET /api/admin/grade-analytics/courses after grades changed in every course.
+     */
+    @Benchmark
+    public List<GradeAnalyticsService.CourseGradeStats> allCoursesUncached(CatalogState catalog, Regraded regraded) {
+        return catalog.gradeAnalytics.allCourses();
+    }
+
+    /**
+     * GET /api/admin/grade-analytics/professors when nothing changed since the last one.
+     */
+    @Benchmark
+    public List<GradeAnalyticsService.ProfessorGradeStats> professorsCached(CatalogState catalog) {
+        return catalog.gradeAnalytics.professors();
+    }
+}
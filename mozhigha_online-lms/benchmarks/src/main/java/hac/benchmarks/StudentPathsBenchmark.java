@@ -0,0 +1,75 @@
+package hac.benchmarks;
+
+import hac.entity.Course;
+import hac.repository.KeysetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.ui.ExtendedModelMap;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The student-facing reads, each for a random student of the synthetic catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentPathsBenchmark {
+
+    @State(Scope.Thread)
+    public static class Pick {
+        private final SplittableRandom random = new SplittableRandom(7);
+        int student;
+
+        @Setup(Level.Invocation)
+        public void next(CatalogState catalog) {
+            student = random.nextInt(catalog.studentKeys.length);
+        }
+    }
+
+    /**
+     * One page of the courses the student can still enroll in (/all-courses as a student).
+     */
+    @Benchmark
+    public KeysetPage<Course> availableCourses(CatalogState catalog, Pick pick) {
+        String loginId = catalog.studentLoginIds[pick.student];
+        return catalog.readOnly.execute(tx -> catalog.studentController.getUnCoursesByStudentId(loginId, null, null, 50));
+    }
+
+    /**
+     * The courses of one student found by scanning every course's roster.
+     */
+    @Benchmark
+    public List<Course> enrolledCoursesByScan(CatalogState catalog, Pick pick) {
+        String loginId = catalog.studentLoginIds[pick.student];
+        return catalog.readOnly.execute(tx -> catalog.studentController.getCoursesByStudentId(loginId));
+    }
+
+    /**
+     * /student/courses: the student's courses and the course-to-grade map handed to the view.
+     */
+    @Benchmark
+    public ExtendedModelMap studentCoursesPage(CatalogState catalog, Pick pick) {
+        String loginId = catalog.studentLoginIds[pick.student];
+        Principal principal = () -> loginId;
+        ExtendedModelMap model = new ExtendedModelMap();
+        catalog.readOnly.executeWithoutResult(tx ->
+                catalog.studentController.coursesListOfSpecificStudent(model, principal, new MockHttpServletRequest()));
+        return model;
+    }
+}
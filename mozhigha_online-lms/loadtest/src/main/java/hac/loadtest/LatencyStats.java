@@ -0,0 +1,62 @@
+package hac.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures per operation, recorded concurrently by all simulated students.
+ */
+class LatencyStats {
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(String operation, long startNanos, boolean ok) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        latencies.computeIfAbsent(operation, k -> new ConcurrentHistogram(MAX_LATENCY, 3))
+                .recordValue(Math.min(micros, MAX_LATENCY));
+        LongAdder failed = errors.computeIfAbsent(operation, k -> new LongAdder());
+        if (!ok) {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Prints one line per operation and a total line.
+     *
+     * @param out     Where to print.
+     * @param seconds The length of the measured run.
+     */
+    void report(PrintStream out, double seconds) {
+        Histogram total = new Histogram(MAX_LATENCY, 3);
+        long totalErrors = 0;
+        out.printf("%-12s %9s %9s %8s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (String operation : latencies.keySet().stream().sorted().toList()) {
+            Histogram histogram = latencies.get(operation);
+            long failed = errors.get(operation).sum();
+            total.add(histogram);
+            totalErrors += failed;
+            line(out, operation, histogram, failed, seconds);
+        }
+        line(out, "total", total, totalErrors, seconds);
+    }
+
+    private static void line(PrintStream out, String operation, Histogram histogram, long failed, double seconds) {
+        long count = histogram.getTotalCount();
+        out.printf("%-12s %9d %9.1f %7.2f%% %9.1f %9.1f %9.1f %9.1f%n",
+                operation, count, count / seconds, count == 0 ? 0.0 : 100.0 * failed / count,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
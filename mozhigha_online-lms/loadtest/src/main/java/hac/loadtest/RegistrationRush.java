@@ -0,0 +1,235 @@
+package hac.loadtest;
+
+import hac.Ex5TemplateApplication;
+import hac.entity.Course;
+import hac.service.CatalogImportService;
+import hac.service.CourseSearchIndex;
+import hac.service.DashboardMetrics;
+import hac.service.GradeImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Registration rush: starts the application on an in-memory database, seeds a catalog and a
+ * student body, and lets {@code users} students log in over {@code ramp-up} and then browse,
+ * enroll and check their courses for {@code duration}, each on its own thread (a closed model:
+ * a student sends the next request only after the previous one answered and a think time passed).
+ * <p>
+ * Options, as {@code key=value} arguments (defaults in brackets):
+ * <ul>
+ *     <li>users [500]: concurrent students; at most {@code students}</li>
+ *     <li>duration [60s], ramp-up [10s]: how long the students stay, and over how long they log in</li>
+ *     <li>think-time [300ms]: mean pause between a student's requests, exponentially distributed</li>
+ *     <li>mix [browse:35,enroll:25,my-courses:35,grade:5]: relative weights of the operations</li>
+ *     <li>courses [2000], students [20000]: size of the seeded catalog and student body</li>
+ *     <li>password-pool [256]: distinct passwords among the students. Hashing them is the slow part
+ *     of seeding; after the first login with each password the credential cache answers, so raise
+ *     it (up to {@code students}) to put a BCrypt check behind every login</li>
+ *     <li>timeout [30s]: per request; a timed out request counts as an error</li>
+ * </ul>
+ * Any other argument containing a dot is passed to the application as a property, which also allows
+ * pointing it at an empty MySQL database instead of H2.
+ */
+public class RegistrationRush {
+
+    static final String[] GRADES = GradeImportService.VALID_GRADES.toArray(new String[0]);
+
+    private static final String ADMIN_ID = "123456788";
+    private static final String ADMIN_PASSWORD = "Jessica123";
+    private static final int BATCH_SIZE = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        Map<String, String> properties = new LinkedHashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:rush;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name", "org.h2.Driver",
+                "spring.datasource.username", "sa",
+                "spring.datasource.password", "",
+                "spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect",
+                "server.port", "0",
+                "logging.level.root", "WARN",
+                "logging.level.hac", "WARN",
+                // Hikari's housekeeping thread is still winding down when Tomcat stops
+                "logging.level.org.apache.catalina.loader", "ERROR"));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, eq);
+            (key.contains(".") ? properties : settings).put(key, arg.substring(eq + 1));
+        }
+        Options options = Options.parse(settings);
+
+        String[] applicationArgs = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Ex5TemplateApplication.class)
+                .run(applicationArgs)) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            System.out.printf("Seeding %d courses and %d students...%n", options.courses(), options.students());
+            Seed seed = seed(context, options);
+            System.out.printf("%d students, ramp-up %s, duration %s, think time %s, mix %s%n",
+                    options.users(), options.rampUp(), options.duration(), options.thinkTime(), options.mix());
+            LatencyStats stats = run(URI.create("http://localhost:" + port), seed, options);
+            System.out.println();
+            stats.report(System.out, (options.rampUp().toNanos() + options.duration().toNanos()) / 1e9);
+        }
+    }
+
+    private static LatencyStats run(URI base, Seed seed, Options options) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .build();
+        String admin = "Basic " + Base64.getEncoder()
+                .encodeToString((ADMIN_ID + ":" + ADMIN_PASSWORD).getBytes(StandardCharsets.UTF_8));
+        LatencyStats stats = new LatencyStats();
+
+        long start = System.nanoTime();
+        long deadline = start + options.rampUp().toNanos() + options.duration().toNanos();
+        ExecutorService students = Executors.newFixedThreadPool(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            long startAt = start + options.rampUp().toNanos() * i / options.users();
+            students.execute(new VirtualStudent(client, base, seed.loginIds()[i], password(i, options),
+                    seed.studentKeys()[i], seed.courseIds(), options, stats, admin, startAt, deadline, i));
+        }
+        students.shutdown();
+        if (!students.awaitTermination(options.timeout().toNanos() + deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            students.shutdownNow();
+        }
+        return stats;
+    }
+
+    private static Seed seed(ConfigurableApplicationContext context, Options options) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        PasswordEncoder encoder = context.getBean(PasswordEncoder.class);
+
+        CatalogImportService catalogImport = context.getBean(CatalogImportService.class);
+
+        List<Course> courses = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < options.courses(); i++) {
+            courses.add(new Course("Rush course " + i, "Prof. " + (i % 300), String.format("R%07d", i),
+                    "Course " + i + " of the registration rush"));
+            if (courses.size() == BATCH_SIZE || i == options.courses() - 1) {
+                catalogImport.importCourses(courses, false);
+                courses.clear();
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        String[] hashes = IntStream.range(0, options.passwordPool()).parallel()
+                .mapToObj(i -> encoder.encode(password(i, options))).toArray(String[]::new);
+        for (int i = 0; i < options.students(); i++) {
+            rows.add(new Object[]{loginId(i), "rush" + i + "@load.example.com", hashes[i % hashes.length]});
+            if (rows.size() == BATCH_SIZE || i == options.students() - 1) {
+                jdbc.batchUpdate("INSERT INTO student (student_id, student_email, password) VALUES (?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+
+        int[] courseIds = jdbc.queryForList("SELECT course_id FROM course WHERE code LIKE 'R%' ORDER BY course_id",
+                Integer.class).stream().mapToInt(Integer::intValue).toArray();
+        int[] studentKeys = new int[options.users()];
+        String[] loginIds = new String[options.users()];
+        for (int i = 0; i < options.users(); i++) {
+            loginIds[i] = loginId(i);
+            studentKeys[i] = jdbc.queryForObject("SELECT id FROM student WHERE student_id = ?", Integer.class, loginIds[i]);
+        }
+
+        context.getBean(DashboardMetrics.class).refresh();
+        context.getBean(CourseSearchIndex.class).refresh();
+        return new Seed(courseIds, studentKeys, loginIds);
+    }
+
+    private static String loginId(int student) {
+        return String.valueOf(300_000_000 + student);
+    }
+
+    private static String password(int student, Options options) {
+        return "rush-" + student % options.passwordPool();
+    }
+
+    private record Seed(int[] courseIds, int[] studentKeys, String[] loginIds) {
+    }
+
+    record Options(int users, Duration duration, Duration rampUp, Duration thinkTime, Map<String, Integer> mix,
+                   int courses, int students, int passwordPool, Duration timeout) {
+
+        private static final List<String> OPERATIONS = List.of("browse", "enroll", "my-courses", "grade");
+
+        static Options parse(Map<String, String> settings) {
+            Map<String, String> values = new LinkedHashMap<>(Map.of(
+                    "users", "500", "duration", "60s", "ramp-up", "10s", "think-time", "300ms",
+                    "mix", "browse:35,enroll:25,my-courses:35,grade:5",
+                    "courses", "2000", "students", "20000", "password-pool", "256", "timeout", "30s"));
+            for (String key : settings.keySet()) {
+                if (!values.containsKey(key)) {
+                    throw new IllegalArgumentException("Unknown option " + key + ", expected one of " + values.keySet());
+                }
+            }
+            values.putAll(settings);
+
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String part : values.get("mix").split(",")) {
+                String[] weight = part.split(":");
+                if (weight.length != 2 || !OPERATIONS.contains(weight[0].trim())) {
+                    throw new IllegalArgumentException("Bad mix entry " + part + ", operations are " + OPERATIONS);
+                }
+                mix.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+            }
+            Options options = new Options(Integer.parseInt(values.get("users")),
+                    DurationStyle.detectAndParse(values.get("duration")),
+                    DurationStyle.detectAndParse(values.get("ramp-up")),
+                    DurationStyle.detectAndParse(values.get("think-time")),
+                    mix,
+                    Integer.parseInt(values.get("courses")),
+                    Integer.parseInt(values.get("students")),
+                    Integer.parseInt(values.get("password-pool")),
+                    DurationStyle.detectAndParse(values.get("timeout")));
+            if (options.users() < 1 || options.users() > options.students()) {
+                throw new IllegalArgumentException("users must be between 1 and students (" + options.students() + ")");
+            }
+            if (options.passwordPool() < 1 || options.totalWeight() < 1) {
+                throw new IllegalArgumentException("password-pool and the mix weights must be positive");
+            }
+            return options;
+        }
+
+        int totalWeight() {
+            return mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /**
+         * @param ticket A number in [0, totalWeight).
+         * @return The operation that ticket falls on.
+         */
+        String pick(int ticket) {
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                ticket -= entry.getValue();
+                if (ticket < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+}
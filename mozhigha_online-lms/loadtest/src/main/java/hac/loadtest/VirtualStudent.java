@@ -0,0 +1,200 @@
+package hac.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One student at registration: logs in through the login form, then keeps browsing the catalog,
+ * enrolling and checking their courses until the run ends, pausing between requests. Some of the
+ * requests are an admin grading one of the student's enrollments through the JSON API.
+ */
+class VirtualStudent implements Runnable {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final URI base;
+    private final String loginId;
+    private final String password;
+    private final int studentKey;
+    private final int[] courseIds;
+    private final RegistrationRush.Options options;
+    private final LatencyStats stats;
+    private final String adminAuthorization;
+    private final long startAt;
+    private final long deadline;
+    private final SplittableRandom random;
+
+    // the session cookie, and whatever else the application sets
+    private final Map<String, String> cookies = new HashMap<>();
+    private final List<Integer> enrolled = new ArrayList<>();
+
+    VirtualStudent(HttpClient client, URI base, String loginId, String password, int studentKey, int[] courseIds,
+                   RegistrationRush.Options options, LatencyStats stats, String adminAuthorization,
+                   long startAt, long deadline, long seed) {
+        this.client = client;
+        this.base = base;
+        this.loginId = loginId;
+        this.password = password;
+        this.studentKey = studentKey;
+        this.courseIds = courseIds;
+        this.options = options;
+        this.stats = stats;
+        this.adminAuthorization = adminAuthorization;
+        this.startAt = startAt;
+        this.deadline = deadline;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void run() {
+        try {
+            sleepUntil(startAt);
+            if (!login()) {
+                return;
+            }
+            while (System.nanoTime() < deadline) {
+                think();
+                switch (options.pick(random.nextInt(options.totalWeight()))) {
+                    case "browse" -> browse();
+                    case "enroll" -> enroll();
+                    case "my-courses" -> myCourses();
+                    case "grade" -> grade();
+                    default -> throw new IllegalStateException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean login() {
+        long start = System.nanoTime();
+        HttpResponse<String> page = send(get("/login"), true);
+        Matcher token = page == null ? null : CSRF.matcher(page.body());
+        if (token == null || !token.find()) {
+            stats.record("login", start, false);
+            return false;
+        }
+        String form = "username=" + encode(loginId) + "&password=" + encode(password) + "&_csrf=" + encode(token.group(1));
+        HttpResponse<String> response = send(request("/login")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)), true);
+        boolean ok = response != null && response.statusCode() == 302
+                && response.headers().firstValue("Location").orElse("").endsWith("/student");
+        stats.record("login", start, ok);
+        return ok;
+    }
+
+    private void browse() {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(get("/all-courses"), true);
+        stats.record("browse", start, response != null && response.statusCode() == 200);
+    }
+
+    // popular courses draw most of the registrations
+    private void enroll() {
+        int courseId = courseIds[(int) (courseIds.length * Math.pow(random.nextDouble(), 2))];
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(get("/student/courses/" + courseId + "/add"), true);
+        boolean ok = response != null && response.statusCode() == 302
+                && response.headers().firstValue("Location").orElse("").endsWith("/student/courses");
+        stats.record("enroll", start, ok);
+        if (ok && !enrolled.contains(courseId)) {
+            enrolled.add(courseId);
+        }
+    }
+
+    private void myCourses() {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(get("/student/courses"), true);
+        stats.record("my-courses", start, response != null && response.statusCode() == 200);
+    }
+
+    private void grade() {
+        if (enrolled.isEmpty()) {
+            enroll();
+            return;
+        }
+        int courseId = enrolled.get(random.nextInt(enrolled.size()));
+        String grade = RegistrationRush.GRADES[random.nextInt(RegistrationRush.GRADES.length)];
+        long start = System.nanoTime();
+        // the admin's own credentials, not this student's session
+        HttpResponse<String> response = send(request("/api/admin/courses/" + courseId + "/students/" + studentKey + "/grade")
+                .header("Authorization", adminAuthorization)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"grade\":\"" + grade + "\"}")), false);
+        stats.record("grade", start, response != null && response.statusCode() == 204);
+    }
+
+    private void think() throws InterruptedException {
+        long mean = options.thinkTime().toNanos();
+        if (mean > 0) {
+            // exponentially distributed pauses, so the students do not move in lockstep
+            long pause = (long) (-mean * Math.log(1 - random.nextDouble()));
+            sleepUntil(System.nanoTime() + Math.min(pause, deadline - System.nanoTime()));
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(options.timeout());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request, boolean withCookies) {
+        if (withCookies && !cookies.isEmpty()) {
+            StringBuilder header = new StringBuilder();
+            cookies.forEach((name, value) -> header.append(header.isEmpty() ? "" : "; ").append(name).append('=').append(value));
+            request.header("Cookie", header.toString());
+        }
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (withCookies) {
+                for (String cookie : response.headers().allValues("Set-Cookie")) {
+                    String pair = cookie.split(";", 2)[0];
+                    int eq = pair.indexOf('=');
+                    if (eq > 0) {
+                        String value = pair.substring(eq + 1);
+                        if (value.isEmpty()) {
+                            cookies.remove(pair.substring(0, eq));
+                        } else {
+                            cookies.put(pair.substring(0, eq), value);
+                        }
+                    }
+                }
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(Duration.ofNanos(remaining).toMillis(), (int) (remaining % 1_000_000));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Gives course_student its primary key (course_id, student_id) where the old hibernate.ddl-auto=update
+ * left the table without one, which V1 cannot tell apart when a database is baselined. Pairs that were
+ * enrolled more than once are first cut down to one row, keeping a grade if one of the rows has it, and
+ * the seat counts (V3) and transcripts (V5) that counted them twice are computed again. Databases
+ * created by V1 already have the key and are left as they are.
+ */
+public class V7__Enrollment_primary_key extends BaseJavaMigration {
+
+    // V5's transcript of one student
+    private static final String INSERT_TRANSCRIPT =
+            "INSERT INTO student_transcript (student_id, courses_in_progress, credits_in_progress, courses_completed, "
+                    + "credits_earned, graded_credits, grade_points, gpa) "
+                    + "SELECT s.id, "
+                    + "SUM(CASE WHEN cs.course_id IS NOT NULL AND (cs.grade IS NULL OR cs.grade = '') THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN cs.course_id IS NOT NULL AND (cs.grade IS NULL OR cs.grade = '') THEN c.credits ELSE 0 END), "
+                    + "SUM(CASE WHEN cs.grade <> '' THEN 1 ELSE 0 END), "
+                    + "SUM(CASE WHEN cs.grade <> '' THEN c.credits ELSE 0 END), "
+                    + "SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END), "
+                    + "SUM(COALESCE(p.points, 0) * COALESCE(c.credits, 0)), "
+                    + "CASE WHEN SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END) > 0 "
+                    + "THEN ROUND(SUM(COALESCE(p.points, 0) * COALESCE(c.credits, 0)) * 1.0 "
+                    + "/ SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END), 2) END "
+                    + "FROM student s "
+                    + "LEFT JOIN course_student cs ON cs.student_id = s.id "
+                    + "LEFT JOIN course c ON c.course_id = cs.course_id "
+                    + "LEFT JOIN (SELECT 'O' AS grade, 10 AS points UNION ALL SELECT 'A+', 9 UNION ALL SELECT 'A', 8 "
+                    + "UNION ALL SELECT 'B+', 7 UNION ALL SELECT 'B', 6) p ON p.grade = cs.grade "
+                    + "WHERE s.id = ? GROUP BY s.id";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (hasPrimaryKey(connection, "course_student")) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        // MAX skips NULL and orders '' before any grade
+        List<Object[]> duplicates = jdbc.query(
+                "SELECT course_id, student_id, MAX(grade) FROM course_student "
+                        + "GROUP BY course_id, student_id HAVING COUNT(*) > 1",
+                (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getString(3)});
+        Set<Integer> courses = new LinkedHashSet<>();
+        Set<Integer> students = new LinkedHashSet<>();
+        List<Object[]> pairs = new ArrayList<>();
+        for (Object[] duplicate : duplicates) {
+            courses.add((Integer) duplicate[0]);
+            students.add((Integer) duplicate[1]);
+            pairs.add(new Object[]{duplicate[0], duplicate[1]});
+        }
+        jdbc.batchUpdate("DELETE FROM course_student WHERE course_id = ? AND student_id = ?", pairs);
+        jdbc.batchUpdate("INSERT INTO course_student (course_id, student_id, grade) VALUES (?, ?, ?)", duplicates);
+
+        jdbc.execute("ALTER TABLE course_student ADD PRIMARY KEY (course_id, student_id)");
+
+        for (int courseId : courses) {
+            jdbc.update("UPDATE course SET seats_taken = "
+                    + "(SELECT COUNT(*) FROM course_student cs WHERE cs.course_id = course.course_id) "
+                    + "WHERE course_id = ?", courseId);
+        }
+        for (int studentId : students) {
+            jdbc.update("DELETE FROM student_transcript WHERE student_id = ?", studentId);
+            jdbc.update(INSERT_TRANSCRIPT, studentId);
+        }
+    }
+
+    private static boolean hasPrimaryKey(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        try (ResultSet primaryKey = metaData.getPrimaryKeys(connection.getCatalog(), connection.getSchema(), name)) {
+            return primaryKey.next();
+        }
+    }
+}
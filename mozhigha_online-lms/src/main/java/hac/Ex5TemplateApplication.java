@@ -2,12 +2,18 @@ package hac;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class Ex5TemplateApplication {
 
+    // startup steps kept for /actuator/startup and the startup report (see hac.config.StartupTimings)
+    private static final int STARTUP_STEPS = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(Ex5TemplateApplication.class, args);
+        SpringApplication application = new SpringApplication(Ex5TemplateApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 
 }
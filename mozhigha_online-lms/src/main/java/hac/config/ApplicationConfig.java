@@ -1,61 +1,44 @@
 package hac.config;
 
-import hac.entity.Student;
-import hac.repository.StudentRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import hac.service.LmsUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import java.time.Duration;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
 public class ApplicationConfig {
 
-    private final StudentRepository studentRepository;
-
-    @Autowired
-    public ApplicationConfig(StudentRepository studentRepository) {
-        this.studentRepository = studentRepository;
-    }
+    @Value("${lms.security.bcrypt-strength:10}")
+    private int bcryptStrength;
 
-    @Bean
-    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
-        InMemoryUserDetailsManager manager = new InMemoryUserDetailsManager();
+    @Value("${lms.security.credential-cache.ttl:5m}")
+    private Duration credentialCacheTtl;
 
-        // Admin user
-        manager.createUser(User.withUsername("123456788")
-                .password(passwordEncoder.encode("Jessica123"))
-                .roles("ADMIN")
-                .build());
+    @Value("${lms.security.credential-cache.max-size:10000}")
+    private long credentialCacheMaxSize;
 
-        // Student users - ID is username, password is encoded
-        manager.createUser(User.withUsername("123456789")
-                .password(passwordEncoder.encode("password123"))
-                .roles("STUDENT")
-                .build());
-
-        // Save student record if not exists
-        if (!studentRepository.existsByStudentId("123456789")) {
-            studentRepository.save(new Student("123456789", "student1@university.edu"));
-        }
-        
-        
-
-        return manager;
+    // the demo admin and student accounts are seeded by V6__seed_default_courses_and_accounts.sql
+    @Bean
+    public UserDetailsService userDetailsService(JdbcTemplate jdbcTemplate) {
+        return new LmsUserDetailsService(jdbcTemplate);
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                credentialCacheTtl, credentialCacheMaxSize);
     }
 
     @Bean
@@ -67,6 +50,10 @@ public class ApplicationConfig {
             )
             .authorizeHttpRequests(requests -> requests
                 .requestMatchers("/img/**", "/", "/login", "/logout").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/student/**").hasRole("STUDENT")
                 .requestMatchers("/api/**").authenticated()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/student/**").hasRole("STUDENT")
@@ -0,0 +1,50 @@
+package hac.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link BulkheadDataSource} in front of the connection pool when lms.jdbc.bulkhead.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "lms.jdbc.bulkhead.enabled", havingValue = "true")
+public class DataSourceBulkheadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceBulkheadConfig.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    // static, and reading the Environment lazily, so the post-processor does not pull other beans in early
+    @Bean
+    public static BeanPostProcessor dataSourceBulkheadPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                // by default one permit per pooled connection; Hikari reports -1 until its pool starts,
+                // which means its default of 10
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : -1;
+                if (poolSize < 1) {
+                    poolSize = DEFAULT_POOL_SIZE;
+                }
+                int permits = environment.getProperty("lms.jdbc.bulkhead.max-concurrent", Integer.class, poolSize);
+                Duration timeout = environment.getProperty("lms.jdbc.bulkhead.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(30));
+                logger.info("JDBC bulkhead on '{}': {} concurrent connections, {} acquire timeout",
+                        beanName, permits, timeout);
+                return new BulkheadDataSource(dataSource, permits, timeout);
+            }
+        };
+    }
+}
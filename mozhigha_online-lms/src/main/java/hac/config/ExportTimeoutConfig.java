@@ -0,0 +1,45 @@
+package hac.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Gives the streamed CSV downloads under /api/admin/export/ a long async timeout of their own
+ * (lms.export.request-timeout), so a large export can finish while every other async request keeps
+ * the default timeout and cannot hold a connection and a thread for as long.
+ */
+@Configuration
+public class ExportTimeoutConfig implements WebMvcConfigurer {
+
+    static final String EXPORT_PATH = "/api/admin/export/";
+
+    private final Duration exportTimeout;
+
+    public ExportTimeoutConfig(@Value("${lms.export.request-timeout:1h}") Duration exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // runs before the async request starts, which is when its timeout is applied
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null
+                        && servletRequest.getRequestURI().startsWith(servletRequest.getContextPath() + EXPORT_PATH)) {
+                    asyncRequest.setTimeout(exportTimeout.toMillis());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package hac.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.session.SessionRepository;
+
+import javax.sql.DataSource;
+import java.util.Set;
+
+/**
+ * Application metrics that Spring Boot does not record on its own: SQL statements per request,
+ * session store latency and the JDBC bulkhead queue. Endpoint latency, repository method timers, Hibernate statistics
+ * and Hikari pool usage come from Boot's auto-configuration (see application.properties).
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Set<String> SESSION_OPERATIONS = Set.of("createSession", "save", "findById", "deleteById",
+            "findByIndexNameAndIndexValue", "findByPrincipalName");
+
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(MeterRegistry registry) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementMetricsFilter(registry));
+        // outside the session and security filters, so their queries are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Free and queued permits of the {@link BulkheadDataSource}, when it is enabled.
+     */
+    @Bean
+    public MeterBinder bulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            DataSource current = dataSource;
+            while (current instanceof DelegatingDataSource delegating && !(current instanceof BulkheadDataSource)) {
+                current = delegating.getTargetDataSource();
+            }
+            if (current instanceof BulkheadDataSource bulkhead) {
+                Gauge.builder("lms.jdbc.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Connections that can be taken without waiting")
+                        .register(registry);
+                Gauge.builder("lms.jdbc.bulkhead.queued", bulkhead, BulkheadDataSource::getQueueLength)
+                        .description("Threads waiting for a connection permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Times the session store operations (lms.session.store, tagged by operation).
+     */
+    @Bean
+    public static BeanPostProcessor sessionStoreTimingPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof SessionRepository<?>)) {
+                    return bean;
+                }
+                ProxyFactory proxy = new ProxyFactory(bean);
+                proxy.setProxyTargetClass(true);
+                proxy.addAdvice((MethodInterceptor) invocation -> {
+                    String operation = invocation.getMethod().getName();
+                    if (!SESSION_OPERATIONS.contains(operation)) {
+                        return invocation.proceed();
+                    }
+                    Timer.Sample sample = Timer.start();
+                    try {
+                        return invocation.proceed();
+                    } finally {
+                        sample.stop(Timer.builder("lms.session.store")
+                                .description("Session store operations")
+                                .tag("operation", operation)
+                                .register(registry.getObject()));
+                    }
+                });
+                return proxy.getProxy();
+            }
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package hac.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Startup milestones of this instance, as JVM uptime: SpringApplication.run entered ("main"), every
+ * singleton created ("beans": Flyway, Hibernate, security and the application beans), the web server
+ * listening, the context started, the instance accepting traffic ("ready"), the startup warm-up done and
+ * the first application request served. The milestones up to "ready" are logged together with the
+ * slowest bean creations, the later ones as they are reached; all of them are the lms.startup.uptime
+ * gauges. The full step timeline is at /actuator/startup.
+ * <p>
+ * lms.startup.first-request-target is the time-to-first-request an instance is held to; one that misses
+ * it logs a warning. With lms.startup.exit-after-warm-up=true the application exits once it is ready and
+ * warm, which is how the fast-startup build trains its class-data-sharing archive.
+ */
+@Component
+public class StartupTimings implements SmartInitializingSingleton, MeterBinder {
+
+    public static final String MAIN = "main";
+    public static final String BEANS = "beans";
+    public static final String WEB_SERVER = "web-server";
+    public static final String STARTED = "started";
+    public static final String READY = "ready";
+    public static final String WARM_UP = "warm-up";
+    public static final String FIRST_REQUEST = "first-request";
+
+    private static final List<String> MILESTONES = List.of(MAIN, BEANS, WEB_SERVER, STARTED, READY, WARM_UP,
+            FIRST_REQUEST);
+    private static final int SLOWEST_BEANS = 5;
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+
+    private final Duration firstRequestTarget;
+    private final boolean exitAfterWarmUp;
+    // milliseconds of JVM uptime, by milestone
+    private final Map<String, Long> milestones = new ConcurrentHashMap<>();
+    private final AtomicBoolean firstRequestPending = new AtomicBoolean(true);
+    private final AtomicBoolean exiting = new AtomicBoolean();
+    private volatile ConfigurableApplicationContext context;
+
+    @Autowired
+    public StartupTimings(@Value("${lms.startup.first-request-target:15s}") Duration firstRequestTarget,
+                          @Value("${lms.startup.exit-after-warm-up:false}") boolean exitAfterWarmUp) {
+        this.firstRequestTarget = firstRequestTarget;
+        this.exitAfterWarmUp = exitAfterWarmUp;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reached(BEANS);
+    }
+
+    @EventListener
+    public void webServerInitialized(WebServerInitializedEvent event) {
+        reached(WEB_SERVER);
+    }
+
+    @EventListener
+    public void applicationStarted(ApplicationStartedEvent event) {
+        context = event.getApplicationContext();
+        long started = reached(STARTED);
+        if (event.getTimeTaken() != null) {
+            milestones.put(MAIN, started - event.getTimeTaken().toMillis());
+        }
+    }
+
+    /**
+     * Published after every ApplicationReadyEvent listener has returned, which is when a readiness probe
+     * starts to pass.
+     */
+    @EventListener
+    public void readinessChanged(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || milestones.containsKey(READY)) {
+            return;
+        }
+        reached(READY);
+        logger.info("Startup after JVM start: {}{}", report(), slowestBeans());
+        exitIfWarm();
+    }
+
+    /**
+     * The startup warm-up has finished, whether before the instance became ready or in the background.
+     */
+    public void warmedUp() {
+        long at = reached(WARM_UP);
+        if (milestones.containsKey(READY)) {
+            logger.info("Startup warm-up finished {} ms after JVM start", at);
+        }
+        exitIfWarm();
+    }
+
+    /**
+     * Published by the DispatcherServlet after every request; the first one outside /actuator (health
+     * probes, scrapes) is the first request.
+     */
+    @EventListener
+    public void requestHandled(ServletRequestHandledEvent event) {
+        String path = event.getRequestUrl();
+        if (!firstRequestPending.get() || path.startsWith("/actuator/")
+                || !firstRequestPending.compareAndSet(true, false)) {
+            return;
+        }
+        long at = reached(FIRST_REQUEST);
+        if (at > firstRequestTarget.toMillis()) {
+            logger.warn("First request ({}) served {} ms after JVM start, over the lms.startup.first-request-target of {} ms",
+                    path, at, firstRequestTarget.toMillis());
+        } else {
+            logger.info("First request ({}) served {} ms after JVM start", path, at);
+        }
+    }
+
+    /**
+     * @return Milliseconds of JVM uptime at each milestone reached so far, earliest first.
+     */
+    public Map<String, Long> getMilestones() {
+        return milestones.entrySet().stream().sorted(Map.Entry.comparingByValue())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * The milestones reached so far with the time since the previous one, e.g. "main 410 ms, beans 5210 ms (+4800)".
+     */
+    String report() {
+        StringBuilder report = new StringBuilder();
+        long previous = 0;
+        for (Map.Entry<String, Long> milestone : getMilestones().entrySet()) {
+            if (!report.isEmpty()) {
+                report.append(", ");
+            }
+            report.append(milestone.getKey()).append(' ').append(milestone.getValue()).append(" ms");
+            if (previous > 0) {
+                report.append(" (+").append(milestone.getValue() - previous).append(')');
+            }
+            previous = milestone.getValue();
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String milestone : MILESTONES) {
+            TimeGauge.builder("lms.startup.uptime", milestones, TimeUnit.MILLISECONDS,
+                            reached -> reached.containsKey(milestone) ? reached.get(milestone) : Double.NaN)
+                    .description("JVM uptime when the instance reached a startup milestone")
+                    .tag("milestone", milestone)
+                    .register(registry);
+        }
+        TimeGauge.builder("lms.startup.first.request.target", firstRequestTarget, TimeUnit.MILLISECONDS,
+                        Duration::toMillis)
+                .description("The JVM uptime by which the first request should have been served")
+                .register(registry);
+    }
+
+    private long reached(String milestone) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        milestones.putIfAbsent(milestone, uptime);
+        return uptime;
+    }
+
+    /**
+     * The bean creations that took longest, including the beans they depend on, when the application
+     * was started with a {@link BufferingApplicationStartup} (see Ex5TemplateApplication).
+     */
+    private String slowestBeans() {
+        ApplicationStartup startup = context == null ? null : context.getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return "";
+        }
+        String slowest = buffering.getBufferedTimeline().getEvents().stream()
+                .filter(event -> event.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_BEANS)
+                .map(event -> beanName(event.getStartupStep()) + " " + event.getDuration().toMillis() + " ms")
+                .collect(Collectors.joining(", "));
+        return slowest.isEmpty() ? "" : "; slowest beans: " + slowest;
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> tag.getKey().equals("beanName"))
+                .map(StartupStep.Tag::getValue)
+                .findFirst().orElse("?");
+    }
+
+    private void exitIfWarm() {
+        if (!exitAfterWarmUp || !milestones.containsKey(READY) || !milestones.containsKey(WARM_UP)
+                || !exiting.compareAndSet(false, true)) {
+            return;
+        }
+        ConfigurableApplicationContext application = context;
+        // not on the thread that is still publishing the event or running the warm-up
+        Thread exit = new Thread(() -> System.exit(SpringApplication.exit(application)), "startup-exit");
+        exit.start();
+    }
+}
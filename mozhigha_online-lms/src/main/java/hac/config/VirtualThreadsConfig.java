@@ -0,0 +1,44 @@
+package hac.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in serving mode (lms.virtual-threads.enabled=true) that runs every Tomcat request on its own
+ * virtual thread instead of the bounded platform-thread pool, so requests blocked on JDBC no longer
+ * hold a scarce OS thread. Needs a Java 21+ runtime; pair it with the JDBC bulkhead
+ * (lms.jdbc.bulkhead.enabled=true) so the extra concurrency queues for connections instead of
+ * timing out in the pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "lms.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        logger.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Looked up reflectively so the build still compiles for Java 17, where the mode is unavailable.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("lms.virtual-threads.enabled needs Java 21 or later, running on "
+                    + Runtime.version(), e);
+        }
+    }
+}
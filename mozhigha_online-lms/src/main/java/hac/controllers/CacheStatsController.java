@@ -0,0 +1,57 @@
+package hac.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes Hibernate second-level and query cache statistics for monitoring.
+ */
+@RestController
+public class CacheStatsController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Hit, miss and put counters overall and per cache region.
+     *
+     * @return The statistics, keyed by counter name.
+     */
+    @GetMapping(path = "/api/admin/cache-stats")
+    public Map<String, Object> getCacheStats() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", stats.isStatisticsEnabled());
+        result.put("secondLevelCacheHits", stats.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", stats.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePuts", stats.getSecondLevelCachePutCount());
+        result.put("queryCacheHits", stats.getQueryCacheHitCount());
+        result.put("queryCacheMisses", stats.getQueryCacheMissCount());
+        result.put("queryCachePuts", stats.getQueryCachePutCount());
+
+        Map<String, Map<String, Long>> regions = new LinkedHashMap<>();
+        for (String name : stats.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = stats.getCacheRegionStatistics(name);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Long> counters = new LinkedHashMap<>();
+            counters.put("hits", region.getHitCount());
+            counters.put("misses", region.getMissCount());
+            counters.put("puts", region.getPutCount());
+            counters.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(name, counters);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+}
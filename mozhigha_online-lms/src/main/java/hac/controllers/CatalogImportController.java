@@ -0,0 +1,60 @@
+package hac.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import hac.service.CatalogImportReport;
+import hac.service.CatalogImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admin endpoint for loading a whole course catalog in one request.
+ */
+@Lazy
+@RestController
+public class CatalogImportController {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    /**
+     * Imports courses from a CSV body whose header line names the columns.
+     *
+     * @param body   The raw request body, read as a stream.
+     * @param update Whether courses whose code already exists are updated rather than skipped.
+     * @return The import report with inserted, updated, skipped and rejected rows.
+     */
+    @PostMapping(path = "/api/admin/courses/import", consumes = "text/csv")
+    public CatalogImportReport importCsv(InputStream body,
+                                         @RequestParam(defaultValue = "false") boolean update) throws IOException {
+        return catalogImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8), update);
+    }
+
+    /**
+     * Imports courses from a JSON array of {code, name, professor, description, capacity, credits} objects.
+     *
+     * @param body   The raw request body, read as a stream.
+     * @param update Whether courses whose code already exists are updated rather than skipped.
+     * @return The import report with inserted, updated, skipped and rejected rows.
+     */
+    @PostMapping(path = "/api/admin/courses/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CatalogImportReport importJson(InputStream body,
+                                          @RequestParam(defaultValue = "false") boolean update) throws IOException {
+        return catalogImportService.importJson(body, update);
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, JsonProcessingException.class})
+    public ResponseEntity<String> handleMalformedUpload(Exception e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,238 @@
+package hac.controllers;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import hac.repository.CatalogVersionJdbcRepository;
+import hac.repository.CourseRepository;
+import hac.repository.CourseRepository.CourseSummary;
+import hac.repository.KeysetPage;
+import hac.repository.StudentRepository;
+import hac.repository.StudentRepository.RosterEntry;
+import hac.service.CatalogVersions;
+import hac.service.EnrollmentService;
+import hac.service.GradeImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JSON API for the catalog, course rosters and grades.
+ * Rows are read as projections of just the columns served, never as Course/Student entities,
+ * and the course description is only read when a client asks for it.
+ */
+@RestController
+public class CourseApiController {
+
+    static final Set<String> COURSE_FIELDS = Set.of("id", "code", "name", "professor", "enrolled", "description");
+    static final Set<String> DEFAULT_COURSE_FIELDS = Set.of("id", "code", "name", "professor", "enrolled");
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private CatalogVersionJdbcRepository catalogVersionRepository;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Value("${lms.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${lms.pagination.max-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Lists the catalog one keyset page at a time.
+     *
+     * @param fields Comma separated fields to return (default: all but description).
+     * @param after  Cursor: id of the last course on the previous page.
+     * @param before Cursor: id of the first course on the next page.
+     * @param size   The requested page size.
+     * @param webRequest Used to answer conditional requests with 304.
+     * @return One page of courses and the cursors of the neighbouring pages, or null for 304.
+     */
+    @GetMapping(path = "/api/courses")
+    public ResponseEntity<?> getCourses(@RequestParam(required = false) String fields,
+                                        @RequestParam(required = false) Integer after,
+                                        @RequestParam(required = false) Integer before,
+                                        @RequestParam(required = false) Integer size,
+                                        WebRequest webRequest) {
+        Set<String> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().body("Unknown field, expected some of " + COURSE_FIELDS);
+        }
+        // checked before the page is read
+        CatalogVersions.Validators validators = catalogVersions.catalog(String.join(",", selected),
+                String.valueOf(after), String.valueOf(before), String.valueOf(size));
+        if (webRequest.checkNotModified(validators.etag(), validators.lastModified())) {
+            return null;
+        }
+        KeysetPage<CourseSummary> courses = KeysetPage.fetch(after, before,
+                KeysetPage.pageSize(size, defaultPageSize, maxPageSize),
+                courseRepository::findSummariesAfter,
+                courseRepository::findSummariesBefore,
+                CourseSummary::getId);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(new ApiPage<>(toViews(courses.getItems(), selected), courses.getNextCursor(), courses.getPrevCursor()));
+    }
+
+    /**
+     * Gets one course.
+     *
+     * @param id     The ID of the course.
+     * @param fields Comma separated fields to return (default: all but description).
+     * @param webRequest Used to answer conditional requests with 304.
+     * @return The course, 404, or null for 304.
+     */
+    @GetMapping(path = "/api/courses/{id}")
+    public ResponseEntity<?> getCourse(@PathVariable int id, @RequestParam(required = false) String fields,
+                                       WebRequest webRequest) {
+        Set<String> selected = parseFields(fields);
+        if (selected == null) {
+            return ResponseEntity.badRequest().body("Unknown field, expected some of " + COURSE_FIELDS);
+        }
+        CatalogVersionJdbcRepository.CourseVersion version = catalogVersionRepository.findCourseVersion(id).orElse(null);
+        if (version == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Course not found");
+        }
+        CatalogVersions.Validators validators = catalogVersions.course(version, String.join(",", selected));
+        if (webRequest.checkNotModified(validators.etag(), validators.lastModified())) {
+            return null;
+        }
+        CourseSummary course = courseRepository.findSummaryById(id).orElse(null);
+        if (course == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Course not found");
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(toViews(List.of(course), selected).get(0));
+    }
+
+    /**
+     * Lists the students enrolled in a course with their grades, one keyset page at a time.
+     *
+     * @param courseId The ID of the course.
+     * @param after    Cursor: id of the last student on the previous page.
+     * @param before   Cursor: id of the first student on the next page.
+     * @param size     The requested page size.
+     * @return One page of the roster and the cursors of the neighbouring pages.
+     */
+    @GetMapping(path = "/api/admin/courses/{courseId}/students")
+    public ApiPage<RosterView> getRoster(@PathVariable int courseId,
+                                         @RequestParam(required = false) Integer after,
+                                         @RequestParam(required = false) Integer before,
+                                         @RequestParam(required = false) Integer size) {
+        KeysetPage<RosterEntry> roster = KeysetPage.fetch(after, before,
+                KeysetPage.pageSize(size, defaultPageSize, maxPageSize),
+                (cursor, limit) -> studentRepository.findRosterEntriesAfter(courseId, cursor, limit),
+                (cursor, limit) -> studentRepository.findRosterEntriesBefore(courseId, cursor, limit),
+                RosterEntry::getId);
+        List<RosterView> students = roster.getItems().stream()
+                .map(entry -> new RosterView(entry.getId(), entry.getStudentId(), entry.getEmail(), entry.getGrade()))
+                .toList();
+        return new ApiPage<>(students, roster.getNextCursor(), roster.getPrevCursor());
+    }
+
+    /**
+     * Sets the grade of an enrolled student.
+     *
+     * @param courseId   The ID of the course.
+     * @param studentKey The ID (primary key) of the student.
+     * @param request    The grade.
+     * @return 204, 400 for an invalid grade or 404 if the student is not enrolled.
+     */
+    @PutMapping(path = "/api/admin/courses/{courseId}/students/{studentKey}/grade")
+    public ResponseEntity<?> setGrade(@PathVariable int courseId, @PathVariable int studentKey,
+                                      @RequestBody GradeRequest request) {
+        if (request.grade() == null || !GradeImportService.VALID_GRADES.contains(request.grade())) {
+            return ResponseEntity.badRequest().body("Invalid grade, expected one of " + GradeImportService.VALID_GRADES);
+        }
+        // also updates the dashboard counters and the student's transcript
+        if (!enrollmentService.assignGrade(courseId, studentKey, request.grade())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student is not enrolled in this course");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Removes a student from a course; the first student on the waitlist gets the seat.
+     *
+     * @param courseId   The ID of the course.
+     * @param studentKey The ID (primary key) of the student.
+     * @return 204, or 404 if the student is not enrolled.
+     */
+    @DeleteMapping(path = "/api/admin/courses/{courseId}/students/{studentKey}")
+    public ResponseEntity<?> unenroll(@PathVariable int courseId, @PathVariable int studentKey) {
+        if (!enrollmentService.unenroll(courseId, studentKey)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student is not enrolled in this course");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * @return The selected field names, or null if one of them is unknown.
+     */
+    static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT_COURSE_FIELDS;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!COURSE_FIELDS.contains(name)) {
+                return null;
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    private List<CourseView> toViews(List<CourseSummary> courses, Set<String> fields) {
+        // descriptions are read in one extra query, and only when asked for
+        Map<Integer, String> descriptions = new HashMap<>();
+        if (fields.contains("description") && !courses.isEmpty()) {
+            List<Integer> ids = courses.stream().map(CourseSummary::getId).toList();
+            for (CourseRepository.CourseDescription row : courseRepository.findDescriptions(ids)) {
+                descriptions.put(row.getId(), row.getDescription());
+            }
+        }
+        return courses.stream().map(course -> new CourseView(
+                fields.contains("id") ? course.getId() : null,
+                fields.contains("code") ? course.getCode() : null,
+                fields.contains("name") ? course.getName() : null,
+                fields.contains("professor") ? course.getProfessor() : null,
+                fields.contains("enrolled") ? course.getSeatsTaken() : null,
+                descriptions.get(course.getId()))).toList();
+    }
+
+    // fields that were not selected are left out of the JSON
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record CourseView(Integer id, String code, String name, String professor, Integer enrolled,
+                             String description) {
+    }
+
+    public record RosterView(int id, String studentId, String email, String grade) {
+    }
+
+    public record GradeRequest(String grade) {
+    }
+
+    public record ApiPage<T>(List<T> items, Integer nextCursor, Integer prevCursor) {
+    }
+}
@@ -1,28 +1,63 @@
 package hac.controllers;
 
 import hac.entity.Course;
+import hac.entity.Student;
 import hac.repository.CourseRepository;
+import hac.repository.KeysetPage;
 import hac.repository.StudentRepository;
-import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
+import hac.service.CatalogVersions;
+import hac.service.CourseSearchIndex;
+import hac.service.CourseService;
+import hac.service.DashboardMetrics;
+import hac.service.EnrollmentService;
+import hac.service.TranscriptService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
-import java.util.List;
 
 @Controller
 public class CourseController {
 
+    private static final Logger logger = LoggerFactory.getLogger(CourseController.class);
+
     @Autowired
     private CourseRepository courseRepository;
     
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private DashboardMetrics dashboardMetrics;
+
+    @Autowired
+    private CourseSearchIndex courseSearchIndex;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Value("${lms.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${lms.pagination.max-size:200}")
+    private int maxPageSize;
+
     // Initialize repositories
     @Autowired
     public void setCourseRepository(CourseRepository courseRepository) {
@@ -34,73 +69,6 @@ public class CourseController {
         this.studentRepository = studentRepository;
     }
 
-    /**
-     * Initializes data on application startup:
-     * 1. Cleans duplicate courses
-     * 2. Deletes course with ID 1 (if exists)
-     * 3. Adds default courses
-     */
-    @PostConstruct
-    @Transactional
-    public void initData() {
-        cleanDuplicateCourses();  // Step 1: Clean duplicates
-        courseRepository.deleteCourseWithIdOne();  // Step 2: Delete specific course
-        
-        // Step 3: Initialize default courses
-        Course[] defaultCourses = {
-            new Course("Introduction to Computer Science", "Dr. Yoram Biberman", "10204011", 
-                      "In this course, we will get to know the basics of programming..."),
-            new Course("Digital Systems", "Dr. Simcha Rozen", "10203012", 
-                      "How is data stored on a computer?..."),
-            new Course("Discrete Mathematics", "Dr. Eran London", "10202011", 
-                      "The course begins with the fundamentals of the language of mathematics...")
-        };
-
-        for (Course course : defaultCourses) {
-            saveCourseIfNotExists(course);
-        }
-    }
-
-    /**
-     * Cleans duplicate courses (keeps the earliest created course by ID)
-     */
-    @Transactional
-    public void cleanDuplicateCourses() {
-        List<String> duplicateNames = courseRepository.findDuplicateCourseNames();
-        
-        for (String name : duplicateNames) {
-            List<Course> duplicates = courseRepository.findByNameOrderByIdAsc(name);
-            
-            if (duplicates.size() > 1) {
-                // Keep first course (lowest ID) and delete others
-                for (int i = 1; i < duplicates.size(); i++) {
-                    courseRepository.delete(duplicates.get(i));
-                    System.out.println("Deleted duplicate course: " + name + 
-                                     " (ID: " + duplicates.get(i).getId() + ")");
-                }
-            }
-        }
-    }
-
-    /**
-     * Saves a course only if it doesn't already exist (by code or name)
-     */
-    @Transactional
-    public void saveCourseIfNotExists(Course course) {
-        if (!courseRepository.existsByCode(course.getCode())) {
-            if (!courseRepository.existsByName(course.getName())) {
-                courseRepository.save(course);
-                System.out.println("Saved new course: " + course.getName());
-            } else {
-                System.out.println("Course with name '" + course.getName() + "' already exists");
-            }
-        } else {
-            System.out.println("Course with code '" + course.getCode() + "' already exists");
-        }
-    }
-
-
-
     //--------------------------------------------------------------admin----------------------------------------------
 
     /**
@@ -112,12 +80,20 @@ public class CourseController {
      */
     @GetMapping(path = "/admin/course-edit/{id}")
     public String editCourse(Model model, @PathVariable(value = "id") int id) {
-        model.addAttribute("course", courseRepository.findById(id));
+        Course course = courseRepository.findById(id).orElse(null);
+        if (course == null) {
+            return "error";
+        }
+        model.addAttribute("course", course);
         return "course-adding";
     }
 
     /**
      * Saves the course information after adding or editing a course.
+     * An edit updates the course in place only if nobody changed it since the form was opened;
+     * a new course whose code already exists updates that course (upsert by code).
+     * Either way the existing enrollments are left untouched; added seats go to the waitlist, and
+     * changed credits are carried into the transcripts of the enrolled students.
      *
      * @param course         The course object to be saved.
      * @param bindingResult  The binding result for validation.
@@ -128,19 +104,54 @@ public class CourseController {
     public String saveCourse(@Validated Course course, BindingResult bindingResult, RedirectAttributes redirectAttrs) {
         if (bindingResult.hasErrors()) {
             return "course-adding";
-        } else {
-            for (int i = 0; i < courseRepository.findAll().size(); i++) {
-                if (courseRepository.findAll().get(i).getCode().equals(course.getCode())) {
-                    course.setStudents(courseRepository.findAll().get(i).getStudents());
+        }
+
+        try {
+            // a new course whose code is taken updates that course, which is known by its id from here on
+            Integer courseId = course.getId() != 0
+                    ? Integer.valueOf(course.getId())
+                    : courseRepository.findIdByCode(course.getCode()).orElse(null);
+            // read before the update so a change of credits can be told apart
+            Integer oldCredits = courseId != null ? courseRepository.findCreditsById(courseId).orElse(null) : null;
+            if (course.getId() != 0) {
+                int updated = courseRepository.updateDetailsIfVersion(course.getId(), course.getVersion(),
+                        course.getName(), course.getProfessor(), course.getCode(), course.getDescription(),
+                        course.getCapacity(), course.getCredits());
+                if (updated == 0) {
+                    bindingResult.reject("course.stale",
+                            "This course was changed or deleted by another admin. Reload it and try again.");
+                    return "course-adding";
                 }
+                courseSearchIndex.courseSaved(course);
+                catalogVersions.catalogChanged();
+                enrollmentService.promoteWaitlisted(course.getId());
+                creditsChanged(course.getId(), oldCredits, course.getCredits());
+                redirectAttrs.addFlashAttribute("message", "The course has been updated successfully.");
+            } else if (courseId != null && courseRepository.updateDetailsByCode(course.getCode(), course.getName(),
+                    course.getProfessor(), course.getDescription(), course.getCapacity(), course.getCredits()) > 0) {
+                course.setId(courseId);
+                courseSearchIndex.courseSaved(course);
+                catalogVersions.catalogChanged();
+                enrollmentService.promoteWaitlisted(courseId);
+                creditsChanged(courseId, oldCredits, course.getCredits());
+                redirectAttrs.addFlashAttribute("message", "The course has been updated successfully.");
+            } else {
+                courseService.addCourse(course);
+                redirectAttrs.addFlashAttribute("message", "A new course has been added successfully.");
             }
-
-            courseRepository.save(course);
-            redirectAttrs.addFlashAttribute("message", "A new course has been added successfully.");
+        } catch (DataIntegrityViolationException e) {
+            bindingResult.reject("course.duplicate", "Another course already uses this name or code.");
+            return "course-adding";
         }
         return "redirect:/all-courses";
     }
 
+    private void creditsChanged(int courseId, Integer oldCredits, int credits) {
+        if (oldCredits == null || oldCredits != credits) {
+            transcriptService.recompute(transcriptService.studentsOf(courseId));
+        }
+    }
+
     /**
      * Deletes a course with the specified ID.
      *
@@ -151,21 +162,14 @@ public class CourseController {
     @GetMapping(path = "/admin/course-delete/{id}")
     public String deleteCourse(@PathVariable(value = "id") int id, RedirectAttributes model) {
         try {
-            courseRepository.deleteById(id);
-
-            // Get the remaining courses from the repository
-            List<Course> remainingCourses = courseRepository.findAll();
-
-            // Update the new IDs for the remaining courses
-            for (int i = 0; i < remainingCourses.size(); i++) {
-                Course course = remainingCourses.get(i);
-                course.setId(i + 1);
-                courseRepository.save(course);
+            if (courseService.deleteCourse(id)) {
+                model.addFlashAttribute("message", "The course has been deleted successfully.");
+            } else {
+                model.addFlashAttribute("message", "Course not found.");
             }
-
-            model.addFlashAttribute("message", "The course has been deleted successfully.");
         } catch (Exception e) {
-            e.getMessage();
+            logger.error("Deleting course {} failed", id, e);
+            model.addFlashAttribute("message", "Error deleting course: " + e.getMessage());
         }
         return "redirect:/all-courses";
     }
@@ -185,15 +189,14 @@ public class CourseController {
             RedirectAttributes redirectAttributes) {
         
         try {
-            Course course = courseRepository.findById(id).orElse(null);
-            if (course != null) {
-                course.deleteStudent(studentId);
-                courseRepository.save(course);  // Don't forget to save changes
+            // the freed seat goes to the first student on the waitlist
+            if (enrollmentService.unenroll(id, studentId)) {
                 redirectAttributes.addFlashAttribute("success", "Student removed successfully");
             } else {
-                redirectAttributes.addFlashAttribute("error", "Course not found");
+                redirectAttributes.addFlashAttribute("error", "The student is not enrolled in this course");
             }
         } catch (Exception e) {
+            logger.error("Removing student {} from course {} failed", studentId, id, e);
             redirectAttributes.addFlashAttribute("error", "Error removing student: " + e.getMessage());
         }
         
@@ -212,14 +215,27 @@ public class CourseController {
     }
 
     /**
-     * Retrieves all students and displays them in the admin dashboard.
+     * Retrieves one page of students and displays them in the admin dashboard.
      *
-     * @param model The model object to be populated with data.
+     * @param model  The model object to be populated with data.
+     * @param after  Cursor: id of the last student on the previous page.
+     * @param before Cursor: id of the first student on the next page.
+     * @param size   The requested page size.
      * @return The view for the admin dashboard.
      */
     @GetMapping(path = "admin/all-students")
-    public String getDashboard(Model model) {
-        model.addAttribute("students", studentRepository.findAll());
+    public String getDashboard(Model model,
+                               @RequestParam(required = false) Integer after,
+                               @RequestParam(required = false) Integer before,
+                               @RequestParam(required = false) Integer size) {
+        KeysetPage<Student> students = KeysetPage.fetch(after, before,
+                KeysetPage.pageSize(size, defaultPageSize, maxPageSize),
+                studentRepository::findByIdGreaterThanOrderByIdAsc,
+                studentRepository::findByIdLessThanOrderByIdDesc,
+                Student::getId);
+        model.addAttribute("students", students.getItems());
+        model.addAttribute("nextCursor", students.getNextCursor());
+        model.addAttribute("prevCursor", students.getPrevCursor());
         model.addAttribute("course", null);
         return "students-page";
     }
@@ -227,15 +243,19 @@ public class CourseController {
     
 
     /**
-     * Retrieves the number of courses and students and displays them in the admin page.
+     * Displays the dashboard counters in the admin page.
+     * The numbers come from the in-memory {@link DashboardMetrics} snapshot, not from the tables.
      *
      * @param model The model object to be populated with data.
      * @return The view for the admin page.
      */
     @GetMapping(path = "/admin")
     public String getAdminPage(Model model) {
-        model.addAttribute("courses", courseRepository.findAll().size());
-        model.addAttribute("students", studentRepository.findAll().size());
+        model.addAttribute("courses", dashboardMetrics.getCourses());
+        model.addAttribute("students", dashboardMetrics.getStudents());
+        model.addAttribute("enrollments", dashboardMetrics.getEnrollments());
+        model.addAttribute("graded", dashboardMetrics.getGraded());
+        model.addAttribute("ungraded", dashboardMetrics.getUngraded());
         return "admin-page";
     }
 }
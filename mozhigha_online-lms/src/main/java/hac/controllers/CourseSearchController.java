@@ -0,0 +1,40 @@
+package hac.controllers;
+
+import hac.repository.KeysetPage;
+import hac.service.CourseSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Course search over the in-memory {@link CourseSearchIndex}.
+ */
+@RestController
+public class CourseSearchController {
+
+    @Autowired
+    private CourseSearchIndex courseSearchIndex;
+
+    @Value("${lms.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${lms.pagination.max-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Searches courses by name, professor, code and description.
+     *
+     * @param q    The search text; every word must match a word of the course or the start of one.
+     * @param page Zero-based page number.
+     * @param size The requested page size.
+     * @return One page of ranked hits and the total number of hits.
+     */
+    @GetMapping(path = "/api/courses/search")
+    public CourseSearchIndex.SearchPage search(@RequestParam String q,
+                                               @RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(required = false) Integer size) {
+        return courseSearchIndex.search(q, Math.max(page, 0), KeysetPage.pageSize(size, defaultPageSize, maxPageSize));
+    }
+}
@@ -0,0 +1,50 @@
+package hac.controllers;
+
+import hac.service.EnrollmentService;
+import hac.service.EnrollmentService.BulkEnrollmentResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoints for enrolling whole cohorts at once and for repairing the seat counters.
+ */
+@RestController
+public class EnrollmentController {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    /**
+     * Enrolls every listed student into every listed course.
+     *
+     * @param request The student ids (9 digit login ids) and course ids.
+     * @return The number of enrollments inserted and the ids that could not be resolved.
+     */
+    @PostMapping(path = "/api/admin/enrollments")
+    public ResponseEntity<?> enrollAll(@RequestBody BulkEnrollmentRequest request) {
+        if (request.studentIds() == null || request.courseIds() == null) {
+            return ResponseEntity.badRequest().body("Both studentIds and courseIds are required");
+        }
+        BulkEnrollmentResult result = enrollmentService.enrollAll(request.studentIds(), request.courseIds());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Recounts the seats taken in every course from its enrollments.
+     *
+     * @return The number of courses whose counter was off.
+     */
+    @PostMapping(path = "/api/admin/maintenance/recount-seats")
+    public ResponseEntity<?> recountSeats() {
+        return ResponseEntity.ok(Map.of("coursesCorrected", enrollmentService.recountSeats()));
+    }
+
+    public record BulkEnrollmentRequest(List<String> studentIds, List<Integer> courseIds) {
+    }
+}
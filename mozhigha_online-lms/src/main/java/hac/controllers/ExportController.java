@@ -0,0 +1,108 @@
+package hac.controllers;
+
+import hac.repository.CourseRepository;
+import hac.service.CsvExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Admin CSV downloads of rosters, enrollments and the catalog.
+ * The rows are written while they are read from the database, on an async request thread, and are
+ * gzipped when the client accepts it.
+ */
+@Lazy
+@RestController
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    /**
+     * The students of a course with their grades.
+     *
+     * @param courseId       The ID of the course.
+     * @param acceptEncoding The Accept-Encoding request header.
+     * @return The CSV stream, or 404 if there is no such course.
+     */
+    @GetMapping(path = "/api/admin/export/courses/{courseId}/roster.csv")
+    public ResponseEntity<StreamingResponseBody> exportRoster(@PathVariable int courseId,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                                                                      required = false) String acceptEncoding) {
+        if (!courseRepository.existsById(courseId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return csv("roster-" + courseId + ".csv", acceptEncoding, out -> csvExportService.exportRoster(courseId, out));
+    }
+
+    /**
+     * Every enrollment with its grade.
+     *
+     * @param acceptEncoding The Accept-Encoding request header.
+     * @return The CSV stream.
+     */
+    @GetMapping(path = "/api/admin/export/enrollments.csv")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+            required = false) String acceptEncoding) {
+        return csv("enrollments.csv", acceptEncoding, csvExportService::exportEnrollments);
+    }
+
+    /**
+     * The whole catalog.
+     *
+     * @param acceptEncoding The Accept-Encoding request header.
+     * @return The CSV stream.
+     */
+    @GetMapping(path = "/api/admin/export/courses.csv")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+            required = false) String acceptEncoding) {
+        return csv("courses.csv", acceptEncoding, csvExportService::exportCatalog);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csv(String filename, String acceptEncoding,
+                                                             StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding)) {
+            return response.body(body);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            // sync flush, so the header row is not held back by the compressor
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 8192, true);
+            body.writeTo(gzip);
+            // finished but not closed: the container closes the response stream itself
+            gzip.finish();
+        });
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package hac.controllers;
+
+import hac.service.GradeAnalyticsService;
+import hac.service.GradeAnalyticsService.CourseGradeStats;
+import hac.service.GradeAnalyticsService.ProfessorGradeStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin endpoints showing how the courses went: grade histograms, pass rates, mean and median grades.
+ */
+@RestController
+public class GradeAnalyticsController {
+
+    @Autowired
+    private GradeAnalyticsService gradeAnalyticsService;
+
+    /**
+     * The grade distribution of every course.
+     *
+     * @return One entry per course, by course id.
+     */
+    @GetMapping(path = "/api/admin/grade-analytics/courses")
+    public List<CourseGradeStats> getCourses() {
+        return gradeAnalyticsService.allCourses();
+    }
+
+    /**
+     * The grade distribution of one course and the percentile rank of each of its students.
+     *
+     * @param courseId The ID of the course.
+     * @return The report, or 404 if there is no such course.
+     */
+    @GetMapping(path = "/api/admin/grade-analytics/courses/{courseId}")
+    public ResponseEntity<?> getCourse(@PathVariable int courseId) {
+        return gradeAnalyticsService.course(courseId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Course not found"));
+    }
+
+    /**
+     * The combined grade distribution of each professor's courses.
+     *
+     * @return One entry per professor, by name.
+     */
+    @GetMapping(path = "/api/admin/grade-analytics/professors")
+    public List<ProfessorGradeStats> getProfessors() {
+        return gradeAnalyticsService.professors();
+    }
+}
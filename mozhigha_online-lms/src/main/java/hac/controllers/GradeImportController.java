@@ -0,0 +1,55 @@
+package hac.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import hac.service.GradeImportService;
+import hac.service.ImportReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admin endpoint for posting a whole grade sheet in one request.
+ */
+@Lazy
+@RestController
+public class GradeImportController {
+
+    @Autowired
+    private GradeImportService gradeImportService;
+
+    /**
+     * Imports grades from a CSV body (course code, student id, grade per line).
+     *
+     * @param body The raw request body, read as a stream.
+     * @return The import report with per-row errors.
+     */
+    @PostMapping(path = "/api/admin/grades/import", consumes = "text/csv")
+    public ImportReport importCsv(InputStream body) throws IOException {
+        return gradeImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Imports grades from a JSON array of {courseCode, studentId, grade} objects.
+     *
+     * @param body The raw request body, read as a stream.
+     * @return The import report with per-row errors.
+     */
+    @PostMapping(path = "/api/admin/grades/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportReport importJson(InputStream body) throws IOException {
+        return gradeImportService.importJson(body);
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, JsonProcessingException.class})
+    public ResponseEntity<String> handleMalformedUpload(Exception e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
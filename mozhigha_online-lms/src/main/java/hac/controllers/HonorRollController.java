@@ -0,0 +1,48 @@
+package hac.controllers;
+
+import hac.repository.KeysetPage;
+import hac.service.TranscriptService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+
+/**
+ * Admin endpoint listing the students with the best GPAs.
+ */
+@RestController
+public class HonorRollController {
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Value("${lms.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${lms.pagination.max-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Lists the students whose GPA (10 point scale) and earned credits reach the given minimums,
+     * best GPA first. Reads the transcript aggregate only, never the enrollments.
+     *
+     * @param minGpa     The lowest GPA to include.
+     * @param minCredits The fewest earned credits to include.
+     * @param size       The requested number of students.
+     * @return The students, or 400 for a GPA outside 0-10.
+     */
+    @GetMapping(path = "/api/admin/honor-roll")
+    public ResponseEntity<?> getHonorRoll(@RequestParam(defaultValue = "8.0") BigDecimal minGpa,
+                                          @RequestParam(defaultValue = "0") int minCredits,
+                                          @RequestParam(required = false) Integer size) {
+        if (minGpa.signum() < 0 || minGpa.compareTo(BigDecimal.TEN) > 0) {
+            return ResponseEntity.badRequest().body("minGpa must be between 0 and 10");
+        }
+        return ResponseEntity.ok(transcriptService.honorRoll(minGpa, minCredits,
+                KeysetPage.pageSize(size, defaultPageSize, maxPageSize)));
+    }
+}
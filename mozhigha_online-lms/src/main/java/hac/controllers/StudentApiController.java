@@ -0,0 +1,97 @@
+package hac.controllers;
+
+import hac.repository.CourseRepository;
+import hac.service.EnrollmentService;
+import hac.service.EnrollmentService.EnrollOutcome;
+import hac.service.StudentIdentityCache;
+import hac.service.StudentIdentityCache.StudentIdentity;
+import hac.service.TranscriptService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * JSON API for the logged-in student: their courses with grades, their transcript, and enrolling.
+ */
+@RestController
+public class StudentApiController {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private StudentIdentityCache studentIdentityCache;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    /**
+     * Lists the courses of the logged-in student with the grade in each.
+     *
+     * @param principal The currently authenticated student.
+     * @return The courses, or 404 if the login has no student record.
+     */
+    @GetMapping(path = "/api/student/courses")
+    public ResponseEntity<?> getMyCourses(Principal principal) {
+        StudentIdentity student = studentIdentityCache.resolve(principal.getName()).orElse(null);
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student not found");
+        }
+        List<EnrolledCourseView> courses = courseRepository.findEnrolledCourses(student.id()).stream()
+                .map(course -> new EnrolledCourseView(course.getId(), course.getCode(), course.getName(),
+                        course.getProfessor(), course.getGrade()))
+                .toList();
+        return ResponseEntity.ok(courses);
+    }
+
+    /**
+     * The transcript of the logged-in student: credits, GPA and completed and in-progress courses.
+     *
+     * @param principal The currently authenticated student.
+     * @return The transcript, or 404 if the login has no student record.
+     */
+    @GetMapping(path = "/api/student/transcript")
+    public ResponseEntity<?> getMyTranscript(Principal principal) {
+        StudentIdentity student = studentIdentityCache.resolve(principal.getName()).orElse(null);
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student not found");
+        }
+        return ResponseEntity.ok(transcriptService.find(student.id()));
+    }
+
+    /**
+     * Enrolls the logged-in student in a course, or puts them on its waitlist if it is full.
+     *
+     * @param id        The ID of the course.
+     * @param principal The currently authenticated student.
+     * @return 201 when enrolled, 202 when the course is full and the student joined its waitlist,
+     * 200 if already enrolled or waitlisted, 404 for an unknown course or student.
+     */
+    @PostMapping(path = "/api/student/courses/{id}/enrollment")
+    public ResponseEntity<?> enroll(@PathVariable int id, Principal principal) {
+        StudentIdentity student = studentIdentityCache.resolve(principal.getName()).orElse(null);
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student not found");
+        }
+        EnrollOutcome outcome = enrollmentService.enroll(id, student.id());
+        return switch (outcome) {
+            case ENROLLED -> ResponseEntity.status(HttpStatus.CREATED).body(outcome);
+            case WAITLISTED -> ResponseEntity.status(HttpStatus.ACCEPTED).body(outcome);
+            case ALREADY_ENROLLED, ALREADY_WAITLISTED -> ResponseEntity.ok(outcome);
+            case COURSE_NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Course not found");
+        };
+    }
+
+    public record EnrolledCourseView(int id, String code, String name, String professor, String grade) {
+    }
+}
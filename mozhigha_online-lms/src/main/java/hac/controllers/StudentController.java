@@ -2,13 +2,27 @@ package hac.controllers;
 
 import hac.entity.Course;
 import hac.entity.Student;
+import hac.repository.CatalogVersionJdbcRepository;
 import hac.repository.CourseRepository;
+import hac.repository.KeysetPage;
 import hac.repository.StudentRepository;
+import hac.service.CatalogVersions;
+import hac.service.EnrollmentService;
+import hac.service.FragmentCache;
+import hac.service.EnrollmentService.EnrollOutcome;
+import hac.service.StudentIdentityCache;
+import hac.service.TranscriptService;
+import hac.service.StudentIdentityCache.StudentIdentity;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -18,6 +32,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
@@ -26,17 +41,41 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 @Controller
 public class StudentController {
-    private Student student;
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentController.class);
 
     @Autowired
     private StudentRepository studentRepository;
     private CourseRepository courseRepository;
 
+    @Autowired
+    private StudentIdentityCache studentIdentityCache;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private CatalogVersionJdbcRepository catalogVersionRepository;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Value("${lms.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${lms.pagination.max-size:200}")
+    private int maxPageSize;
+
     @Autowired
     public void setStudentRepository(StudentRepository studentRepository) {
         this.studentRepository = studentRepository;
@@ -50,22 +89,46 @@ public class StudentController {
     //-----------------------------------------admin-----------------------------------------------
 
     /**
-     * Get all students enrolled in a specific course (admin view).
+     * Get one page of the students enrolled in a specific course (admin view).
      *
      * @param model    The model object to be populated with data.
      * @param courseId The ID of the course.
-     * @return The view for displaying all students in the course.
+     * @param after    Cursor: id of the last student on the previous page.
+     * @param before   Cursor: id of the first student on the next page.
+     * @param size     The requested page size.
+     * @return The view for displaying the students in the course.
      */
     @GetMapping(path = "/admin/course/{courseId}/students")
-    public String getAllStudents(Model model, @PathVariable(value = "courseId") int courseId) {
+    public String getAllStudents(Model model, @PathVariable(value = "courseId") int courseId,
+                                 @RequestParam(required = false) Integer after,
+                                 @RequestParam(required = false) Integer before,
+                                 @RequestParam(required = false) Integer size) {
         Course course = courseRepository.findById(courseId).orElse(null);
         if (course != null) {
-            model.addAttribute("students", course.getStudents());
+            KeysetPage<Student> roster = KeysetPage.fetch(after, before,
+                    KeysetPage.pageSize(size, defaultPageSize, maxPageSize),
+                    (cursor, limit) -> studentRepository.findRosterAfter(courseId, cursor, limit),
+                    (cursor, limit) -> studentRepository.findRosterBefore(courseId, cursor, limit),
+                    Student::getId);
+
+            // grades for the visible page only, instead of the course's whole grade map
+            Map<Integer, String> grades = new HashMap<>();
+            if (!roster.getItems().isEmpty()) {
+                List<Integer> ids = roster.getItems().stream().map(Student::getId).toList();
+                for (Object[] row : courseRepository.findGrades(courseId, ids)) {
+                    grades.put((Integer) row[0], (String) row[1]);
+                }
+            }
+
+            model.addAttribute("students", roster.getItems());
+            model.addAttribute("grades", grades);
+            model.addAttribute("nextCursor", roster.getNextCursor());
+            model.addAttribute("prevCursor", roster.getPrevCursor());
             model.addAttribute("course", course);
         }
         return "students-page";
     }
-    
+
     @PostMapping("/admin/course/{courseId}/grade/{studentId}")
     public ResponseEntity<String> assignGrade(
             @PathVariable int courseId,
@@ -82,15 +145,18 @@ public class StudentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student not found");
         }
         
-        // Update grade directly
-        courseRepository.updateGrade(courseId, studentId, grade);
+        // Update grade directly; the service also updates the dashboard counters and the student's transcript
+        if (!enrollmentService.assignGrade(courseId, studentId.intValue(), grade)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Student is not enrolled in this course");
+        }
         
         return ResponseEntity.ok("Grade assigned successfully");
     }
     //-----------------------------------admin finish-------------------------------------------------------------
 
     /**
-     * Get the student page.
+     * Get the student page with the student's transcript summary.
+     * The summary is one pre-aggregated row, not a scan of the student's enrollments.
      *
      * @param session   The HttpSession object.
      * @param model     The model object to be populated with data.
@@ -101,13 +167,10 @@ public class StudentController {
     public String getStudentPage(HttpSession session, Model model, Principal principal) {
         if (principal.getName() == null) {
             return "redirect:/login";
-        } else {
-        	if (this.student == null) {
-        	    this.student = studentRepository.findStudentsByStudentId(principal.getName());
-        	}
-
         }
 
+        studentIdentityCache.resolve(principal.getName())
+                .ifPresent(student -> model.addAttribute("transcript", transcriptService.find(student.id())));
         model.addAttribute("email", principal.getName());
         return "student-page";
     }
@@ -121,81 +184,36 @@ public class StudentController {
      */
     @GetMapping(path = "/student/courses")
     public String coursesListOfSpecificStudent(Model model, Principal principal, HttpServletRequest request) {
-        // Debugging: Print request info
-        System.out.println("\n=== DEBUG: Handling request to /student/courses ===");
-        System.out.println("Request URL: " + request.getRequestURL());
-        System.out.println("Principal: " + (principal != null ? principal.getName() : "null"));
-
         if (principal == null || principal.getName() == null) {
-            System.out.println("DEBUG: No principal found - redirecting to login");
+            logger.debug("No principal on {}, redirecting to login", request.getRequestURI());
             return "redirect:/login";
-        } else {
-            try {
-                // Debug: Before student lookup
-                System.out.println("\nDEBUG: Looking up student with ID: " + principal.getName());
-                
-                Student student = studentRepository.findStudentsByStudentId(principal.getName());
-                
-                // Debug: After student lookup
-                if (student == null) {
-                    System.out.println("DEBUG ERROR: No student found with the ID: " + principal.getName());
-                } else {
-                    System.out.println("DEBUG: Found student - ID: " + student.getId() + 
-                                      ", Email: " + student.getStudentEmail());
-                }
+        }
 
-                // Debug: Before course lookup
-                System.out.println("\nDEBUG: Fetching courses for student ID: " + (student != null ? student.getId() : "null"));
-                
-                List<Course> courses = courseRepository.findCoursesWithGradesForStudent(student);
-                
-                // Debug: After course lookup
-                System.out.println("DEBUG: Found " + courses.size() + " courses");
-                for (Course course : courses) {
-                    System.out.println("  Course: " + course.getId() + " - " + course.getName() + 
-                                      " | Grades Map Size: " + course.getStudentGrades().size());
-                }
+        StudentIdentity student = studentIdentityCache.resolve(principal.getName()).orElse(null);
+        if (student == null) {
+            logger.warn("No student found for login id {}", principal.getName());
+        }
 
-                Map<Integer, String> courseGrades = new HashMap<>();
-                System.out.println("\nDEBUG: Processing grades:");
-                
-                for (Course course : courses) {
-                    String grade = course.getStudentGrades().get(student);
-      
-                    
-                    if (grade == null || grade.trim().isEmpty()) {
-                        grade = "Nil"; // or you could directly use "Yet to be announced" here
-                    }
-                    courseGrades.put(course.getId(), grade);
-                    
-                    // Debug: Print grade info for each course
-                    System.out.println("  Course ID: " + course.getId() + 
-                                     " | Grade: " + grade + 
-                                     " | Grades Map Contains Student: " + 
-                                     course.getStudentGrades().containsKey(student));
+        List<Course> courses = new ArrayList<>();
+        Map<Integer, String> courseGrades = new HashMap<>();
+        if (student != null) {
+            // one query returns each course together with this student's grade
+            for (Object[] row : courseRepository.findCoursesWithGradeOfStudent(student.id())) {
+                Course course = (Course) row[0];
+                String grade = (String) row[1];
+                if (grade == null || grade.trim().isEmpty()) {
+                    grade = "Nil"; // or you could directly use "Yet to be announced" here
                 }
-
-                // Debug: Before adding to model
-                System.out.println("\nDEBUG: Model attributes being added:");
-                System.out.println("  courses: " + courses.size() + " items");
-                System.out.println("  courseGrades: " + courseGrades);
-                System.out.println("  email: " + principal.getName());
-
-                model.addAttribute("courses", courses);
-                model.addAttribute("courseGrades", courseGrades);
-                model.addAttribute("email", principal.getName());
-
-                // Debug: Final confirmation
-                System.out.println("\nDEBUG: Rendering student-courses template");
-                return "student-courses";
-                
-            } catch (Exception e) {
-                // Debug: Error handling
-                System.out.println("\nDEBUG ERROR: Exception occurred: " + e.getMessage());
-                e.printStackTrace();
-                throw e; // Re-throw or handle as appropriate for your application
+                courses.add(course);
+                courseGrades.put(course.getId(), grade);
             }
         }
+        logger.debug("Student {} is enrolled in {} courses", principal.getName(), courses.size());
+
+        model.addAttribute("courses", courses);
+        model.addAttribute("courseGrades", courseGrades);
+        model.addAttribute("email", principal.getName());
+        return "student-courses";
     }
     /**
      * Get the list of courses for a specific student based on their email.
@@ -224,20 +242,65 @@ public class StudentController {
      * @param model          The model object to be populated with data.
      * @param authentication The Authentication object representing the current user's authentication.
      * @param principal      The Principal object representing the currently authenticated user.
-     * @return The view for displaying all courses.
+     * @param after          Cursor: id of the last course on the previous page.
+     * @param before         Cursor: id of the first course on the next page.
+     * @param size           The requested page size.
+     * @param webRequest     Used to answer conditional requests with 304.
+     * @param response       The response, for its caching headers.
+     * @return The view for displaying all courses, or null when the client's copy is still current.
      */
     @GetMapping(path = "/all-courses")
-    public String getAllCourses(Model model, Authentication authentication, Principal principal) {
+    public String getAllCourses(Model model, Authentication authentication, Principal principal,
+                                @RequestParam(required = false) Integer after,
+                                @RequestParam(required = false) Integer before,
+                                @RequestParam(required = false) Integer size,
+                                WebRequest webRequest, HttpServletResponse response) {
         if (authentication != null && authentication.isAuthenticated()) {
             boolean isAdmin = authentication.getAuthorities().stream()
                     .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"));
 
-            model.addAttribute("email", principal.getName());
+            // every change of the courses shown or their seats moves the catalog version, which is checked
+            // before any course is read
+            CatalogVersions.Validators validators = catalogVersions.catalog(principal.getName(),
+                    String.valueOf(isAdmin), String.valueOf(after), String.valueOf(before), String.valueOf(size));
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (webRequest.checkNotModified(validators.etag(), validators.lastModified())) {
+                return null;
+            }
+
+            int pageSize = KeysetPage.pageSize(size, defaultPageSize, maxPageSize);
+            KeysetPage<Course> courses;
             if (isAdmin) {
-                model.addAttribute("courses", courseRepository.findAll());
+                courses = KeysetPage.fetch(after, before, pageSize,
+                        courseRepository::findByIdGreaterThanOrderByIdAsc,
+                        courseRepository::findByIdLessThanOrderByIdDesc,
+                        Course::getId);
             } else {
-                model.addAttribute("courses", getUnCoursesByStudentId(principal.getName()));
+                courses = getUnCoursesByStudentId(principal.getName(), after, before, pageSize);
             }
+            List<Integer> ids = courses.getItems().stream().map(Course::getId).toList();
+            // seats taken come from the table; the Course entities may be served from the second-level cache
+            Map<Integer, Integer> fill = new HashMap<>();
+            if (!ids.isEmpty()) {
+                for (CourseRepository.CourseSeats seats : courseRepository.findSeats(ids)) {
+                    fill.put(seats.getId(), seats.getSeatsTaken());
+                }
+            }
+
+            model.addAttribute("email", principal.getName());
+            // a row's cells other than the seats depend only on the course version, not on the viewer
+            Map<Integer, String> rowsHtml = new HashMap<>();
+            for (Course course : courses.getItems()) {
+                rowsHtml.put(course.getId(), fragmentCache.render(
+                        "course-row:" + course.getId() + "-" + course.getVersion() + ":" + isAdmin,
+                        "fragments/course-rows", "row",
+                        () -> Map.of("course", course, "isAdmin", isAdmin)));
+            }
+            model.addAttribute("courses", courses.getItems());
+            model.addAttribute("fill", fill);
+            model.addAttribute("courseRowsHtml", rowsHtml);
+            model.addAttribute("nextCursor", courses.getNextCursor());
+            model.addAttribute("prevCursor", courses.getPrevCursor());
             return "courses-page";
         }
 
@@ -250,91 +313,98 @@ public class StudentController {
      * @param model     The model object to be populated with data.
      * @param id        The ID of the course.
      * @param principal The Principal object representing the currently authenticated user.
-     * @return The view for displaying the course information.
+     * @param webRequest Used to answer conditional requests with 304.
+     * @param response   The response, for its caching headers.
+     * @return The view for displaying the course information, or null when the client's copy is still current.
      */
     @GetMapping(path = "/courses/{id}")
-    public String getSpecificCourseInfo(Model model, @PathVariable(value = "id") int id, Principal principal) {
-        Optional<Course> c = courseRepository.findById(id);
-        if (c.isPresent()) {
-            Course course = c.get();
-            model.addAttribute("course", course);
-            if (principal.getName() != null) {
-                model.addAttribute("email", principal.getName());
-            }
-            return "course-page";
+    public String getSpecificCourseInfo(Model model, @PathVariable(value = "id") int id, Principal principal,
+                                        WebRequest webRequest, HttpServletResponse response) {
+        // the course row's version and seats are all the page depends on, and all that is read for a 304
+        CatalogVersionJdbcRepository.CourseVersion version = catalogVersionRepository.findCourseVersion(id).orElse(null);
+        if (version == null) {
+            return "error";
         }
-        return "error";
+        CatalogVersions.Validators validators = catalogVersions.course(version, principal.getName());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (webRequest.checkNotModified(validators.etag(), validators.lastModified())) {
+            return null;
+        }
+
+        // the course card is rendered once per version of the entity it is rendered from, which usually
+        // comes out of the second-level cache
+        Course course = courseRepository.findById(id).orElse(null);
+        if (course == null) {
+            return "error";
+        }
+        String detailsHtml = fragmentCache.render("course-details:" + id + "-" + course.getVersion(),
+                "fragments/course-details", "details", () -> Map.of("course", course));
+        model.addAttribute("courseDetailsHtml", detailsHtml);
+        model.addAttribute("courseId", id);
+        model.addAttribute("fill", version.seatsTaken());
+        model.addAttribute("capacity", version.capacity());
+        if (principal.getName() != null) {
+            model.addAttribute("email", principal.getName());
+        }
+        return "course-page";
     }
 
     /**
-     * Get the list of uncourses for a specific student based on their email.
+     * Get one page of the courses a specific student is not enrolled in yet.
      *
-     * @param email The email of the student.
-     * @return The list of uncourses for the student.
+     * @param studentId The login id of the student.
+     * @param after     Cursor: id of the last course on the previous page.
+     * @param before    Cursor: id of the first course on the next page.
+     * @param size      The page size.
+     * @return The page of courses still open to the student.
      */
-    public List<Course> getUnCoursesByStudentId(String email) {
-        List<Course> courses = new ArrayList<>();
-
-        for (Course course : courseRepository.findAll()) {
-        	Set<Student> studentSet = new HashSet<>(course.getStudents());
-            boolean found = false;
-            for (Student student : studentSet) {
-                if (student.getStudentEmail().equals(email)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found)
-                courses.add(course);
-        }
-        return courses;
+    public KeysetPage<Course> getUnCoursesByStudentId(String studentId, Integer after, Integer before, int size) {
+        return KeysetPage.fetch(after, before, size,
+                (cursor, limit) -> courseRepository.findCoursesNotEnrolledAfter(studentId, cursor, limit),
+                (cursor, limit) -> courseRepository.findCoursesNotEnrolledBefore(studentId, cursor, limit),
+                Course::getId);
     }
 
     /**
-     * Add a student to a specific course.
+     * Add a student to a specific course, or to its waitlist when the course is full.
      *
-     * @param model     The model object to be populated with data.
-     * @param id        The ID of the course.
-     * @param principal The Principal object representing the currently authenticated user.
+     * @param model         The model object to be populated with data.
+     * @param id            The ID of the course.
+     * @param principal     The Principal object representing the currently authenticated user.
+     * @param redirectAttrs The redirect attributes for flash messages.
      * @return The view for adding the student to the course.
      */
     @GetMapping(path = "/student/courses/{id}/add")
-    public String getAddStudentPage(Model model, @PathVariable(value = "id") int id, Principal principal) {
+    public String getAddStudentPage(Model model, @PathVariable(value = "id") int id, Principal principal,
+                                    RedirectAttributes redirectAttrs) {
         if (principal == null) {
             return "redirect:/login";
         }
 
         try {
-            Course course = courseRepository.findById(id).orElse(null);
-            Student student = studentRepository.findStudentsByStudentId(principal.getName());
+            StudentIdentity student = studentIdentityCache.resolve(principal.getName()).orElse(null);
 
-
-            if (course == null) {
-                System.out.println("ERROR: Course not found for ID: " + id);
+            if (student == null) {
+                logger.warn("No student found for login id {}", principal.getName());
                 return "redirect:/error";
             }
 
-            if (student == null) {
-                System.out.println("ERROR: Student not found for email: " + principal.getName());
+            // inserts just the course_student row; neither side of the association is loaded
+            EnrollOutcome outcome = enrollmentService.enroll(id, student.id());
+            if (outcome == EnrollOutcome.COURSE_NOT_FOUND) {
+                logger.warn("Student {} tried to enroll in missing course {}", student.id(), id);
                 return "redirect:/error";
             }
-
-            System.out.println("INFO: Adding student " + student.getId() + " to course " + course.getId());
-            
-            // Adding student to course
-            course.addStudent(student);
-            
-            // Explicitly setting the relationship if needed
-            student.getCourses().add(course);
-
-            courseRepository.save(course);
-            System.out.println("INFO: Student successfully added to course!");
+            logger.info("Student {} enrollment in course {}: {}", student.id(), id, outcome);
+            if (outcome == EnrollOutcome.WAITLISTED || outcome == EnrollOutcome.ALREADY_WAITLISTED) {
+                redirectAttrs.addFlashAttribute("message",
+                        "The course is full. You are on its waitlist and will be enrolled when a seat frees up.");
+            }
 
             return "redirect:/student/courses";
 
         } catch (Exception e) {
-            System.out.println("ERROR: Exception occurred while adding student to course");
-            e.printStackTrace(); // This will print the full stack trace in the logs
+            logger.error("Enrolling {} in course {} failed", principal.getName(), id, e);
             return "redirect:/error";
         }
     }
@@ -1,8 +1,14 @@
 package hac.entity;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,11 +16,22 @@ import java.util.Map;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course")
 @Table(name = "course")
 public class Course {
 
+    public static final int DEFAULT_CAPACITY = 10;
+    public static final int DEFAULT_CREDITS = 3;
+    public static final String ID_GENERATOR_TABLE = "id_generator";
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // Ids come in blocks from a row of id_generator (pooled-lo: the row holds the next free id), so
+    // inserts can be batched; CatalogImportJdbcRepository reserves blocks from the same row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "course_ids")
+    @TableGenerator(name = "course_ids", table = ID_GENERATOR_TABLE, pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "course", allocationSize = ID_BLOCK_SIZE)
     @Column(name = "course_id")
     private int id;
 
@@ -35,6 +52,29 @@ public class Course {
     @Column(length = 100000)
     private String description;
 
+    @Min(value = 1, message = "A course needs at least one seat")
+    @Max(value = 10000, message = "At most 10000 seats")
+    @ColumnDefault("10")
+    @Column(nullable = false)
+    private int capacity = DEFAULT_CAPACITY;
+
+    // Weight of the course in a student's transcript and GPA
+    @Min(value = 1, message = "A course is worth at least one credit")
+    @Max(value = 20, message = "At most 20 credits")
+    @ColumnDefault("3")
+    @Column(nullable = false)
+    private int credits = DEFAULT_CREDITS;
+
+    // Seats handed out, kept by conditional SQL updates in EnrollmentJdbcRepository; never written from the entity
+    @ColumnDefault("0")
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false)
+    private int seatsTaken;
+
+    // Guards the course details against lost updates between admins; enrollments do not bump it
+    @Version
+    private long version;
+
+    @OptimisticLock(excluded = true)
     @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
     @JoinTable(
         name = "course_student",
@@ -43,6 +83,7 @@ public class Course {
     )
     private Set<Student> students = new HashSet<>();
 
+    @OptimisticLock(excluded = true)
     @ElementCollection
     @CollectionTable(name = "course_student", joinColumns = @JoinColumn(name = "course_id"))
     @MapKeyJoinColumn(name = "student_id")
@@ -122,6 +163,30 @@ public class Course {
         this.description = description;
     }
 
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public void setCredits(int credits) {
+        this.credits = credits;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<Student> getStudents() {
         return students;
     }
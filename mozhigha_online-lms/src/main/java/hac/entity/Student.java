@@ -1,14 +1,21 @@
 package hac.entity;
 
+import hac.service.StudentCacheEvictionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
+@EntityListeners(StudentCacheEvictionListener.class)
 public class Student {
 
     @Id
@@ -18,6 +25,7 @@ public class Student {
     @NotBlank
     @Size(min = 9, max = 9, message = "ID must be exactly 9 digits")
     @Pattern(regexp = "\\d{9}", message = "ID must contain only digits")
+    @Column(unique = true)
     private String studentId;
 
     @NotBlank
@@ -25,6 +33,10 @@ public class Student {
     @Column(unique = true)
     private String studentEmail;
 
+    // BCrypt hash; students without one cannot log in
+    @Column(length = 100)
+    private String password;
+
     @ManyToMany(mappedBy = "students", fetch = FetchType.LAZY)
     private Set<Course> courses = new HashSet<>();
     
@@ -64,6 +76,14 @@ public class Student {
         this.id = id;
     }
 
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
 
     public Set<Course> getCourses() {
         return courses;
@@ -0,0 +1,88 @@
+package hac.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-student totals over all enrollments: what is in progress, what is completed and the GPA.
+ * The row is adjusted by deltas whenever a student enrolls, leaves a course or gets a grade, so
+ * reading a transcript never scans course_student; rows are maintained through TranscriptJdbcRepository.
+ */
+@Entity
+@Table(name = "student_transcript",
+        indexes = @Index(name = "idx_student_transcript_gpa", columnList = "gpa"))
+public class StudentTranscript {
+
+    @Id
+    @Column(name = "student_id")
+    private Integer studentKey;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id")
+    private Student student;
+
+    @Column(name = "courses_in_progress", nullable = false)
+    private int coursesInProgress;
+
+    @Column(name = "credits_in_progress", nullable = false)
+    private int creditsInProgress;
+
+    @Column(name = "courses_completed", nullable = false)
+    private int coursesCompleted;
+
+    @Column(name = "credits_earned", nullable = false)
+    private int creditsEarned;
+
+    // credits of the completed courses whose grade is on the scale; the GPA's denominator
+    @Column(name = "graded_credits", nullable = false)
+    private int gradedCredits;
+
+    // sum of grade points times credits; the GPA's numerator
+    @Column(name = "grade_points", nullable = false)
+    private int gradePoints;
+
+    // grade_points / graded_credits, stored so honor-roll queries can use the index; null without graded credits
+    @Column(precision = 4, scale = 2)
+    private BigDecimal gpa;
+
+    public StudentTranscript() {}
+
+    // Getters
+    public Integer getStudentKey() {
+        return studentKey;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public int getCoursesInProgress() {
+        return coursesInProgress;
+    }
+
+    public int getCreditsInProgress() {
+        return creditsInProgress;
+    }
+
+    public int getCoursesCompleted() {
+        return coursesCompleted;
+    }
+
+    public int getCreditsEarned() {
+        return creditsEarned;
+    }
+
+    public int getGradedCredits() {
+        return gradedCredits;
+    }
+
+    public int getGradePoints() {
+        return gradePoints;
+    }
+
+    public BigDecimal getGpa() {
+        return gpa;
+    }
+}
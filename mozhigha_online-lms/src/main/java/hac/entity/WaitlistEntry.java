@@ -0,0 +1,50 @@
+package hac.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A student waiting for a seat in a full course. Entries are served in id order;
+ * rows are written and promoted through EnrollmentJdbcRepository.
+ */
+@Entity
+@Table(name = "course_waitlist",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "student_id"}),
+        indexes = @Index(name = "idx_course_waitlist_queue", columnList = "course_id, id"))
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id")
+    private Course course;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id")
+    private Student student;
+
+    @Column(name = "requested_at", nullable = false)
+    private Instant requestedAt;
+
+    public WaitlistEntry() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+}
@@ -0,0 +1,110 @@
+package hac.repository;
+
+import hac.entity.Course;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based reads and batched writes of the course table for catalog imports, plus the reservation
+ * of course ids from the same id_generator row the Course entity draws its ids from.
+ */
+@Repository
+public class CatalogImportJdbcRepository {
+
+    private static final String SEQUENCE = "course";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CatalogImportJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The courses that already use one of the given codes or names, in one query.
+     */
+    public List<ExistingCourse> findByCodeOrName(Collection<String> codes, Collection<String> names) {
+        if (codes.isEmpty() && names.isEmpty()) {
+            return List.of();
+        }
+        // a UNION rather than an OR so that each half is looked up in its unique index;
+        // an empty IN list is not valid SQL, and "" is never a course code or name
+        return jdbcTemplate.query("SELECT course_id, code, name, capacity, credits FROM course WHERE code IN (:codes) "
+                        + "UNION SELECT course_id, code, name, capacity, credits FROM course WHERE name IN (:names)",
+                new MapSqlParameterSource()
+                        .addValue("codes", codes.isEmpty() ? List.of("") : codes)
+                        .addValue("names", names.isEmpty() ? List.of("") : names),
+                (rs, i) -> new ExistingCourse(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getInt(5)));
+    }
+
+    /**
+     * Takes a block of course ids by moving the id_generator row forward. Must run in a transaction
+     * of its own: the row stays locked until it commits.
+     *
+     * @param count How many ids are needed.
+     * @return The first id of the block; the block is [first, first + count).
+     */
+    public int reserveIds(int count) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("sequence", SEQUENCE)
+                .addValue("count", count);
+        String update = "UPDATE " + Course.ID_GENERATOR_TABLE + " SET next_val = next_val + :count "
+                + "WHERE sequence_name = :sequence";
+        if (jdbcTemplate.update(update, params) == 0) {
+            syncIdGenerator();
+            jdbcTemplate.update(update, params);
+        }
+        Long next = jdbcTemplate.queryForObject("SELECT next_val FROM " + Course.ID_GENERATOR_TABLE
+                + " WHERE sequence_name = :sequence", params, Long.class);
+        return Math.toIntExact(next - count);
+    }
+
+    /**
+     * Makes sure the id_generator row exists and points past the highest course id, e.g. on a schema
+     * whose courses were numbered by AUTO_INCREMENT. Only ever moves the row forward.
+     */
+    public void syncIdGenerator() {
+        MapSqlParameterSource params = new MapSqlParameterSource("sequence", SEQUENCE);
+        String update = "UPDATE " + Course.ID_GENERATOR_TABLE + " SET next_val = GREATEST(next_val, "
+                + "(SELECT COALESCE(MAX(course_id), 0) + 1 FROM course)) WHERE sequence_name = :sequence";
+        if (jdbcTemplate.update(update, params) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO " + Course.ID_GENERATOR_TABLE + " (sequence_name, next_val) "
+                    + "SELECT :sequence, COALESCE(MAX(course_id), 0) + 1 FROM course", params);
+        } catch (DuplicateKeyException e) {
+            // another instance inserted the row first
+            jdbcTemplate.update(update, params);
+        }
+    }
+
+    /**
+     * Inserts new courses with one JDBC batch; the ids must have been reserved with {@link #reserveIds}.
+     */
+    public int[] insertCourses(List<MapSqlParameterSource> courses) {
+        return jdbcTemplate.batchUpdate("INSERT INTO course (course_id, name, professor, code, description, "
+                        + "capacity, credits, seats_taken, version) "
+                        + "VALUES (:id, :name, :professor, :code, :description, :capacity, :credits, 0, 0)",
+                courses.toArray(MapSqlParameterSource[]::new));
+    }
+
+    /**
+     * Overwrites the details of existing courses with one JDBC batch, keeping their enrollments.
+     */
+    public int[] updateCourses(List<MapSqlParameterSource> courses) {
+        return jdbcTemplate.batchUpdate("UPDATE course SET name = :name, professor = :professor, "
+                        + "description = :description, capacity = :capacity, credits = :credits, version = version + 1 "
+                        + "WHERE course_id = :id",
+                courses.toArray(MapSqlParameterSource[]::new));
+    }
+
+    public record ExistingCourse(int id, String code, String name, int capacity, int credits) {
+    }
+}
@@ -0,0 +1,53 @@
+package hac.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * The versions behind the HTTP validators of the catalog views: the single catalog_version row, and the
+ * version, seats and last update of one course row. Each is read with one primary-key lookup.
+ */
+@Repository
+public class CatalogVersionJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CatalogVersionJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CatalogVersion findCatalogVersion() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT version, updated_at FROM catalog_version WHERE id = 1",
+                (rs, rowNum) -> new CatalogVersion(rs.getLong(1), rs.getTimestamp(2).toInstant()));
+    }
+
+    /**
+     * Moves the catalog version. Meant to run in a short transaction of its own, so the one row is not
+     * held locked by the transactions that changed the catalog.
+     */
+    public void bumpCatalogVersion() {
+        jdbcTemplate.getJdbcTemplate().update(
+                "UPDATE catalog_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = 1");
+    }
+
+    public Optional<CourseVersion> findCourseVersion(int courseId) {
+        return jdbcTemplate.query("SELECT course_id, version, seats_taken, capacity, updated_at FROM course "
+                        + "WHERE course_id = :courseId",
+                new MapSqlParameterSource("courseId", courseId),
+                (rs, rowNum) -> new CourseVersion(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getInt(4),
+                        rs.getTimestamp(5).toInstant())).stream().findFirst();
+    }
+
+    public record CatalogVersion(long version, Instant updatedAt) {
+    }
+
+    public record CourseVersion(int id, long version, int seatsTaken, int capacity, Instant updatedAt) {
+    }
+}
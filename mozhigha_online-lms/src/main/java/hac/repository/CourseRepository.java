@@ -3,50 +3,214 @@ package hac.repository;
 import hac.entity.Course;
 import hac.entity.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.repository.query.Param;
 
 @Repository
 @Transactional
 public interface CourseRepository extends JpaRepository<Course, Integer> {
 
     @Modifying
-    @Query("DELETE FROM Course c WHERE c.id = 1")
-    void deleteCourseWithIdOne();
-    
-    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Course c WHERE c.name = :name")
-    boolean existsByName(@Param("name") String name);
-    
-    // Corrected method to check if a course exists by code
-    @Query("SELECT CASE WHEN COUNT(c) > 0 THEN true ELSE false END FROM Course c WHERE c.code = :code")
-    boolean existsByCode(@Param("code") String code);
-    
-    @Query("SELECT c.name FROM Course c GROUP BY c.name HAVING COUNT(c) > 1")
-    List<String> findDuplicateCourseNames();
-
-    List<Course> findByNameOrderByIdAsc(String name);
-    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_student"))
+    @Query(value = "DELETE FROM course_student WHERE course_id = :courseId", nativeQuery = true)
+    int deleteEnrollmentsOfCourse(@Param("courseId") int courseId);
+
+    @Modifying
+    @Query("DELETE FROM Course c WHERE c.id = :courseId")
+    int deleteCourseRow(@Param("courseId") int courseId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_waitlist"))
+    @Query(value = "DELETE FROM course_waitlist WHERE course_id = :courseId", nativeQuery = true)
+    int deleteWaitlistOfCourse(@Param("courseId") int courseId);
+
+    /**
+     * Deletes a course together with its enrollments (and grades) and waitlist using set-based
+     * statements in one transaction, without loading the course or its roster.
+     *
+     * @param courseId The ID of the course.
+     * @return true if the course existed.
+     */
+    default boolean deleteCourseAndEnrollments(int courseId) {
+        deleteEnrollmentsOfCourse(courseId);
+        deleteWaitlistOfCourse(courseId);
+        return deleteCourseRow(courseId) > 0;
+    }
+
+    @Query("SELECT c.id FROM Course c WHERE c.code = :code")
+    Optional<Integer> findIdByCode(@Param("code") String code);
+
+    @Query("SELECT c.credits FROM Course c WHERE c.id = :id")
+    Optional<Integer> findCreditsById(@Param("id") int id);
+
+    /**
+     * Updates the details of the course with the given code in place, keeping its enrollments.
+     *
+     * @return 1 if a course with that code exists, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE Course c SET c.name = :name, c.professor = :professor, c.description = :description, "
+            + "c.capacity = :capacity, c.credits = :credits, c.version = c.version + 1 WHERE c.code = :code")
+    int updateDetailsByCode(@Param("code") String code, @Param("name") String name,
+                            @Param("professor") String professor, @Param("description") String description,
+                            @Param("capacity") int capacity, @Param("credits") int credits);
+
+    /**
+     * Updates the details of a course only if it is still at the version the editor started from.
+     *
+     * @return 1 on success, 0 if the course was changed or deleted in the meantime.
+     */
     @Modifying
-    @Transactional
-    @Query(
-        value = "UPDATE course_student SET grade = :grade WHERE course_id = :courseId AND student_id = :studentId", 
-        nativeQuery = true
-    )
-    void updateGrade(
-        @Param("courseId") int courseId,
-        @Param("studentId") long studentId,
-        @Param("grade") String grade
-    );
+    @Query("UPDATE Course c SET c.name = :name, c.professor = :professor, c.code = :code, "
+            + "c.description = :description, c.capacity = :capacity, c.credits = :credits, c.version = c.version + 1 "
+            + "WHERE c.id = :id AND c.version = :version")
+    int updateDetailsIfVersion(@Param("id") int id, @Param("version") long version, @Param("name") String name,
+                               @Param("professor") String professor, @Param("code") String code,
+                               @Param("description") String description, @Param("capacity") int capacity,
+                               @Param("credits") int credits);
+
+
     @Query("SELECT c FROM Course c JOIN FETCH c.studentGrades WHERE KEY(c.studentGrades) = :student")
     List<Course> findCoursesWithGradesForStudent(@Param("student") Student student);
-}
\ No newline at end of file
+
+    /**
+     * Courses of one student with that student's grade, as (course, grade) pairs.
+     * Unlike {@link #findCoursesWithGradesForStudent} it needs only the student's key, not a managed entity.
+     */
+    @Query("SELECT c, VALUE(g) FROM Course c JOIN c.studentGrades g WHERE KEY(g).id = :studentKey ORDER BY c.id")
+    List<Object[]> findCoursesWithGradeOfStudent(@Param("studentKey") int studentKey);
+
+    /**
+     * Courses the given student is not enrolled in, resolved with a single anti-join
+     * against course_student instead of loading every course's roster.
+     *
+     * @param studentId The login id of the student.
+     * @param afterId   Only courses with a greater id are returned.
+     * @param pageable  Limits the number of rows.
+     * @return The available courses in ascending id order.
+     */
+    @Query("SELECT c FROM Course c WHERE c.id > :afterId AND NOT EXISTS "
+            + "(SELECT 1 FROM c.students s WHERE s.studentId = :studentId) ORDER BY c.id ASC")
+    List<Course> findCoursesNotEnrolledAfter(@Param("studentId") String studentId,
+                                             @Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Same as {@link #findCoursesNotEnrolledAfter} but walking backwards from a cursor.
+     */
+    @Query("SELECT c FROM Course c WHERE c.id < :beforeId AND NOT EXISTS "
+            + "(SELECT 1 FROM c.students s WHERE s.studentId = :studentId) ORDER BY c.id DESC")
+    List<Course> findCoursesNotEnrolledBefore(@Param("studentId") String studentId,
+                                              @Param("beforeId") int beforeId, Pageable pageable);
+
+    // Keyset pagination over the whole catalog; results come from the query cache while the course table is unchanged
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Course> findByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Course> findByIdLessThanOrderByIdDesc(int id, Pageable pageable);
+
+    /**
+     * Grades of the given students in one course, as (student id, grade) pairs.
+     */
+    @Query("SELECT KEY(g).id, VALUE(g) FROM Course c JOIN c.studentGrades g "
+            + "WHERE c.id = :courseId AND KEY(g).id IN :studentIds")
+    List<Object[]> findGrades(@Param("courseId") int courseId, @Param("studentIds") List<Integer> studentIds);
+
+    //------------------------------------------ dashboard aggregates ------------------------------------------
+
+    interface EnrollmentTotals {
+        long getEnrollments();
+        long getGraded();
+    }
+
+    @Query(value = "SELECT COUNT(*) AS enrollments, "
+            + "COALESCE(SUM(CASE WHEN grade IS NOT NULL AND grade <> '' THEN 1 ELSE 0 END), 0) AS graded "
+            + "FROM course_student", nativeQuery = true)
+    EnrollmentTotals countEnrollments();
+
+    // (course id, enrolled students) pairs
+    @Query(value = "SELECT course_id, COUNT(*) FROM course_student GROUP BY course_id", nativeQuery = true)
+    List<Object[]> countEnrollmentsPerCourse();
+
+    @Query(value = "SELECT COUNT(*) FROM course_student WHERE course_id = :courseId "
+            + "AND grade IS NOT NULL AND grade <> ''", nativeQuery = true)
+    int countGradedInCourse(@Param("courseId") int courseId);
+
+    //--------------------------------------------- API projections ---------------------------------------------
+
+    // the catalog columns without the (possibly large) description
+    interface CourseSummary {
+        int getId();
+        String getCode();
+        String getName();
+        String getProfessor();
+        int getSeatsTaken();
+    }
+
+    // the seat counters, read from the table rather than from cached Course entities
+    interface CourseSeats {
+        int getId();
+        int getSeatsTaken();
+        int getCapacity();
+    }
+
+    interface CourseDescription {
+        int getId();
+        String getDescription();
+    }
+
+    interface EnrolledCourse {
+        int getId();
+        String getCode();
+        String getName();
+        String getProfessor();
+        String getGrade();
+    }
+
+    @Query("SELECT c.id AS id, c.code AS code, c.name AS name, c.professor AS professor, "
+            + "c.seatsTaken AS seatsTaken FROM Course c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<CourseSummary> findSummariesAfter(@Param("afterId") int afterId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.code AS code, c.name AS name, c.professor AS professor, "
+            + "c.seatsTaken AS seatsTaken FROM Course c WHERE c.id < :beforeId ORDER BY c.id DESC")
+    List<CourseSummary> findSummariesBefore(@Param("beforeId") int beforeId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.code AS code, c.name AS name, c.professor AS professor, "
+            + "c.seatsTaken AS seatsTaken FROM Course c WHERE c.id = :id")
+    Optional<CourseSummary> findSummaryById(@Param("id") int id);
+
+    @Query("SELECT c.id AS id, c.seatsTaken AS seatsTaken, c.capacity AS capacity FROM Course c WHERE c.id IN :ids")
+    List<CourseSeats> findSeats(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT c.id AS id, c.description AS description FROM Course c WHERE c.id IN :ids")
+    List<CourseDescription> findDescriptions(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Courses of one student with that student's grade, without loading Course entities.
+     */
+    @Query("SELECT c.id AS id, c.code AS code, c.name AS name, c.professor AS professor, VALUE(g) AS grade "
+            + "FROM Course c JOIN c.studentGrades g WHERE KEY(g).id = :studentKey ORDER BY c.id")
+    List<EnrolledCourse> findEnrolledCourses(@Param("studentKey") int studentKey);
+
+    /**
+     * Removes one enrollment row.
+     *
+     * @return 1 if the student was enrolled, 0 otherwise.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_student"))
+    @Query(value = "DELETE FROM course_student WHERE course_id = :courseId AND student_id = :studentId", nativeQuery = true)
+    int deleteEnrollment(@Param("courseId") int courseId, @Param("studentId") int studentId);
+}
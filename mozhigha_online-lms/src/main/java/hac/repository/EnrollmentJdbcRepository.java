@@ -0,0 +1,255 @@
+package hac.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based access to the course_student join table for bulk operations.
+ * Goes through plain JDBC so large batches never hydrate Course or Student entities.
+ */
+@Repository
+public class EnrollmentJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EnrollmentJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Resolves course codes to course ids; unknown codes are absent from the result.
+     */
+    public Map<String, Integer> findCourseIdsByCode(Collection<String> codes) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (codes.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT code, course_id FROM course WHERE code IN (:codes)",
+                new MapSqlParameterSource("codes", codes),
+                rs -> {
+                    ids.put(rs.getString(1), rs.getInt(2));
+                });
+        return ids;
+    }
+
+    /**
+     * The subset of the given course ids that exist.
+     */
+    public Set<Integer> findExistingCourseIds(Collection<Integer> courseIds) {
+        if (courseIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT course_id FROM course WHERE course_id IN (:ids)",
+                new MapSqlParameterSource("ids", courseIds), Integer.class));
+    }
+
+    /**
+     * Resolves login student ids (the 9 digit id) to student primary keys; unknown ids are absent.
+     */
+    public Map<String, Integer> findStudentKeys(Collection<String> studentIds) {
+        Map<String, Integer> keys = new HashMap<>();
+        if (studentIds.isEmpty()) {
+            return keys;
+        }
+        jdbcTemplate.query("SELECT student_id, id FROM student WHERE student_id IN (:ids)",
+                new MapSqlParameterSource("ids", studentIds),
+                rs -> {
+                    keys.put(rs.getString(1), rs.getInt(2));
+                });
+        return keys;
+    }
+
+    /**
+     * Sets grades with one JDBC batch.
+     *
+     * @param grades One (course id, student key, grade) parameter set per row.
+     * @return The driver's update count per row; 0 means the student is not enrolled in the course.
+     */
+    public int[] updateGrades(List<MapSqlParameterSource> grades) {
+        return jdbcTemplate.batchUpdate(
+                "UPDATE course_student SET grade = :grade WHERE course_id = :courseId AND student_id = :studentId",
+                grades.toArray(new MapSqlParameterSource[0]));
+    }
+
+    /**
+     * Grades of the existing enrollments among the given courses and students. The rows stay locked
+     * until the transaction ends, so the grades cannot change between reading and updating them.
+     */
+    public List<EnrollmentGrade> findGradesForUpdate(Collection<Integer> courseIds, Collection<Integer> studentKeys) {
+        if (courseIds.isEmpty() || studentKeys.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT course_id, student_id, grade FROM course_student "
+                        + "WHERE course_id IN (:courseIds) AND student_id IN (:studentKeys) FOR UPDATE",
+                new MapSqlParameterSource("courseIds", courseIds).addValue("studentKeys", studentKeys),
+                (rs, rowNum) -> new EnrollmentGrade(rs.getInt(1), rs.getInt(2), rs.getString(3)));
+    }
+
+    /**
+     * Primary keys of the students enrolled in a course.
+     */
+    public List<Integer> findStudentKeysOfCourse(int courseId) {
+        return jdbcTemplate.queryForList("SELECT student_id FROM course_student WHERE course_id = :courseId",
+                new MapSqlParameterSource("courseId", courseId), Integer.class);
+    }
+
+    /**
+     * Credits of the given courses; unknown ids are absent from the result.
+     */
+    public Map<Integer, Integer> findCredits(Collection<Integer> courseIds) {
+        Map<Integer, Integer> credits = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return credits;
+        }
+        jdbcTemplate.query("SELECT course_id, credits FROM course WHERE course_id IN (:ids)",
+                new MapSqlParameterSource("ids", courseIds),
+                rs -> {
+                    credits.put(rs.getInt(1), rs.getInt(2));
+                });
+        return credits;
+    }
+
+    /**
+     * Enrollments that already exist among the given courses and students.
+     *
+     * @return (course id, student key) pairs.
+     */
+    public List<int[]> findEnrollments(Collection<Integer> courseIds, Collection<Integer> studentKeys) {
+        if (courseIds.isEmpty() || studentKeys.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT course_id, student_id FROM course_student WHERE course_id IN (:courseIds) AND student_id IN (:studentKeys)",
+                new MapSqlParameterSource("courseIds", courseIds).addValue("studentKeys", studentKeys),
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)});
+    }
+
+    /**
+     * Inserts enrollments with one JDBC batch, skipping pairs whose enrollment is already committed, so a
+     * repeated request does not fail on the primary key. A pair inserted by a concurrent transaction that
+     * has not committed yet still fails it (H2) or deadlocks (InnoDB), which callers retry. The conditional
+     * INSERT ... SELECT runs the same on MySQL and H2, and unlike INSERT IGNORE, which Connector/J rewrites
+     * into a multi-row INSERT with rewriteBatchedStatements, it keeps one update count per pair.
+     *
+     * @param enrollments (course id, student key) pairs to enroll.
+     * @return Per pair, 1 if it was inserted and 0 if it was already enrolled.
+     */
+    public int[] insertEnrollments(List<int[]> enrollments) {
+        if (enrollments.isEmpty()) {
+            return new int[0];
+        }
+        MapSqlParameterSource[] params = enrollments.stream()
+                .map(pair -> new MapSqlParameterSource("courseId", pair[0]).addValue("studentId", pair[1]))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate("INSERT INTO course_student (course_id, student_id) "
+                + "SELECT :courseId, :studentId FROM DUAL WHERE NOT EXISTS "
+                + "(SELECT 1 FROM course_student WHERE course_id = :courseId AND student_id = :studentId)", params);
+    }
+
+    //------------------------------------------------- seats -------------------------------------------------
+
+    /**
+     * Takes a seat if the course has one left. The check and the increment are one conditional UPDATE,
+     * so concurrent callers can never oversell, and only the course's row is locked.
+     *
+     * @return true if a seat was taken, false if the course is full or does not exist.
+     */
+    public boolean takeSeat(int courseId) {
+        return jdbcTemplate.update(
+                "UPDATE course SET seats_taken = seats_taken + 1 WHERE course_id = :courseId AND seats_taken < capacity",
+                new MapSqlParameterSource("courseId", courseId)) == 1;
+    }
+
+    public void releaseSeat(int courseId) {
+        jdbcTemplate.update("UPDATE course SET seats_taken = seats_taken - 1 WHERE course_id = :courseId AND seats_taken > 0",
+                new MapSqlParameterSource("courseId", courseId));
+    }
+
+    /**
+     * Counts seats given out without a capacity check (admin enrollments may overfill a course).
+     */
+    public void addSeatsTaken(int courseId, int seats) {
+        jdbcTemplate.update("UPDATE course SET seats_taken = seats_taken + :seats WHERE course_id = :courseId",
+                new MapSqlParameterSource("courseId", courseId).addValue("seats", seats));
+    }
+
+    /**
+     * Sets the seat counter of the courses with an id in [fromId, toId) to their actual number of
+     * enrollments. Courses whose counter is right are neither written nor locked.
+     *
+     * @return The number of courses whose counter was corrected.
+     */
+    public int recountSeatsTaken(int fromId, int toId) {
+        return jdbcTemplate.update("UPDATE course SET seats_taken = "
+                        + "(SELECT COUNT(*) FROM course_student cs WHERE cs.course_id = course.course_id) "
+                        + "WHERE course_id >= :fromId AND course_id < :toId AND seats_taken <> "
+                        + "(SELECT COUNT(*) FROM course_student cs WHERE cs.course_id = course.course_id)",
+                new MapSqlParameterSource("fromId", fromId).addValue("toId", toId));
+    }
+
+    public int findMaxCourseId() {
+        Integer max = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(course_id) FROM course", Integer.class);
+        return max == null ? 0 : max;
+    }
+
+    //---------------------------------------------- single rows ----------------------------------------------
+
+    /**
+     * The grade of one enrollment, locking the row until the transaction ends.
+     *
+     * @return One element (the grade, possibly null) if the student is enrolled, none otherwise.
+     */
+    public List<String> findGradeForUpdate(int courseId, int studentKey) {
+        return jdbcTemplate.queryForList(
+                "SELECT grade FROM course_student WHERE course_id = :courseId AND student_id = :studentId FOR UPDATE",
+                new MapSqlParameterSource("courseId", courseId).addValue("studentId", studentKey), String.class);
+    }
+
+    public int deleteEnrollment(int courseId, int studentKey) {
+        return jdbcTemplate.update("DELETE FROM course_student WHERE course_id = :courseId AND student_id = :studentId",
+                new MapSqlParameterSource("courseId", courseId).addValue("studentId", studentKey));
+    }
+
+    //------------------------------------------------ waitlist ------------------------------------------------
+
+    public boolean isWaitlisted(int courseId, int studentKey) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM course_waitlist WHERE course_id = :courseId AND student_id = :studentId",
+                new MapSqlParameterSource("courseId", courseId).addValue("studentId", studentKey), Integer.class);
+        return count != null && count > 0;
+    }
+
+    public void addToWaitlist(int courseId, int studentKey) {
+        jdbcTemplate.update("INSERT INTO course_waitlist (course_id, student_id, requested_at) "
+                        + "VALUES (:courseId, :studentId, CURRENT_TIMESTAMP)",
+                new MapSqlParameterSource("courseId", courseId).addValue("studentId", studentKey));
+    }
+
+    /**
+     * @return The student key at the head of the course's waitlist, or null if nobody is waiting.
+     */
+    public Integer findFirstWaitlisted(int courseId) {
+        List<Integer> first = jdbcTemplate.queryForList(
+                "SELECT student_id FROM course_waitlist WHERE course_id = :courseId ORDER BY id LIMIT 1",
+                new MapSqlParameterSource("courseId", courseId), Integer.class);
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    public int removeFromWaitlist(int courseId, int studentKey) {
+        return jdbcTemplate.update("DELETE FROM course_waitlist WHERE course_id = :courseId AND student_id = :studentId",
+                new MapSqlParameterSource("courseId", courseId).addValue("studentId", studentKey));
+    }
+
+    public record EnrollmentGrade(int courseId, int studentKey, String grade) {
+    }
+}
@@ -0,0 +1,78 @@
+package hac.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Reads rosters, enrollments and the catalog for the CSV exports.
+ * Every query runs on a forward-only, read-only cursor and hands each row to the caller as it
+ * arrives, so the heap holds one fetch of rows at a time however large the result is.
+ */
+@Repository
+public class ExportJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${lms.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Autowired
+    public ExportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the students of a course: id, student_id, student_email, grade.
+     */
+    public void streamRoster(int courseId, RowCallbackHandler handler) {
+        stream("SELECT s.id, s.student_id, s.student_email, cs.grade "
+                + "FROM course_student cs JOIN student s ON s.id = cs.student_id "
+                + "WHERE cs.course_id = ? ORDER BY cs.student_id", handler, courseId);
+    }
+
+    /**
+     * Streams every enrollment in primary key order: course_id, code, student_id, student_email, grade.
+     */
+    public void streamEnrollments(RowCallbackHandler handler) {
+        stream("SELECT cs.course_id, c.code, s.student_id, s.student_email, cs.grade "
+                + "FROM course_student cs JOIN course c ON c.course_id = cs.course_id "
+                + "JOIN student s ON s.id = cs.student_id "
+                + "ORDER BY cs.course_id, cs.student_id", handler);
+    }
+
+    /**
+     * Streams every course: course_id, code, name, professor, description, capacity, credits, seats_taken.
+     */
+    public void streamCatalog(RowCallbackHandler handler) {
+        stream("SELECT course_id, code, name, professor, description, capacity, credits, seats_taken "
+                + "FROM course ORDER BY course_id", handler);
+    }
+
+    private void stream(String sql, RowCallbackHandler handler, Object... args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize(connection));
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, handler);
+    }
+
+    // MySQL Connector/J ignores a positive fetch size (without useCursorFetch) and reads the whole
+    // result into memory; Integer.MIN_VALUE makes it stream row by row instead
+    private int fetchSize(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")
+                ? Integer.MIN_VALUE : fetchSize;
+    }
+}
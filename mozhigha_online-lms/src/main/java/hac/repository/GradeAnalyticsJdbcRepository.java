@@ -0,0 +1,96 @@
+package hac.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Aggregate queries over course_student for the grade analytics.
+ * The database counts the grades per course; only the counts travel to the application.
+ */
+@Repository
+public class GradeAnalyticsJdbcRepository {
+
+    private static final RowMapper<CourseRef> COURSE = (rs, rowNum) ->
+            new CourseRef(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(5),
+                    rs.getLong(6));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public GradeAnalyticsJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Id, code, name, professor and both versions of every course, by id.
+     */
+    public List<CourseRef> findCourses() {
+        return jdbcTemplate.getJdbcTemplate().query(
+                "SELECT course_id, code, name, professor, version, grades_version FROM course ORDER BY course_id", COURSE);
+    }
+
+    public Optional<CourseRef> findCourse(int courseId) {
+        return jdbcTemplate.query("SELECT course_id, code, name, professor, version, grades_version FROM course "
+                        + "WHERE course_id = :courseId",
+                new MapSqlParameterSource("courseId", courseId), COURSE).stream().findFirst();
+    }
+
+    /**
+     * Moves the grades version of the given courses. Runs in the transaction that changed their
+     * enrollments or grades, so the new version commits together with the rows.
+     */
+    public void bumpGradesVersions(Collection<Integer> courseIds) {
+        jdbcTemplate.update("UPDATE course SET grades_version = grades_version + 1 WHERE course_id IN (:ids)",
+                new MapSqlParameterSource("ids", courseIds));
+    }
+
+    /**
+     * Number of enrollments per grade in the courses with ids from fromId to toId. A range rather than
+     * a list of ids, so the database reads one stretch of the course_student primary key.
+     *
+     * @return Per course id, the count of each grade; missing and blank grades are counted under "".
+     * Courses without enrollments are absent.
+     */
+    public Map<Integer, Map<String, Integer>> countGrades(int fromId, int toId) {
+        Map<Integer, Map<String, Integer>> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT course_id, grade, COUNT(*) FROM course_student "
+                        + "WHERE course_id BETWEEN :fromId AND :toId GROUP BY course_id, grade",
+                new MapSqlParameterSource("fromId", fromId).addValue("toId", toId),
+                rs -> {
+                    String grade = rs.getString(2);
+                    counts.computeIfAbsent(rs.getInt(1), id -> new HashMap<>())
+                            .merge(grade == null ? "" : grade, rs.getInt(3), Integer::sum);
+                });
+        return counts;
+    }
+
+    /**
+     * The students enrolled in a course with their grades, by student key.
+     */
+    public List<StudentGrade> findStudentGrades(int courseId) {
+        return jdbcTemplate.query("SELECT s.id, s.student_id, s.student_email, cs.grade "
+                        + "FROM course_student cs JOIN student s ON s.id = cs.student_id "
+                        + "WHERE cs.course_id = :courseId ORDER BY s.id",
+                new MapSqlParameterSource("courseId", courseId),
+                (rs, rowNum) -> new StudentGrade(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+    }
+
+    /**
+     * @param version       Moves with the course's details.
+     * @param gradesVersion Moves with its enrollments and grades.
+     */
+    public record CourseRef(int id, String code, String name, String professor, long version, long gradesVersion) {
+    }
+
+    public record StudentGrade(int id, String studentId, String email, String grade) {
+    }
+}
@@ -0,0 +1,98 @@
+package hac.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of rows read with keyset (cursor) pagination on a stable id order.
+ * Instead of an OFFSET the caller passes the id of the last row it has seen
+ * ("after") or the first one ("before"), so every page costs an indexed range
+ * scan of page size + 1 rows no matter how deep into the table it is.
+ *
+ * @param <T> The row type.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final Integer nextCursor;
+    private final Integer prevCursor;
+
+    private KeysetPage(List<T> items, Integer nextCursor, Integer prevCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    /**
+     * Reads one page in either direction.
+     *
+     * @param after    Id of the last row of the previous page, or null.
+     * @param before   Id of the first row of the next page, or null (takes precedence over after).
+     * @param size     The page size.
+     * @param forward  Query returning rows with id greater than the cursor, ascending.
+     * @param backward Query returning rows with id less than the cursor, descending.
+     * @param idOf     Extracts the sort key from a row.
+     * @return The page, always ordered by ascending id.
+     */
+    public static <T> KeysetPage<T> fetch(Integer after, Integer before, int size,
+                                          BiFunction<Integer, Pageable, List<T>> forward,
+                                          BiFunction<Integer, Pageable, List<T>> backward,
+                                          ToIntFunction<T> idOf) {
+        // one extra row tells us whether another page exists without a count query
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        if (before != null) {
+            List<T> rows = new ArrayList<>(backward.apply(before, limit));
+            boolean hasPrev = rows.size() > size;
+            if (hasPrev) {
+                rows.remove(rows.size() - 1);
+            }
+            Collections.reverse(rows);
+            return new KeysetPage<>(rows,
+                    rows.isEmpty() ? null : idOf.applyAsInt(rows.get(rows.size() - 1)),
+                    hasPrev ? idOf.applyAsInt(rows.get(0)) : null);
+        }
+
+        List<T> rows = new ArrayList<>(forward.apply(after == null ? 0 : after, limit));
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows.remove(rows.size() - 1);
+        }
+        return new KeysetPage<>(rows,
+                hasNext ? idOf.applyAsInt(rows.get(rows.size() - 1)) : null,
+                after != null && !rows.isEmpty() ? idOf.applyAsInt(rows.get(0)) : null);
+    }
+
+    /**
+     * Clamps a requested page size to the configured bounds.
+     *
+     * @param requested   The size asked for by the client, or null.
+     * @param defaultSize The size used when none is requested.
+     * @param maxSize     The largest size allowed.
+     * @return A page size between 1 and maxSize.
+     */
+    public static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        return Math.max(1, Math.min(requested, maxSize));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public Integer getPrevCursor() {
+        return prevCursor;
+    }
+}
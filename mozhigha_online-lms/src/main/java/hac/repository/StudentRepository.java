@@ -1,17 +1,56 @@
 package hac.repository;
 
 import hac.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 
 @Repository
 @Transactional
 public interface StudentRepository extends JpaRepository<Student, Long> {
 
+	    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	    Student findStudentsByStudentId(String studentId); 
+	    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	    boolean existsByStudentId(String studentId);  // ✅ Add this line
 	    
+	    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	    Student findByStudentEmail(String studentEmail);
-	}
+
+	    // Keyset pagination over all students
+	    List<Student> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+	    List<Student> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
+
+	    // Keyset pagination over the roster of one course
+	    @Query("SELECT s FROM Student s JOIN s.courses c WHERE c.id = :courseId AND s.id > :afterId ORDER BY s.id ASC")
+	    List<Student> findRosterAfter(@Param("courseId") int courseId, @Param("afterId") int afterId, Pageable pageable);
+
+	    @Query("SELECT s FROM Student s JOIN s.courses c WHERE c.id = :courseId AND s.id < :beforeId ORDER BY s.id DESC")
+	    List<Student> findRosterBefore(@Param("courseId") int courseId, @Param("beforeId") int beforeId, Pageable pageable);
+	
+	    // roster rows for the JSON API: the student columns plus the grade in that course
+	    interface RosterEntry {
+	        int getId();
+	        String getStudentId();
+	        String getEmail();
+	        String getGrade();
+	    }
+
+	    @Query("SELECT KEY(g).id AS id, KEY(g).studentId AS studentId, KEY(g).studentEmail AS email, VALUE(g) AS grade "
+	            + "FROM Course c JOIN c.studentGrades g WHERE c.id = :courseId AND KEY(g).id > :afterId ORDER BY KEY(g).id ASC")
+	    List<RosterEntry> findRosterEntriesAfter(@Param("courseId") int courseId, @Param("afterId") int afterId, Pageable pageable);
+
+	    @Query("SELECT KEY(g).id AS id, KEY(g).studentId AS studentId, KEY(g).studentEmail AS email, VALUE(g) AS grade "
+	            + "FROM Course c JOIN c.studentGrades g WHERE c.id = :courseId AND KEY(g).id < :beforeId ORDER BY KEY(g).id DESC")
+	    List<RosterEntry> findRosterEntriesBefore(@Param("courseId") int courseId, @Param("beforeId") int beforeId, Pageable pageable);
+}
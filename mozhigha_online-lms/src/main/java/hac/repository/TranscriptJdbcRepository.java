@@ -0,0 +1,138 @@
+package hac.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads and adjusts the student_transcript aggregate with plain JDBC.
+ * Day to day the rows only receive deltas; they are computed from course_student when a
+ * student has no row yet and when a change touches a whole course (credits edited, course deleted).
+ */
+@Repository
+public class TranscriptJdbcRepository {
+
+    private static final String COLUMNS = "student_id, courses_in_progress, credits_in_progress, courses_completed, "
+            + "credits_earned, graded_credits, grade_points, gpa";
+
+    private static final RowMapper<Transcript> TRANSCRIPT = (rs, rowNum) -> new Transcript(rs.getInt(1),
+            rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getBigDecimal(8));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TranscriptJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Transcript> find(int studentKey) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM student_transcript WHERE student_id = :studentKey",
+                new MapSqlParameterSource("studentKey", studentKey), TRANSCRIPT).stream().findFirst();
+    }
+
+    /**
+     * Students with at least the given GPA and earned credits, best GPA first. Reads the gpa index
+     * and the matching transcript rows only.
+     */
+    public List<HonorRollEntry> findHonorRoll(BigDecimal minGpa, int minCredits, int limit) {
+        return jdbcTemplate.query("SELECT s.id, s.student_id, s.student_email, t.gpa, t.credits_earned "
+                        + "FROM student_transcript t JOIN student s ON s.id = t.student_id "
+                        + "WHERE t.gpa >= :minGpa AND t.credits_earned >= :minCredits "
+                        + "ORDER BY t.gpa DESC, t.student_id LIMIT :limit",
+                new MapSqlParameterSource("minGpa", minGpa).addValue("minCredits", minCredits).addValue("limit", limit),
+                (rs, rowNum) -> new HonorRollEntry(rs.getInt(1), rs.getString(2), rs.getString(3),
+                        rs.getBigDecimal(4), rs.getInt(5)));
+    }
+
+    /**
+     * Adds deltas to transcript rows with one JDBC batch.
+     *
+     * @param deltas One parameter set per student: studentKey, coursesInProgress, creditsInProgress,
+     *               coursesCompleted, creditsEarned, gradedCredits and gradePoints.
+     * @return The update count per student; 0 means the student has no transcript row yet.
+     */
+    public int[] applyDeltas(List<MapSqlParameterSource> deltas) {
+        // gpa has to come first: MySQL assigns left to right and would otherwise see the updated sums,
+        // while H2 (like the SQL standard) always reads the old ones
+        return jdbcTemplate.batchUpdate("UPDATE student_transcript SET "
+                        + "gpa = CASE WHEN graded_credits + :gradedCredits > 0 "
+                        + "THEN ROUND((grade_points + :gradePoints) * 1.0 / (graded_credits + :gradedCredits), 2) END, "
+                        + "courses_in_progress = courses_in_progress + :coursesInProgress, "
+                        + "credits_in_progress = credits_in_progress + :creditsInProgress, "
+                        + "courses_completed = courses_completed + :coursesCompleted, "
+                        + "credits_earned = credits_earned + :creditsEarned, "
+                        + "graded_credits = graded_credits + :gradedCredits, "
+                        + "grade_points = grade_points + :gradePoints "
+                        + "WHERE student_id = :studentKey",
+                deltas.toArray(new MapSqlParameterSource[0]));
+    }
+
+    /**
+     * Computes the transcripts of the given students from their enrollments, for those who have no row.
+     *
+     * @param studentKeys The students, at most a few thousand per call.
+     * @param points      Grade points per grade; other grades complete a course without grade points.
+     * @return The number of rows created.
+     */
+    public int insertComputed(Collection<Integer> studentKeys, Map<String, Integer> points) {
+        if (studentKeys.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(computeMissing("s.id IN (:studentKeys) AND ", points),
+                new MapSqlParameterSource("studentKeys", studentKeys));
+    }
+
+    public int delete(Collection<Integer> studentKeys) {
+        if (studentKeys.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("DELETE FROM student_transcript WHERE student_id IN (:studentKeys)",
+                new MapSqlParameterSource("studentKeys", studentKeys));
+    }
+
+    private static String computeMissing(String filter, Map<String, Integer> points) {
+        // the scale is a fixed set of constants, written as literals so the CASE has a known type everywhere
+        StringBuilder gradePoints = new StringBuilder("CASE cs.grade");
+        for (Map.Entry<String, Integer> grade : points.entrySet()) {
+            gradePoints.append(" WHEN '").append(grade.getKey().replace("'", "''")).append("' THEN ")
+                    .append(grade.getValue().intValue());
+        }
+        gradePoints.append(" END");
+
+        String inProgress = "cs.course_id IS NOT NULL AND (cs.grade IS NULL OR cs.grade = '')";
+        String gradedCredits = "SUM(CASE WHEN " + gradePoints + " IS NOT NULL THEN c.credits ELSE 0 END)";
+        String weightedPoints = "SUM(COALESCE(" + gradePoints + ", 0) * COALESCE(c.credits, 0))";
+        return "INSERT INTO student_transcript (" + COLUMNS + ") SELECT s.id, "
+                + "SUM(CASE WHEN " + inProgress + " THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN " + inProgress + " THEN c.credits ELSE 0 END), "
+                + "SUM(CASE WHEN cs.grade <> '' THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN cs.grade <> '' THEN c.credits ELSE 0 END), "
+                + gradedCredits + ", "
+                + weightedPoints + ", "
+                + "CASE WHEN " + gradedCredits + " > 0 THEN ROUND(" + weightedPoints + " * 1.0 / " + gradedCredits + ", 2) END "
+                + "FROM student s LEFT JOIN course_student cs ON cs.student_id = s.id "
+                + "LEFT JOIN course c ON c.course_id = cs.course_id "
+                + "WHERE " + filter + "NOT EXISTS (SELECT 1 FROM student_transcript t WHERE t.student_id = s.id) "
+                + "GROUP BY s.id";
+    }
+
+    /**
+     * One student's transcript row.
+     *
+     * @param gpa Null until the student has a grade on the scale.
+     */
+    public record Transcript(int studentKey, int coursesInProgress, int creditsInProgress, int coursesCompleted,
+                             int creditsEarned, int gradedCredits, int gradePoints, BigDecimal gpa) {
+    }
+
+    public record HonorRollEntry(int id, String studentId, String email, BigDecimal gpa, int creditsEarned) {
+    }
+}
@@ -0,0 +1,50 @@
+package hac.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. Besides the rejected (invalid) rows it tells inserted from updated
+ * courses and lists the valid rows that were left alone because their code or name was already
+ * taken, again keeping only the first {@value #MAX_ERRORS}.
+ */
+public class CatalogImportReport extends ImportReport {
+
+    private int inserted;
+    private int updated;
+    private int skipped;
+    private final List<RowError> skippedRows = new ArrayList<>();
+
+    public void inserted(int rows) {
+        inserted += rows;
+        applied(rows);
+    }
+
+    public void updated(int rows) {
+        updated += rows;
+        applied(rows);
+    }
+
+    public void skip(long line, String reason) {
+        skipped++;
+        if (skippedRows.size() < MAX_ERRORS) {
+            skippedRows.add(new RowError(line, reason));
+        }
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public List<RowError> getSkippedRows() {
+        return skippedRows;
+    }
+}
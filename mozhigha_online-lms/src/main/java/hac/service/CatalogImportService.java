@@ -0,0 +1,400 @@
+package hac.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hac.entity.Course;
+import hac.repository.CatalogImportJdbcRepository;
+import hac.repository.CatalogImportJdbcRepository.ExistingCourse;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads whole course catalogs: CSV or JSON uploads and a file named by lms.catalog.import-file at
+ * startup.
+ * Rows are validated and deduplicated by code and name as they are read, then looked up against the
+ * course table one chunk at a time with a single query, and new courses are written with JDBC
+ * batches under ids reserved a block at a time. Courses whose code exists are updated only when
+ * asked to; every row left alone is reported with the reason.
+ */
+@Lazy
+@Service
+public class CatalogImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportService.class);
+
+    static final int MAX_NAME_LENGTH = 100;
+
+    private final CatalogImportJdbcRepository catalogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate idTransactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Validator validator;
+    private final CourseSearchIndex courseSearchIndex;
+    private final DashboardMetrics dashboardMetrics;
+    private final EnrollmentService enrollmentService;
+    private final TranscriptService transcriptService;
+    private final CatalogVersions catalogVersions;
+    private final ObjectMapper objectMapper;
+
+    @Value("${lms.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${lms.catalog.import-file:}")
+    private String importFile = "";
+
+    @Value("${lms.catalog.import-update:false}")
+    private boolean importFileUpdates;
+
+    @Autowired
+    public CatalogImportService(CatalogImportJdbcRepository catalogRepository, PlatformTransactionManager transactionManager,
+                                EntityManagerFactory entityManagerFactory, Validator validator,
+                                CourseSearchIndex courseSearchIndex,
+                                DashboardMetrics dashboardMetrics, EnrollmentService enrollmentService,
+                                TranscriptService transcriptService, CatalogVersions catalogVersions,
+                                ObjectMapper objectMapper) {
+        this.catalogRepository = catalogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.idTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManagerFactory = entityManagerFactory;
+        this.validator = validator;
+        this.courseSearchIndex = courseSearchIndex;
+        this.dashboardMetrics = dashboardMetrics;
+        this.enrollmentService = enrollmentService;
+        this.transcriptService = transcriptService;
+        this.catalogVersions = catalogVersions;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports the file named by lms.catalog.import-file, if any (.json for JSON, CSV otherwise).
+     */
+    public void importStartupFile() throws IOException {
+        if (importFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(importFile);
+        CatalogImportReport report;
+        if (path.toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+            try (InputStream input = Files.newInputStream(path)) {
+                report = importJson(input, importFileUpdates);
+            }
+        } else {
+            try (Reader input = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                report = importCsv(input, importFileUpdates);
+            }
+        }
+        for (ImportReport.RowError error : report.getErrors()) {
+            logger.warn("{} line {}: {}", path, error.line(), error.message());
+        }
+    }
+
+    /**
+     * Imports a CSV catalog. The first line names the columns: code, name, professor and description
+     * are required, capacity and credits optional, and anything else (such as the course_id and
+     * seats_taken columns of a catalog export) is ignored.
+     *
+     * @param input          The CSV text.
+     * @param updateExisting Whether courses whose code already exists get the details from the file.
+     */
+    public CatalogImportReport importCsv(Reader input, boolean updateExisting) throws IOException {
+        CsvReader csv = new CsvReader(input instanceof BufferedReader ? input : new BufferedReader(input));
+        List<String> header = csv.next();
+        if (header == null) {
+            return new Batch(updateExisting).finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("code", "name", "professor", "description")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("The header line has no '" + required + "' column");
+            }
+        }
+
+        Batch batch = new Batch(updateExisting);
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            batch.add(csv.getRecordLine(), field(fields, columns, "code"), field(fields, columns, "name"),
+                    field(fields, columns, "professor"), field(fields, columns, "description"),
+                    field(fields, columns, "capacity"), field(fields, columns, "credits"));
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports a JSON array of {code, name, professor, description, capacity, credits} objects, read
+     * element by element.
+     *
+     * @param input          The JSON document.
+     * @param updateExisting Whether courses whose code already exists get the details from the file.
+     */
+    public CatalogImportReport importJson(InputStream input, boolean updateExisting) throws IOException {
+        Batch batch = new Batch(updateExisting);
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of courses");
+            }
+            long element = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                element++;
+                JsonNode row = objectMapper.readTree(parser);
+                batch.add(element, text(row, "code"), text(row, "name"), text(row, "professor"),
+                        text(row, "description"), text(row, "capacity"), text(row, "credits"));
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports courses that are already objects, numbering them from 1 in the report.
+     */
+    public CatalogImportReport importCourses(List<Course> courses, boolean updateExisting) {
+        Batch batch = new Batch(updateExisting);
+        long element = 0;
+        for (Course course : courses) {
+            batch.add(++element, course);
+        }
+        return batch.finish();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= fields.size() ? "" : fields.get(index).trim();
+    }
+
+    private static String text(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value == null || value.isNull() ? "" : value.asText().trim();
+    }
+
+    private record CourseRow(long line, Course course) {
+    }
+
+    /**
+     * State of one import: the pending chunk, the codes and names seen so far and the report.
+     */
+    private class Batch {
+        private final boolean updateExisting;
+        private final CatalogImportReport report = new CatalogImportReport();
+        private final List<CourseRow> chunk = new ArrayList<>();
+        // first line of each code and name in the upload; later rows with the same one are skipped
+        private final Map<String, Long> codeLines = new HashMap<>();
+        private final Map<String, Long> nameLines = new HashMap<>();
+
+        Batch(boolean updateExisting) {
+            this.updateExisting = updateExisting;
+        }
+
+        void add(long line, String code, String name, String professor, String description,
+                 String capacity, String credits) {
+            Course course = new Course(name, professor, code, description);
+            try {
+                if (!capacity.isEmpty()) {
+                    course.setCapacity(Integer.parseInt(capacity));
+                }
+                if (!credits.isEmpty()) {
+                    course.setCredits(Integer.parseInt(credits));
+                }
+            } catch (NumberFormatException e) {
+                report.processed();
+                report.reject(line, "Capacity and credits must be whole numbers");
+                return;
+            }
+            add(line, course);
+        }
+
+        void add(long line, Course course) {
+            report.processed();
+            String invalid = validate(course);
+            if (invalid != null) {
+                report.reject(line, invalid);
+                return;
+            }
+            Long codeLine = codeLines.get(course.getCode());
+            Long nameLine = nameLines.get(course.getName());
+            if (codeLine != null) {
+                report.skip(line, "Code " + course.getCode() + " already appears on line " + codeLine);
+                return;
+            }
+            if (nameLine != null) {
+                report.skip(line, "Name '" + course.getName() + "' already appears on line " + nameLine);
+                return;
+            }
+            codeLines.put(course.getCode(), line);
+            nameLines.put(course.getName(), line);
+            chunk.add(new CourseRow(line, course));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private String validate(Course course) {
+            for (ConstraintViolation<Course> violation : validator.validate(course)) {
+                return violation.getMessage();
+            }
+            if (course.getName().length() > MAX_NAME_LENGTH || course.getProfessor().length() > MAX_NAME_LENGTH) {
+                return "Name and professor are limited to " + MAX_NAME_LENGTH + " characters";
+            }
+            return null;
+        }
+
+        CatalogImportReport finish() {
+            flush();
+            logger.info("Catalog import finished: {} rows, {} inserted, {} updated, {} skipped, {} rejected",
+                    report.getProcessed(), report.getInserted(), report.getUpdated(), report.getSkipped(),
+                    report.getRejected());
+            return report;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<String> codes = new HashSet<>();
+            Set<String> names = new HashSet<>();
+            for (CourseRow row : chunk) {
+                codes.add(row.course().getCode());
+                names.add(row.course().getName());
+            }
+            Map<String, ExistingCourse> byCode = new HashMap<>();
+            Map<String, ExistingCourse> byName = new HashMap<>();
+            for (ExistingCourse existing : catalogRepository.findByCodeOrName(codes, names)) {
+                byCode.put(existing.code(), existing);
+                byName.put(existing.name(), existing);
+            }
+
+            List<CourseRow> inserts = new ArrayList<>();
+            List<CourseRow> updates = new ArrayList<>();
+            List<ExistingCourse> updated = new ArrayList<>();
+            for (CourseRow row : chunk) {
+                Course course = row.course();
+                ExistingCourse sameCode = byCode.get(course.getCode());
+                ExistingCourse sameName = byName.get(course.getName());
+                if (sameCode == null && sameName == null) {
+                    inserts.add(row);
+                } else if (sameCode == null) {
+                    report.skip(row.line(), "Name '" + course.getName() + "' is used by course " + sameName.code());
+                } else if (!updateExisting) {
+                    report.skip(row.line(), "Course " + course.getCode() + " already exists");
+                } else if (sameName != null && sameName.id() != sameCode.id()) {
+                    report.skip(row.line(), "Name '" + course.getName() + "' is used by course " + sameName.code());
+                } else {
+                    course.setId(sameCode.id());
+                    updates.add(row);
+                    updated.add(sameCode);
+                }
+            }
+            chunk.clear();
+            if (inserts.isEmpty() && updates.isEmpty()) {
+                return;
+            }
+
+            try {
+                // ids come from their own short transaction so the id row is not locked while the chunk is written
+                int firstId = inserts.isEmpty() ? 0
+                        : idTransactionTemplate.execute(status -> catalogRepository.reserveIds(inserts.size()));
+                List<MapSqlParameterSource> insertParams = new ArrayList<>();
+                for (int i = 0; i < inserts.size(); i++) {
+                    Course course = inserts.get(i).course();
+                    course.setId(firstId + i);
+                    insertParams.add(params(course));
+                }
+                List<MapSqlParameterSource> updateParams = new ArrayList<>();
+                for (CourseRow row : updates) {
+                    updateParams.add(params(row.course()));
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!insertParams.isEmpty()) {
+                        catalogRepository.insertCourses(insertParams);
+                        // counted with the commit, so a dashboard refresh cannot count them twice
+                        for (CourseRow row : inserts) {
+                            dashboardMetrics.courseAdded(row.course().getId());
+                        }
+                    }
+                    if (!updateParams.isEmpty()) {
+                        catalogRepository.updateCourses(updateParams);
+                    }
+                });
+            } catch (DataAccessException e) {
+                logger.warn("Catalog import chunk failed and was rolled back", e);
+                for (CourseRow row : inserts) {
+                    report.reject(row.line(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+                }
+                for (CourseRow row : updates) {
+                    report.reject(row.line(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+                }
+                return;
+            }
+            report.inserted(inserts.size());
+            report.updated(updates.size());
+            // the rows were written past Hibernate, so its cached courses and catalog queries are stale;
+            // evicted per chunk because a later malformed record ends the import without reaching finish()
+            entityManagerFactory.getCache().evict(Course.class);
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            catalogVersions.catalogChanged();
+
+            // the same follow-ups as saving the course on the admin page, one course at a time
+            for (CourseRow row : inserts) {
+                courseSearchIndex.courseSaved(row.course());
+            }
+            for (int i = 0; i < updates.size(); i++) {
+                Course course = updates.get(i).course();
+                ExistingCourse before = updated.get(i);
+                courseSearchIndex.courseSaved(course);
+                if (course.getCapacity() > before.capacity()) {
+                    // added seats go to the waitlist
+                    enrollmentService.promoteWaitlisted(course.getId());
+                }
+                if (course.getCredits() != before.credits()) {
+                    transcriptService.recompute(transcriptService.studentsOf(course.getId()));
+                }
+            }
+        }
+
+        private MapSqlParameterSource params(Course course) {
+            return new MapSqlParameterSource()
+                    .addValue("id", course.getId())
+                    .addValue("name", course.getName())
+                    .addValue("professor", course.getProfessor())
+                    .addValue("code", course.getCode())
+                    .addValue("description", course.getDescription())
+                    .addValue("capacity", course.getCapacity())
+                    .addValue("credits", course.getCredits());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package hac.service;
+
+import hac.repository.CatalogVersionJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Versions of the catalog and of every course, used as HTTP validators (ETag and Last-Modified) and
+ * fragment cache keys. They are read with one primary-key lookup, so a conditional GET is answered
+ * with 304 before any page of courses or any seat count is loaded.
+ * <p>
+ * The catalog's version is the single catalog_version row. The writers of anything a catalog page shows
+ * (adding, editing or deleting a course, and every change of seats taken) call {@link #catalogChanged()},
+ * and the row is moved in a short transaction of its own once theirs has committed, so enrollments in
+ * different courses do not queue on it. A course's validators come from its own row: the optimistic-lock
+ * version, the seats taken and updated_at, which the database moves on every update of the row.
+ */
+@Service
+public class CatalogVersions {
+
+    private final CatalogVersionJdbcRepository versionRepository;
+    private final TransactionTemplate bumpTransactionTemplate;
+
+    @Autowired
+    public CatalogVersions(CatalogVersionJdbcRepository versionRepository, PlatformTransactionManager transactionManager) {
+        this.versionRepository = versionRepository;
+        // the surrounding transaction has already committed when the version is moved
+        this.bumpTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.bumpTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param course  The version row of the course.
+     * @param variant Anything else the representation depends on (user, query parameters).
+     * @return Validators for the course.
+     */
+    public Validators course(CatalogVersionJdbcRepository.CourseVersion course, String... variant) {
+        return new Validators("c" + course.id() + "-" + course.version() + "-" + course.seatsTaken() + digest(variant),
+                course.updatedAt().toEpochMilli());
+    }
+
+    /**
+     * @param variant Anything else the representation depends on (user, query parameters).
+     * @return Validators for catalog-wide views.
+     */
+    public Validators catalog(String... variant) {
+        CatalogVersionJdbcRepository.CatalogVersion version = versionRepository.findCatalogVersion();
+        return new Validators("k" + version.version() + digest(variant), version.updatedAt().toEpochMilli());
+    }
+
+    /**
+     * Moves the catalog version once the current transaction commits, or right away outside of one.
+     * Called by every writer of what a catalog page shows.
+     */
+    public void catalogChanged() {
+        afterCommit(() -> bumpTransactionTemplate.executeWithoutResult(status -> versionRepository.bumpCatalogVersion()));
+    }
+
+    // runs the change once the current transaction commits, or right away outside of one
+    static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static String digest(String... variant) {
+        if (variant.length == 0) {
+            return "";
+        }
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String part : variant) {
+                sha.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0);
+            }
+            byte[] hash = sha.digest();
+            return "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A strong ETag (without quotes) and the time of the last change, in epoch milliseconds.
+     */
+    public record Validators(String etag, long lastModified) {
+    }
+}
@@ -0,0 +1,271 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the course catalog (name, professor, code and description).
+ * The index is built once from the database and afterwards kept current by the controllers and
+ * services of this instance that add, edit or delete courses, so searching never touches the database.
+ * It is per process: on a deployment with several instances, changes made through another instance
+ * (or straight in the database) only show up here after the next {@link #refresh()}, which runs in
+ * the startup warm-up, i.e. after a restart.
+ * <p>
+ * Every query token must match a term of the course, either exactly or as a prefix. Matches
+ * are ranked by the field they hit (code, then name, then professor, then description),
+ * with exact terms scoring above prefixes.
+ */
+@Service
+public class CourseSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    private static final float CODE_WEIGHT = 8f;
+    private static final float NAME_WEIGHT = 4f;
+    private static final float PROFESSOR_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    // a term that only starts with the query token counts this much of an exact one
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final CourseRepository courseRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (course id -> weight of the term in that course)
+    private final NavigableMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    private final Map<Integer, IndexedCourse> courses = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    @Autowired
+    public CourseSearchIndex(CourseRepository courseRepository) {
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Rebuilds the whole index from the course table.
+     */
+    public void refresh() {
+        List<Course> all = courseRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            courses.clear();
+            for (Course course : all) {
+                add(IndexedCourse.of(course));
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Course search index built: {} courses, {} terms", all.size(), postings.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            refresh();
+        }
+    }
+
+    //-------------------------------------------- incremental updates --------------------------------------------
+
+    /**
+     * Adds a course, or replaces the indexed copy of it.
+     */
+    public void courseSaved(Course course) {
+        IndexedCourse indexed = IndexedCourse.of(course);
+        lock.writeLock().lock();
+        try {
+            remove(indexed.id());
+            add(indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void courseRemoved(int courseId) {
+        lock.writeLock().lock();
+        try {
+            remove(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //-------------------------------------------------- search --------------------------------------------------
+
+    /**
+     * Finds the courses matching every token of the query.
+     *
+     * @param query Free text; tokens are matched case-insensitively, as whole terms or prefixes.
+     * @param page  Zero-based page number.
+     * @param size  The page size.
+     * @return One page of hits, best first (ties by course id), and the total number of hits.
+     */
+    public SearchPage search(String query, int page, int size) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new SearchPage(query, 0, page, size, List.of());
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = score(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // AND: keep only the courses that matched every token so far
+                    Map<Integer, Float> matched = new HashMap<>();
+                    for (Map.Entry<Integer, Float> entry : tokenScores.entrySet()) {
+                        Float previous = scores.get(entry.getKey());
+                        if (previous != null) {
+                            matched.put(entry.getKey(), previous + entry.getValue());
+                        }
+                    }
+                    scores = matched;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            // only the entries up to the end of the requested page are ordered, not every match
+            int from = (int) Math.min((long) page * size, scores.size());
+            int to = (int) Math.min((long) from + size, scores.size());
+            Comparator<Map.Entry<Integer, Float>> best = Map.Entry.<Integer, Float>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey());
+            PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(Math.max(to, 1), best.reversed());
+            for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+                if (top.size() < to) {
+                    top.add(entry);
+                } else if (to > 0 && best.compare(entry, top.peek()) < 0) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(top);
+            ranked.sort(best);
+            List<SearchHit> hits = new ArrayList<>(to - from);
+            for (Map.Entry<Integer, Float> entry : ranked.subList(from, to)) {
+                hits.add(new SearchHit(courses.get(entry.getKey()), entry.getValue()));
+            }
+            return new SearchPage(query, scores.size(), page, size, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed courses.
+     */
+    public int size() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return courses.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score per course over all terms the token matches
+    private Map<Integer, Float> score(String token) {
+        Map<Integer, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Integer, Float>> term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_FACTOR;
+            for (Map.Entry<Integer, Float> posting : term.getValue().entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    //------------------------------------------- index maintenance -------------------------------------------
+
+    // callers hold the write lock
+    private void add(IndexedCourse course) {
+        courses.put(course.id(), course);
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, course.code(), CODE_WEIGHT);
+        addTerms(weights, course.name(), NAME_WEIGHT);
+        addTerms(weights, course.professor(), PROFESSOR_WEIGHT);
+        addTerms(weights, course.description(), DESCRIPTION_WEIGHT);
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(course.id(), entry.getValue());
+        }
+    }
+
+    // callers hold the write lock
+    private void remove(int courseId) {
+        IndexedCourse course = courses.remove(courseId);
+        if (course == null) {
+            return;
+        }
+        for (String field : new String[]{course.code(), course.name(), course.professor(), course.description()}) {
+            for (String term : tokenize(field)) {
+                Map<Integer, Float> courseIds = postings.get(term);
+                if (courseIds != null) {
+                    courseIds.remove(courseId);
+                    if (courseIds.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    // a term in several fields keeps the weight of the most important one
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The searchable fields of a course, copied out of the entity.
+     */
+    public record IndexedCourse(int id, String name, String professor, String code, String description) {
+        static IndexedCourse of(Course course) {
+            return new IndexedCourse(course.getId(), course.getName(), course.getProfessor(),
+                    course.getCode(), course.getDescription());
+        }
+    }
+
+    public record SearchHit(IndexedCourse course, float score) {
+    }
+
+    public record SearchPage(String query, int total, int page, int size, List<SearchHit> hits) {
+    }
+}
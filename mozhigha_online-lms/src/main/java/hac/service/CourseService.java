@@ -0,0 +1,72 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Changes to a course that touch several tables and the in-memory views of the catalog.
+ */
+@Service
+public class CourseService {
+
+    private final CourseRepository courseRepository;
+    private final TranscriptService transcriptService;
+    private final DashboardMetrics dashboardMetrics;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CatalogVersions catalogVersions;
+
+    @Autowired
+    public CourseService(CourseRepository courseRepository, TranscriptService transcriptService,
+                         DashboardMetrics dashboardMetrics, CourseSearchIndex courseSearchIndex,
+                         CatalogVersions catalogVersions) {
+        this.courseRepository = courseRepository;
+        this.transcriptService = transcriptService;
+        this.dashboardMetrics = dashboardMetrics;
+        this.courseSearchIndex = courseSearchIndex;
+        this.catalogVersions = catalogVersions;
+    }
+
+    /**
+     * Adds a new course. The dashboard counts it in the same transaction, and the search index
+     * and the catalog version follow once it has committed.
+     *
+     * @param course The course, which gets its id here.
+     * @return The saved course.
+     */
+    @Transactional
+    public Course addCourse(Course course) {
+        // flushed here, so a taken name or code fails at the insert and not at the commit
+        Course saved = courseRepository.saveAndFlush(course);
+        dashboardMetrics.courseAdded(saved.getId());
+        CatalogVersions.afterCommit(() -> courseSearchIndex.courseSaved(saved));
+        catalogVersions.catalogChanged();
+        return saved;
+    }
+
+    /**
+     * Deletes a course with its enrollments and waitlist, and takes it out of the transcripts of the
+     * students who were enrolled, all in one transaction. The dashboard, the search index and the
+     * catalog version only follow once it has committed. Ids of the remaining courses stay as they are.
+     *
+     * @param courseId The ID of the course.
+     * @return false if there is no such course.
+     */
+    @Transactional
+    public boolean deleteCourse(int courseId) {
+        int gradedEnrollments = courseRepository.countGradedInCourse(courseId);
+        List<Integer> enrolledStudents = transcriptService.studentsOf(courseId);
+        if (!courseRepository.deleteCourseAndEnrollments(courseId)) {
+            return false;
+        }
+        transcriptService.recompute(enrolledStudents);
+        dashboardMetrics.courseRemoved(courseId, gradedEnrollments);
+        CatalogVersions.afterCommit(() -> courseSearchIndex.courseRemoved(courseId));
+        catalogVersions.catalogChanged();
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package hac.service;
+
+import hac.repository.ExportJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes rosters, enrollments and the catalog as CSV straight from the database cursor to the
+ * output, one row at a time. The header goes out before the query runs, so a download starts at once.
+ */
+@Lazy
+@Service
+public class CsvExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportJdbcRepository exportRepository;
+
+    @Autowired
+    public CsvExportService(ExportJdbcRepository exportRepository) {
+        this.exportRepository = exportRepository;
+    }
+
+    /**
+     * The students of one course with their grades.
+     */
+    public void exportRoster(int courseId, OutputStream out) throws IOException {
+        export(out, new String[]{"student_key", "student_id", "email", "grade"},
+                handler -> exportRepository.streamRoster(courseId, handler),
+                rs -> new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4)});
+    }
+
+    /**
+     * Every enrollment with its grade, by course.
+     */
+    public void exportEnrollments(OutputStream out) throws IOException {
+        export(out, new String[]{"course_id", "course_code", "student_id", "email", "grade"},
+                exportRepository::streamEnrollments,
+                rs -> new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)});
+    }
+
+    /**
+     * Every course with its details and seats.
+     */
+    public void exportCatalog(OutputStream out) throws IOException {
+        export(out, new String[]{"course_id", "code", "name", "professor", "description", "capacity", "credits",
+                        "seats_taken"},
+                exportRepository::streamCatalog,
+                rs -> new Object[]{rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                        rs.getInt(6), rs.getInt(7), rs.getInt(8)});
+    }
+
+    private void export(OutputStream out, String[] header, Query query, RowReader reader) throws IOException {
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        csv.row((Object[]) header);
+        csv.flush();
+        try {
+            query.run(rs -> {
+                try {
+                    csv.row(reader.read(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // e.g. the client went away; ends the query and gives the connection back
+            throw e.getCause();
+        }
+        csv.flush();
+    }
+
+    @FunctionalInterface
+    private interface Query {
+        void run(RowCallbackHandler handler);
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        Object[] read(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,231 @@
+package hac.service;
+
+import hac.repository.CourseRepository;
+import hac.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory snapshot of the admin dashboard counters.
+ * The snapshot is computed once with aggregate SQL and afterwards kept current by the
+ * controllers and services that add or remove courses, students, enrollments and grades, so
+ * reading it never touches the database.
+ * <p>
+ * Those changes are reported in the transaction that makes them and applied once it commits, so a
+ * rolled-back change never counts. The commit itself waits while {@link #refresh()} reads the tables,
+ * so every change is either seen by the fresh snapshot's queries or applied to it afterwards, never both.
+ */
+@Service
+public class DashboardMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardMetrics.class);
+
+    private final CourseRepository courseRepository;
+    private final StudentRepository studentRepository;
+
+    // shared by the commits of transactions that report changes, exclusive while a refresh loads;
+    // taken just before the commit, when a transaction waits for no other locks any more
+    private final ReadWriteLock commits = new ReentrantReadWriteLock();
+    // null until first loaded
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public DashboardMetrics(CourseRepository courseRepository, StudentRepository studentRepository) {
+        this.courseRepository = courseRepository;
+        this.studentRepository = studentRepository;
+    }
+
+    /**
+     * Recomputes the whole snapshot from the database and swaps it in. Changes that commit in the
+     * meantime wait and are then applied to the fresh snapshot.
+     */
+    public synchronized void refresh() {
+        Snapshot fresh;
+        commits.writeLock().lock();
+        try {
+            fresh = load();
+            snapshot = fresh;
+        } finally {
+            commits.writeLock().unlock();
+        }
+        logger.debug("Dashboard snapshot loaded: {} courses, {} students, {} enrollments",
+                fresh.courses.get(), fresh.students.get(), fresh.enrollments.get());
+    }
+
+    private Snapshot load() {
+        Snapshot loaded = new Snapshot();
+        loaded.courses.set(courseRepository.count());
+        loaded.students.set(studentRepository.count());
+
+        CourseRepository.EnrollmentTotals totals = courseRepository.countEnrollments();
+        loaded.enrollments.set(totals.getEnrollments());
+        loaded.graded.set(totals.getGraded());
+
+        for (Object[] row : courseRepository.countEnrollmentsPerCourse()) {
+            loaded.fillByCourse.put(((Number) row[0]).intValue(), new AtomicInteger(((Number) row[1]).intValue()));
+        }
+        return loaded;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // applies the change once the current transaction commits; the caller reports it in the transaction
+    // that makes it, since outside of one the change is committed before it can wait for a refresh
+    private void apply(Consumer<Snapshot> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commits.readLock().lock();
+            try {
+                applyNow(change);
+            } finally {
+                commits.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commits.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                applyNow(change);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    commits.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    // nothing is kept before the first load, which reads the change from the database
+    private void applyNow(Consumer<Snapshot> change) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            synchronized (current) {
+                change.accept(current);
+            }
+        }
+    }
+
+    //-------------------------------------------- incremental updates --------------------------------------------
+
+    public void courseAdded(int courseId) {
+        apply(s -> {
+            s.courses.incrementAndGet();
+            s.fillByCourse.putIfAbsent(courseId, new AtomicInteger());
+        });
+    }
+
+    /**
+     * @param courseId The removed course.
+     * @param gradedEnrollments How many of its enrollments carried a grade.
+     */
+    public void courseRemoved(int courseId, int gradedEnrollments) {
+        apply(s -> {
+            s.courses.decrementAndGet();
+            AtomicInteger fill = s.fillByCourse.remove(courseId);
+            if (fill != null) {
+                s.enrollments.addAndGet(-fill.get());
+            }
+            s.graded.addAndGet(-gradedEnrollments);
+        });
+    }
+
+    public void enrolled(int courseId, int count) {
+        apply(s -> {
+            s.enrollments.addAndGet(count);
+            s.fillByCourse.computeIfAbsent(courseId, id -> new AtomicInteger()).addAndGet(count);
+        });
+    }
+
+    public void unenrolled(int courseId, boolean wasGraded) {
+        apply(s -> {
+            s.enrollments.decrementAndGet();
+            AtomicInteger fill = s.fillByCourse.get(courseId);
+            if (fill != null) {
+                fill.decrementAndGet();
+            }
+            if (wasGraded) {
+                s.graded.decrementAndGet();
+            }
+        });
+    }
+
+    public void gradesAssigned(int newlyGraded) {
+        apply(s -> s.graded.addAndGet(newlyGraded));
+    }
+
+    public void studentsAdded(int count) {
+        apply(s -> s.students.addAndGet(count));
+    }
+
+    public void studentRemoved() {
+        apply(s -> s.students.decrementAndGet());
+    }
+
+    //-------------------------------------------------- reads --------------------------------------------------
+
+    public long getCourses() {
+        return current().courses.get();
+    }
+
+    public long getStudents() {
+        return current().students.get();
+    }
+
+    public long getEnrollments() {
+        return current().enrollments.get();
+    }
+
+    public long getGraded() {
+        return current().graded.get();
+    }
+
+    public long getUngraded() {
+        Snapshot current = current();
+        return current.enrollments.get() - current.graded.get();
+    }
+
+    /**
+     * @return The number of students enrolled in the course, 0 for an unknown course.
+     */
+    public int getFill(int courseId) {
+        AtomicInteger fill = current().fillByCourse.get(courseId);
+        return fill == null ? 0 : fill.get();
+    }
+
+    private static final class Snapshot {
+        final AtomicLong courses = new AtomicLong();
+        final AtomicLong students = new AtomicLong();
+        final AtomicLong enrollments = new AtomicLong();
+        final AtomicLong graded = new AtomicLong();
+        // enrollments per course, so removing a course takes its enrollments off the total
+        final Map<Integer, AtomicInteger> fillByCourse = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,352 @@
+package hac.service;
+
+import hac.repository.EnrollmentJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Enrolls students into courses without loading either side of the Course/Student association:
+ * only course_student rows are inserted or deleted.
+ * <p>
+ * Students get seats through a conditional counter update on the course row (see
+ * {@link EnrollmentJdbcRepository#takeSeat}), which is what keeps a course from being oversold, also
+ * across application instances. Within one instance, changes to the same course additionally queue on
+ * one of {@value #LOCK_STRIPES} striped locks before borrowing a connection, so a rush on a popular
+ * course waits in memory instead of holding pooled connections while blocked on the row lock.
+ * Students who find a course full join its waitlist and are enrolled, in order, as seats free up.
+ */
+@Service
+public class EnrollmentService {
+
+    private static final int LOCK_STRIPES = 64;
+    // course ids per recount statement, so a recount never holds many course rows at once
+    private static final int RECOUNT_CHUNK = 500;
+    // runs of a transaction that lost a race on an enrollment row
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final EnrollmentJdbcRepository enrollmentRepository;
+    private final DashboardMetrics dashboardMetrics;
+    private final TranscriptService transcriptService;
+    private final GradeAnalyticsService gradeAnalyticsService;
+    private final CatalogVersions catalogVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final Lock[] courseLocks = new Lock[LOCK_STRIPES];
+
+    @Value("${lms.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Autowired
+    public EnrollmentService(EnrollmentJdbcRepository enrollmentRepository, DashboardMetrics dashboardMetrics,
+                             TranscriptService transcriptService,
+                             GradeAnalyticsService gradeAnalyticsService, CatalogVersions catalogVersions,
+                             PlatformTransactionManager transactionManager) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.dashboardMetrics = dashboardMetrics;
+        this.transcriptService = transcriptService;
+        this.gradeAnalyticsService = gradeAnalyticsService;
+        this.catalogVersions = catalogVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            courseLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Brings the seat counters in line with the enrollments, e.g. after rows were changed outside the application.
+     * An admin maintenance operation: the courses are corrected {@value #RECOUNT_CHUNK} ids at a time, each
+     * chunk in its own statement, and only rows whose counter is off are written (and locked).
+     *
+     * @return The number of courses whose counter was corrected.
+     */
+    public int recountSeats() {
+        int maxCourseId = enrollmentRepository.findMaxCourseId();
+        int corrected = 0;
+        for (int from = 0; from <= maxCourseId; from += RECOUNT_CHUNK) {
+            corrected += enrollmentRepository.recountSeatsTaken(from, from + RECOUNT_CHUNK);
+        }
+        if (corrected > 0) {
+            catalogVersions.catalogChanged();
+        }
+        return corrected;
+    }
+
+    /**
+     * Enrolls every given student into every given course. Existing enrollments are left untouched,
+     * so repeating the same request is harmless. This is an admin operation: it does not check the
+     * capacity, so it may fill a course beyond its seats.
+     * <p>
+     * The students are enrolled a chunk at a time, each chunk in its own transaction that is run again
+     * if it loses a race with another enrollment of the same pair. A failure leaves the earlier chunks
+     * enrolled, and repeating the request completes the rest.
+     *
+     * @param studentIds Login ids (9 digits) of the students.
+     * @param courseIds  Ids of the courses.
+     * @return What was inserted and which ids could not be resolved.
+     */
+    public BulkEnrollmentResult enrollAll(List<String> studentIds, List<Integer> courseIds) {
+        Set<Integer> courses = enrollmentRepository.findExistingCourseIds(new LinkedHashSet<>(courseIds));
+        List<Integer> unknownCourses = courseIds.stream().distinct().filter(id -> !courses.contains(id)).toList();
+
+        List<String> distinctStudents = studentIds.stream().distinct().toList();
+        List<String> unknownStudents = new ArrayList<>();
+        int inserted = 0;
+        int alreadyEnrolled = 0;
+
+        // students are handled in chunks so the IN lists, the insert batch and the transaction stay bounded
+        for (int from = 0; from < distinctStudents.size(); from += chunkSize) {
+            List<String> chunk = distinctStudents.subList(from, Math.min(from + chunkSize, distinctStudents.size()));
+            BulkEnrollmentResult result = inTransaction(() -> enrollChunk(chunk, courses));
+            inserted += result.inserted();
+            alreadyEnrolled += result.alreadyEnrolled();
+            unknownStudents.addAll(result.unknownStudents());
+        }
+        return new BulkEnrollmentResult(inserted, alreadyEnrolled, unknownStudents, unknownCourses);
+    }
+
+    private BulkEnrollmentResult enrollChunk(List<String> chunk, Set<Integer> courses) {
+        Map<String, Integer> keys = enrollmentRepository.findStudentKeys(chunk);
+        List<String> unknownStudents = new ArrayList<>();
+        for (String studentId : chunk) {
+            if (!keys.containsKey(studentId)) {
+                unknownStudents.add(studentId);
+            }
+        }
+
+        Set<Long> existing = new HashSet<>();
+        for (int[] pair : enrollmentRepository.findEnrollments(courses, keys.values())) {
+            existing.add(pairKey(pair[0], pair[1]));
+        }
+
+        int alreadyEnrolled = 0;
+        List<int[]> missing = new ArrayList<>();
+        for (int courseId : courses) {
+            for (int studentKey : keys.values()) {
+                if (existing.contains(pairKey(courseId, studentKey))) {
+                    alreadyEnrolled++;
+                } else {
+                    missing.add(new int[]{courseId, studentKey});
+                }
+            }
+        }
+        // a pair committed by someone else since the read above is skipped by the insert
+        int[] counts = enrollmentRepository.insertEnrollments(missing);
+        int inserted = 0;
+        Map<Integer, List<Integer>> insertedPerCourse = new HashMap<>();
+        for (int i = 0; i < missing.size(); i++) {
+            if (counts[i] > 0) {
+                inserted++;
+                insertedPerCourse.computeIfAbsent(missing.get(i)[0], id -> new ArrayList<>()).add(missing.get(i)[1]);
+            } else {
+                alreadyEnrolled++;
+            }
+        }
+
+        insertedPerCourse.forEach((courseId, students) -> {
+            enrollmentRepository.addSeatsTaken(courseId, students.size());
+            dashboardMetrics.enrolled(courseId, students.size());
+            transcriptService.enrolled(courseId, students);
+        });
+        gradeAnalyticsService.enrollmentsChanged(insertedPerCourse.keySet());
+        if (inserted > 0) {
+            catalogVersions.catalogChanged();
+        }
+        return new BulkEnrollmentResult(inserted, alreadyEnrolled, unknownStudents, List.of());
+    }
+
+    /**
+     * Enrolls one student into one course if it has a free seat, otherwise puts them on its waitlist.
+     *
+     * @param courseId   The ID of the course.
+     * @param studentKey The primary key of the student.
+     * @return What happened.
+     */
+    public EnrollOutcome enroll(int courseId, int studentKey) {
+        try {
+            return withCourseLock(courseId, () -> tryEnroll(courseId, studentKey));
+        } catch (DuplicateKeyException e) {
+            // enrolled through another instance since the check; the rollback returned the seat
+            return EnrollOutcome.ALREADY_ENROLLED;
+        }
+    }
+
+    private EnrollOutcome tryEnroll(int courseId, int studentKey) {
+        if (!enrollmentRepository.findEnrollments(List.of(courseId), List.of(studentKey)).isEmpty()) {
+            return EnrollOutcome.ALREADY_ENROLLED;
+        }
+        if (enrollmentRepository.takeSeat(courseId)) {
+            if (enrollmentRepository.insertEnrollments(List.<int[]>of(new int[]{courseId, studentKey}))[0] == 0) {
+                // rolls back the seat taken above
+                throw new DuplicateKeyException("Student " + studentKey + " is already enrolled in course " + courseId);
+            }
+            enrollmentRepository.removeFromWaitlist(courseId, studentKey);
+            transcriptService.enrolled(courseId, List.of(studentKey));
+            dashboardMetrics.enrolled(courseId, 1);
+            gradeAnalyticsService.enrollmentsChanged(List.of(courseId));
+            catalogVersions.catalogChanged();
+            return EnrollOutcome.ENROLLED;
+        }
+        if (enrollmentRepository.findExistingCourseIds(List.of(courseId)).isEmpty()) {
+            return EnrollOutcome.COURSE_NOT_FOUND;
+        }
+        if (enrollmentRepository.isWaitlisted(courseId, studentKey)) {
+            return EnrollOutcome.ALREADY_WAITLISTED;
+        }
+        enrollmentRepository.addToWaitlist(courseId, studentKey);
+        return EnrollOutcome.WAITLISTED;
+    }
+
+    /**
+     * Removes a student from a course and gives the freed seat to the head of its waitlist.
+     *
+     * @param courseId   The ID of the course.
+     * @param studentKey The primary key of the student.
+     * @return false if the student was not enrolled.
+     */
+    public boolean unenroll(int courseId, int studentKey) {
+        return withCourseLock(courseId, () -> {
+            List<String> grade = enrollmentRepository.findGradeForUpdate(courseId, studentKey);
+            if (grade.isEmpty() || enrollmentRepository.deleteEnrollment(courseId, studentKey) == 0) {
+                return false;
+            }
+            enrollmentRepository.releaseSeat(courseId);
+            transcriptService.unenrolled(courseId, studentKey, grade.get(0));
+            dashboardMetrics.unenrolled(courseId, grade.get(0) != null && !grade.get(0).isEmpty());
+            gradeAnalyticsService.enrollmentsChanged(List.of(courseId));
+            catalogVersions.catalogChanged();
+            promote(courseId);
+            return true;
+        });
+    }
+
+    /**
+     * Fills free seats of a course from its waitlist, e.g. after its capacity was raised.
+     *
+     * @param courseId The ID of the course.
+     * @return How many students were enrolled.
+     */
+    public int promoteWaitlisted(int courseId) {
+        return withCourseLock(courseId, () -> promote(courseId));
+    }
+
+    private int promote(int courseId) {
+        List<Integer> promoted = new ArrayList<>();
+        Integer next;
+        while ((next = enrollmentRepository.findFirstWaitlisted(courseId)) != null) {
+            if (!enrollmentRepository.findEnrollments(List.of(courseId), List.of(next)).isEmpty()) {
+                // enrolled some other way in the meantime (e.g. by an admin)
+                enrollmentRepository.removeFromWaitlist(courseId, next);
+                continue;
+            }
+            if (!enrollmentRepository.takeSeat(courseId)) {
+                break;
+            }
+            enrollmentRepository.removeFromWaitlist(courseId, next);
+            if (enrollmentRepository.insertEnrollments(List.<int[]>of(new int[]{courseId, next}))[0] == 0) {
+                // enrolled by a bulk enrollment since the check above, which counted its own seat
+                enrollmentRepository.releaseSeat(courseId);
+                continue;
+            }
+            promoted.add(next);
+        }
+        if (!promoted.isEmpty()) {
+            transcriptService.enrolled(courseId, promoted);
+            dashboardMetrics.enrolled(courseId, promoted.size());
+            gradeAnalyticsService.enrollmentsChanged(List.of(courseId));
+            catalogVersions.catalogChanged();
+        }
+        return promoted.size();
+    }
+
+    /**
+     * Sets (or, with a blank grade, clears) the grade of one enrollment and updates the student's transcript
+     * and the course's grade analytics.
+     *
+     * @param courseId   The ID of the course.
+     * @param studentKey The primary key of the student.
+     * @param grade      The new grade.
+     * @return false if the student is not enrolled in the course.
+     */
+    public boolean assignGrade(int courseId, int studentKey, String grade) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            List<String> old = enrollmentRepository.findGradeForUpdate(courseId, studentKey);
+            if (old.isEmpty()) {
+                return false;
+            }
+            enrollmentRepository.updateGrades(List.of(new MapSqlParameterSource("courseId", courseId)
+                    .addValue("studentId", studentKey).addValue("grade", grade)));
+            dashboardMetrics.gradesAssigned(
+                    (GradeScale.isGraded(grade) ? 1 : 0) - (GradeScale.isGraded(old.get(0)) ? 1 : 0));
+            transcriptService.gradesChanged(List.of(
+                    new TranscriptService.GradeChange(courseId, studentKey, old.get(0), grade)));
+            gradeAnalyticsService.gradesChanged(List.of(courseId));
+            return true;
+        }));
+    }
+
+    // the lock is taken before the transaction starts and released after it ends
+    private <T> T withCourseLock(int courseId, Supplier<T> work) {
+        Lock lock = courseLocks[Math.floorMod(courseId, LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return inTransaction(work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Inserting a pair that another transaction has inserted but not committed yet fails on the primary
+    // key (H2) or ends in a deadlock (InnoDB), whichever way the insert is written. The transaction is
+    // rolled back and run again, and the next attempt finds the other row committed.
+    private <T> T inTransaction(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static long pairKey(int courseId, int studentKey) {
+        return ((long) courseId << 32) | (studentKey & 0xffffffffL);
+    }
+
+    public enum EnrollOutcome {
+        ENROLLED,
+        ALREADY_ENROLLED,
+        WAITLISTED,
+        ALREADY_WAITLISTED,
+        COURSE_NOT_FOUND
+    }
+
+    /**
+     * Outcome of a bulk enrollment.
+     *
+     * @param inserted        Enrollments created.
+     * @param alreadyEnrolled Requested enrollments that already existed.
+     * @param unknownStudents Student ids with no matching student.
+     * @param unknownCourses  Course ids with no matching course.
+     */
+    public record BulkEnrollmentResult(int inserted, int alreadyEnrolled,
+                                       List<String> unknownStudents, List<Integer> unknownCourses) {
+    }
+}
@@ -0,0 +1,64 @@
+package hac.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered HTML for the user-independent parts of pages.
+ * A fragment is rendered once per key and afterwards copied into the page with th:utext.
+ * Keys carry the version of the content (the course's version column, see {@link CatalogVersions}),
+ * so a change to a course simply stops its old entries from being asked for; they age out under the
+ * size bound. Anything that changes without moving the version, like seats taken, stays outside.
+ */
+@Service
+public class FragmentCache {
+
+    private final ITemplateEngine templateEngine;
+    private final Cache<String, String> cache;
+
+    @Autowired
+    public FragmentCache(ITemplateEngine templateEngine,
+                         @Value("${lms.fragment-cache.max-size:16MB}") DataSize maxSize) {
+        this.templateEngine = templateEngine;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, String html) -> key.length() + html.length())
+                .build();
+    }
+
+    /**
+     * Returns the cached HTML for the key, rendering the fragment on a miss.
+     *
+     * @param key       Identifies the content, including its version.
+     * @param template  The template holding the fragment.
+     * @param fragment  The th:fragment name.
+     * @param variables Loads the fragment's variables; only called on a miss. May return null if
+     *                  there is nothing to render, in which case nothing is cached.
+     * @return The rendered HTML, or null.
+     */
+    public String render(String key, String template, String fragment, Supplier<Map<String, Object>> variables) {
+        return cache.get(key, k -> {
+            Map<String, Object> values = variables.get();
+            if (values == null) {
+                return null;
+            }
+            return templateEngine.process(template, Set.of(fragment),
+                    new Context(LocaleContextHolder.getLocale(), values));
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,187 @@
+package hac.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hac.repository.GradeAnalyticsJdbcRepository;
+import hac.repository.GradeAnalyticsJdbcRepository.CourseRef;
+import hac.repository.GradeAnalyticsJdbcRepository.StudentGrade;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grade distributions per course and per professor.
+ * <p>
+ * A course's distribution is counted by the database ({@link GradeAnalyticsJdbcRepository#countGrades})
+ * and cached under the course's version (which moves with its details) and its grades version (which
+ * moves with enrollments and grading, in the same transaction). Both are read from the course row, so
+ * a change made through any application instance simply stops the old entry from being asked for.
+ * Entries also expire after lms.analytics.cache.ttl, which bounds how long a change made to the tables
+ * outside the application goes unnoticed. Reports over many courses count the uncached courses in
+ * chunks of consecutive ids, several chunks at a time.
+ */
+@Service
+public class GradeAnalyticsService {
+
+    private final GradeAnalyticsJdbcRepository analyticsRepository;
+    private final Cache<CacheKey, GradeDistribution> cache;
+    private final ExecutorService executor;
+
+    @Value("${lms.analytics.pass-points:6}")
+    private int passPoints = 6;
+
+    @Value("${lms.analytics.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Autowired
+    public GradeAnalyticsService(GradeAnalyticsJdbcRepository analyticsRepository,
+                                 @Value("${lms.analytics.cache.max-size:20000}") long maxSize,
+                                 @Value("${lms.analytics.cache.ttl:1h}") Duration ttl,
+                                 @Value("${lms.analytics.parallelism:4}") int parallelism) {
+        this.analyticsRepository = analyticsRepository;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "grade-analytics-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Grades of the given courses changed. Must be called in the transaction that changed them.
+     */
+    public void gradesChanged(Collection<Integer> courseIds) {
+        changed(courseIds);
+    }
+
+    /**
+     * Students were enrolled in or removed from the given courses. Must be called in the transaction
+     * that changed the enrollments.
+     */
+    public void enrollmentsChanged(Collection<Integer> courseIds) {
+        changed(courseIds);
+    }
+
+    private void changed(Collection<Integer> courseIds) {
+        if (!courseIds.isEmpty()) {
+            analyticsRepository.bumpGradesVersions(courseIds);
+        }
+    }
+
+    /**
+     * @return The distribution of every course, by course id.
+     */
+    public List<CourseGradeStats> allCourses() {
+        List<CourseRef> courses = analyticsRepository.findCourses();
+        Map<CacheKey, CourseRef> keys = new LinkedHashMap<>();
+        for (CourseRef course : courses) {
+            keys.put(key(course), course);
+        }
+        Map<CacheKey, GradeDistribution> distributions = cache.getAll(keys.keySet(), this::load);
+
+        List<CourseGradeStats> stats = new ArrayList<>(courses.size());
+        keys.forEach((key, course) -> stats.add(new CourseGradeStats(course.id(), course.code(), course.name(),
+                course.professor(), distributions.get(key))));
+        return stats;
+    }
+
+    /**
+     * @return The combined distribution of each professor's courses, by professor.
+     */
+    public List<ProfessorGradeStats> professors() {
+        Map<String, List<GradeDistribution>> byProfessor = new HashMap<>();
+        for (CourseGradeStats course : allCourses()) {
+            byProfessor.computeIfAbsent(course.professor(), p -> new ArrayList<>()).add(course.distribution());
+        }
+        return byProfessor.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(professor -> new ProfessorGradeStats(professor.getKey(), professor.getValue().size(),
+                        GradeDistribution.combine(professor.getValue(), passPoints)))
+                .toList();
+    }
+
+    /**
+     * @return The course's distribution and where each of its students stands, or empty if there is no such course.
+     */
+    public Optional<CourseGradeReport> course(int courseId) {
+        return analyticsRepository.findCourse(courseId).map(course -> {
+            CacheKey key = key(course);
+            GradeDistribution distribution = cache.get(key, k -> load(Set.of(k)).get(k));
+            List<StudentStanding> students = analyticsRepository.findStudentGrades(courseId).stream()
+                    .map(student -> standing(student, distribution))
+                    .toList();
+            return new CourseGradeReport(new CourseGradeStats(course.id(), course.code(), course.name(),
+                    course.professor(), distribution), students);
+        });
+    }
+
+    // the versions are read before the counts, so counts that race with a change end up under the old version
+    private CacheKey key(CourseRef course) {
+        return new CacheKey(course.id(), course.version(), course.gradesVersion());
+    }
+
+    private Map<CacheKey, GradeDistribution> load(Set<? extends CacheKey> keys) {
+        // sorted, so each chunk is a narrow id range; ids in it that were not asked for are counted but dropped
+        List<Integer> ids = keys.stream().map(CacheKey::courseId).sorted().toList();
+        List<CompletableFuture<Map<Integer, Map<String, Integer>>>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            int fromId = ids.get(from);
+            int toId = ids.get(Math.min(from + chunkSize, ids.size()) - 1);
+            chunks.add(CompletableFuture.supplyAsync(() -> analyticsRepository.countGrades(fromId, toId), executor));
+        }
+        Map<Integer, Map<String, Integer>> counts = new HashMap<>();
+        chunks.forEach(chunk -> counts.putAll(chunk.join()));
+
+        Map<CacheKey, GradeDistribution> distributions = new HashMap<>();
+        for (CacheKey key : keys) {
+            distributions.put(key, GradeDistribution.of(counts.getOrDefault(key.courseId(), Map.of()), passPoints));
+        }
+        return distributions;
+    }
+
+    private static StudentStanding standing(StudentGrade student, GradeDistribution distribution) {
+        return new StudentStanding(student.id(), student.studentId(), student.email(), student.grade(),
+                distribution.percentile(student.grade()));
+    }
+
+    private record CacheKey(int courseId, long courseVersion, long gradesVersion) {
+    }
+
+    public record CourseGradeStats(int courseId, String code, String name, String professor,
+                                   GradeDistribution distribution) {
+    }
+
+    public record ProfessorGradeStats(String professor, int courses, GradeDistribution distribution) {
+    }
+
+    /**
+     * @param percentile The student's percentile rank in the course, null without a grade on the scale.
+     */
+    public record StudentStanding(int id, String studentId, String email, String grade, BigDecimal percentile) {
+    }
+
+    public record CourseGradeReport(CourseGradeStats course, List<StudentStanding> students) {
+    }
+}
@@ -0,0 +1,135 @@
+package hac.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How the grades of a set of enrollments (one course, or all courses of a professor) are spread.
+ * Mean, median and percentiles are taken over the grades on the {@link GradeScale}; grades outside
+ * the scale count as graded but not passed.
+ *
+ * @param enrolled   All enrollments.
+ * @param inProgress Enrollments without a grade.
+ * @param graded     Enrollments with a grade.
+ * @param passed     Enrollments with a grade on the scale worth at least the pass mark.
+ * @param passRate   Percentage of the graded enrollments that passed, null if none is graded.
+ * @param mean       Mean grade points, null if no grade is on the scale.
+ * @param median     Median grade points, null if no grade is on the scale.
+ * @param histogram  Count per grade: the scale from best to worst, then any other grades.
+ */
+public record GradeDistribution(int enrolled, int inProgress, int graded, int passed, BigDecimal passRate,
+                                BigDecimal mean, BigDecimal median, Map<String, Integer> histogram) {
+
+    /**
+     * @param counts     Count per grade, with missing and blank grades under "".
+     * @param passPoints The fewest grade points that pass.
+     */
+    public static GradeDistribution of(Map<String, Integer> counts, int passPoints) {
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        GradeScale.POINTS.keySet().forEach(grade -> histogram.put(grade, counts.getOrDefault(grade, 0)));
+        new TreeMap<>(counts).forEach((grade, count) -> {
+            if (!grade.isEmpty()) {
+                histogram.putIfAbsent(grade, count);
+            }
+        });
+
+        int inProgress = counts.getOrDefault("", 0);
+        int graded = 0;
+        int passed = 0;
+        int onScale = 0;
+        long points = 0;
+        // points from worst to best, for the median
+        List<int[]> ascending = new ArrayList<>();
+        for (Map.Entry<String, Integer> grade : histogram.entrySet()) {
+            int count = grade.getValue();
+            graded += count;
+            Integer gradePoints = GradeScale.points(grade.getKey());
+            if (gradePoints != null && count > 0) {
+                onScale += count;
+                points += (long) gradePoints * count;
+                ascending.add(0, new int[]{gradePoints, count});
+                if (gradePoints >= passPoints) {
+                    passed += count;
+                }
+            }
+        }
+
+        return new GradeDistribution(graded + inProgress, inProgress, graded, passed,
+                graded == 0 ? null : divide(100L * passed, graded, 1),
+                onScale == 0 ? null : divide(points, onScale, 2),
+                onScale == 0 ? null : median(ascending, onScale),
+                histogram);
+    }
+
+    /**
+     * Adds up the enrollments behind several distributions, e.g. all courses of one professor.
+     */
+    public static GradeDistribution combine(Collection<GradeDistribution> distributions, int passPoints) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (GradeDistribution distribution : distributions) {
+            distribution.histogram().forEach((grade, count) -> counts.merge(grade, count, Integer::sum));
+            counts.merge("", distribution.inProgress(), Integer::sum);
+        }
+        return of(counts, passPoints);
+    }
+
+    /**
+     * The percentile rank of a grade: the share of grades on the scale below it, counting half of
+     * the grades equal to it.
+     *
+     * @return The rank between 0 and 100, or null if the grade is not on the scale or nobody has a grade on it.
+     */
+    public BigDecimal percentile(String grade) {
+        Integer gradePoints = GradeScale.points(grade);
+        if (gradePoints == null) {
+            return null;
+        }
+        long below = 0;
+        long equal = 0;
+        long onScale = 0;
+        for (Map.Entry<String, Integer> entry : histogram.entrySet()) {
+            Integer points = GradeScale.points(entry.getKey());
+            if (points == null) {
+                continue;
+            }
+            onScale += entry.getValue();
+            if (points < gradePoints) {
+                below += entry.getValue();
+            } else if (points.equals(gradePoints)) {
+                equal += entry.getValue();
+            }
+        }
+        return onScale == 0 ? null : divide(100 * (2 * below + equal), 2 * onScale, 1);
+    }
+
+    private static BigDecimal median(List<int[]> ascending, int onScale) {
+        // the grades at positions lower and upper (0 based) of the sorted list; equal for an odd count
+        int lower = (onScale - 1) / 2;
+        int upper = onScale / 2;
+        Integer lowerPoints = null;
+        Integer upperPoints = null;
+        int seen = 0;
+        for (int[] grade : ascending) {
+            seen += grade[1];
+            if (lowerPoints == null && lower < seen) {
+                lowerPoints = grade[0];
+            }
+            if (upper < seen) {
+                upperPoints = grade[0];
+                break;
+            }
+        }
+        return divide(lowerPoints + upperPoints, 2, 1);
+    }
+
+    private static BigDecimal divide(long dividend, long divisor, int scale) {
+        return BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), scale, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,252 @@
+package hac.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hac.repository.EnrollmentJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies grade sheets of (course code, student id, grade) rows.
+ * Rows are validated as they are read and written in chunks, one JDBC batch and one
+ * transaction per chunk, so memory stays bounded by the chunk size rather than the file size.
+ */
+@Lazy
+@Service
+public class GradeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeImportService.class);
+
+    public static final Set<String> VALID_GRADES = GradeScale.POINTS.keySet();
+
+    private static final int UNKNOWN_COURSE = -1;
+
+    private final EnrollmentJdbcRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardMetrics dashboardMetrics;
+    private final TranscriptService transcriptService;
+    private final GradeAnalyticsService gradeAnalyticsService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${lms.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Autowired
+    public GradeImportService(EnrollmentJdbcRepository enrollmentRepository, TransactionTemplate transactionTemplate,
+                              DashboardMetrics dashboardMetrics, TranscriptService transcriptService,
+                              GradeAnalyticsService gradeAnalyticsService, ObjectMapper objectMapper) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dashboardMetrics = dashboardMetrics;
+        this.transcriptService = transcriptService;
+        this.gradeAnalyticsService = gradeAnalyticsService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports a CSV grade sheet (RFC 4180 quoting) with the columns course code, student id, grade.
+     * A first line whose first column is not a course code is treated as a header.
+     */
+    public ImportReport importCsv(Reader input) throws IOException {
+        Batch batch = new Batch();
+        CsvReader csv = new CsvReader(input instanceof BufferedReader ? input : new BufferedReader(input));
+        List<String> fields;
+        boolean first = true;
+        while ((fields = csv.next()) != null) {
+            long line = csv.getRecordLine();
+            boolean header = first && fields.get(0).toLowerCase(Locale.ROOT).startsWith("course");
+            first = false;
+            if (header || (fields.size() == 1 && fields.get(0).isBlank())) {
+                continue;
+            }
+            if (fields.size() != 3) {
+                batch.report.processed();
+                batch.report.reject(line, "Expected 3 columns but found " + fields.size());
+                continue;
+            }
+            batch.add(line, fields.get(0).trim(), fields.get(1).trim(), fields.get(2).trim());
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports a JSON array of objects with the fields courseCode, studentId and grade.
+     * The array is read element by element; it is never materialized as a whole.
+     */
+    public ImportReport importJson(InputStream input) throws IOException {
+        Batch batch = new Batch();
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of grade rows");
+            }
+            long element = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                element++;
+                JsonNode row = objectMapper.readTree(parser);
+                batch.add(element, text(row, "courseCode"), text(row, "studentId"), text(row, "grade"));
+            }
+        }
+        return batch.finish();
+    }
+
+    private static String text(JsonNode row, String field) {
+        JsonNode value = row.get(field);
+        return value == null || value.isNull() ? "" : value.asText().trim();
+    }
+
+    private record GradeRow(long line, String courseCode, String studentId, String grade) {
+    }
+
+    private record ResolvedRow(GradeRow row, int courseId, int studentKey) {
+    }
+
+    /**
+     * State of one import: the pending chunk, the course code lookups made so far and the report.
+     */
+    private class Batch {
+        private final ImportReport report = new ImportReport();
+        private final List<GradeRow> chunk = new ArrayList<>();
+        // course codes are few compared to rows, so lookups (including misses) are kept for the whole import
+        private final Map<String, Integer> courseIds = new HashMap<>();
+
+        void add(long line, String courseCode, String studentId, String grade) {
+            report.processed();
+            if (courseCode.length() != 8) {
+                report.reject(line, "Invalid course code '" + courseCode + "'");
+            } else if (!studentId.matches("\\d{9}")) {
+                report.reject(line, "Invalid student id '" + studentId + "'");
+            } else if (!VALID_GRADES.contains(grade)) {
+                report.reject(line, "Invalid grade '" + grade + "', expected one of " + VALID_GRADES);
+            } else {
+                chunk.add(new GradeRow(line, courseCode, studentId, grade));
+                if (chunk.size() >= chunkSize) {
+                    flush();
+                }
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            logger.info("Grade import finished: {} rows, {} applied, {} rejected",
+                    report.getProcessed(), report.getApplied(), report.getRejected());
+            return report;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Set<String> unresolvedCodes = new HashSet<>();
+            Set<String> studentIds = new HashSet<>();
+            for (GradeRow row : chunk) {
+                if (!courseIds.containsKey(row.courseCode())) {
+                    unresolvedCodes.add(row.courseCode());
+                }
+                studentIds.add(row.studentId());
+            }
+            Map<String, Integer> found = enrollmentRepository.findCourseIdsByCode(unresolvedCodes);
+            for (String code : unresolvedCodes) {
+                courseIds.put(code, found.getOrDefault(code, UNKNOWN_COURSE));
+            }
+            Map<String, Integer> studentKeys = enrollmentRepository.findStudentKeys(studentIds);
+
+            List<ResolvedRow> resolved = new ArrayList<>();
+            List<MapSqlParameterSource> params = new ArrayList<>();
+            for (GradeRow row : chunk) {
+                int courseId = courseIds.get(row.courseCode());
+                Integer studentKey = studentKeys.get(row.studentId());
+                if (courseId == UNKNOWN_COURSE) {
+                    report.reject(row.line(), "Unknown course code '" + row.courseCode() + "'");
+                } else if (studentKey == null) {
+                    report.reject(row.line(), "Unknown student id '" + row.studentId() + "'");
+                } else {
+                    resolved.add(new ResolvedRow(row, courseId, studentKey));
+                    params.add(new MapSqlParameterSource()
+                            .addValue("courseId", courseId)
+                            .addValue("studentId", studentKey)
+                            .addValue("grade", row.grade()));
+                }
+            }
+            chunk.clear();
+            if (params.isEmpty()) {
+                return;
+            }
+
+            try {
+                int[] counts = transactionTemplate.execute(status -> updateGrades(resolved, params));
+                for (int i = 0; i < counts.length; i++) {
+                    GradeRow row = resolved.get(i).row();
+                    if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        report.applied(1);
+                    } else {
+                        report.reject(row.line(), "Student " + row.studentId() + " is not enrolled in " + row.courseCode());
+                    }
+                }
+            } catch (DataAccessException e) {
+                logger.warn("Grade import chunk failed and was rolled back", e);
+                for (ResolvedRow row : resolved) {
+                    report.reject(row.row().line(), "Chunk rolled back: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        // the previous grades are read (and locked) first so the transcripts and the dashboard receive the difference
+        private int[] updateGrades(List<ResolvedRow> rows, List<MapSqlParameterSource> params) {
+            Map<Long, String> current = new HashMap<>();
+            Set<Integer> courses = new HashSet<>();
+            Set<Integer> students = new HashSet<>();
+            for (ResolvedRow row : rows) {
+                courses.add(row.courseId());
+                students.add(row.studentKey());
+            }
+            for (EnrollmentJdbcRepository.EnrollmentGrade enrollment
+                    : enrollmentRepository.findGradesForUpdate(courses, students)) {
+                current.put(pairKey(enrollment.courseId(), enrollment.studentKey()), enrollment.grade());
+            }
+
+            int[] counts = enrollmentRepository.updateGrades(params);
+            List<TranscriptService.GradeChange> changes = new ArrayList<>();
+            int newlyGraded = 0;
+            for (ResolvedRow row : rows) {
+                long key = pairKey(row.courseId(), row.studentKey());
+                if (current.containsKey(key)) {
+                    // a sheet may grade the same enrollment twice; the later row wins
+                    String old = current.put(key, row.row().grade());
+                    changes.add(new TranscriptService.GradeChange(row.courseId(), row.studentKey(), old, row.row().grade()));
+                    newlyGraded += (GradeScale.isGraded(row.row().grade()) ? 1 : 0) - (GradeScale.isGraded(old) ? 1 : 0);
+                }
+            }
+            dashboardMetrics.gradesAssigned(newlyGraded);
+            transcriptService.gradesChanged(changes);
+            gradeAnalyticsService.gradesChanged(changes.stream().map(TranscriptService.GradeChange::courseId)
+                    .distinct().toList());
+            return counts;
+        }
+    }
+
+    private static long pairKey(int courseId, int studentKey) {
+        return ((long) courseId << 32) | (studentKey & 0xffffffffL);
+    }
+}
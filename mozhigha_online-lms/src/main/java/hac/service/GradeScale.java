@@ -0,0 +1,42 @@
+package hac.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The grades an enrollment can carry and their grade points on the 10 point scale.
+ * Grades outside the scale (entered as free text on the admin page) still complete a course
+ * but earn no grade points and do not count towards the GPA.
+ */
+public final class GradeScale {
+
+    public static final Map<String, Integer> POINTS;
+
+    static {
+        Map<String, Integer> points = new LinkedHashMap<>();
+        points.put("O", 10);
+        points.put("A+", 9);
+        points.put("A", 8);
+        points.put("B+", 7);
+        points.put("B", 6);
+        POINTS = Collections.unmodifiableMap(points);
+    }
+
+    private GradeScale() {
+    }
+
+    /**
+     * @return Whether the grade completes the course, i.e. it is not missing or blank.
+     */
+    public static boolean isGraded(String grade) {
+        return grade != null && !grade.isEmpty();
+    }
+
+    /**
+     * @return The grade points of the grade, or null if it is not on the scale.
+     */
+    public static Integer points(String grade) {
+        return grade == null ? null : POINTS.get(grade);
+    }
+}
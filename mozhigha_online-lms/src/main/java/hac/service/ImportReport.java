@@ -0,0 +1,62 @@
+package hac.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: row counters plus the rows that were rejected.
+ * Only the first {@value #MAX_ERRORS} errors are kept so a bad file cannot exhaust the heap.
+ */
+public class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private int processed;
+    private int applied;
+    private int rejected;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void processed() {
+        processed++;
+    }
+
+    public void applied(int rows) {
+        applied += rows;
+    }
+
+    public void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return rejected > errors.size();
+    }
+
+    /**
+     * A rejected input row.
+     *
+     * @param line    1-based line (CSV) or element (JSON) number in the upload.
+     * @param message Why the row was rejected.
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,40 @@
+package hac.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+
+/**
+ * Loads login accounts straight from the database: admins from the admin table and students
+ * (by their 9 digit id) from the student table. Each lookup is a single indexed query.
+ */
+public class LmsUserDetailsService implements UserDetailsService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LmsUserDetailsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        List<String> adminPassword = jdbcTemplate.queryForList(
+                "SELECT password FROM admin WHERE username = ?", String.class, username);
+        if (!adminPassword.isEmpty()) {
+            return User.withUsername(username).password(adminPassword.get(0)).roles("ADMIN").build();
+        }
+
+        // students without a password cannot log in
+        List<String> studentPassword = jdbcTemplate.queryForList(
+                "SELECT password FROM student WHERE student_id = ? AND password IS NOT NULL", String.class, username);
+        if (!studentPassword.isEmpty()) {
+            return User.withUsername(username).password(studentPassword.get(0)).roles("STUDENT").build();
+        }
+
+        throw new UsernameNotFoundException("No account for " + username);
+    }
+}
@@ -0,0 +1,80 @@
+package hac.service;
+
+import hac.config.StartupTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The work that follows every start: the lms.catalog.import-file catalog is imported, if one is configured,
+ * and the dashboard snapshot and course search index are loaded. Nothing is repaired here; the migrations
+ * create consistent data and repairs are admin maintenance operations.
+ * <p>
+ * By default it runs in the ApplicationReadyEvent, so the instance only reports ready once it is warm.
+ * With lms.startup.deferred-warm-up=true it runs on a background thread instead and the instance is ready
+ * as soon as its context is: the snapshot and the index load themselves on first use.
+ */
+@Service
+public class StartupWarmup {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final StartupTimings startupTimings;
+    private final boolean deferred;
+
+    @Autowired
+    public StartupWarmup(@Lazy CatalogImportService catalogImportService, DashboardMetrics dashboardMetrics,
+                         CourseSearchIndex courseSearchIndex, StartupTimings startupTimings,
+                         @Value("${lms.startup.deferred-warm-up:false}") boolean deferred) {
+        this.startupTimings = startupTimings;
+        this.deferred = deferred;
+        // the import first, so the snapshot and the index include the imported courses
+        steps.put("catalog import", catalogImportService::importStartupFile);
+        steps.put("dashboard", dashboardMetrics::refresh);
+        steps.put("search index", courseSearchIndex::refresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applicationReady() throws Exception {
+        if (!deferred) {
+            for (Map.Entry<String, Step> step : steps.entrySet()) {
+                run(step.getKey(), step.getValue());
+            }
+            startupTimings.warmedUp();
+            return;
+        }
+        Thread warmUp = new Thread(() -> {
+            for (Map.Entry<String, Step> step : steps.entrySet()) {
+                try {
+                    run(step.getKey(), step.getValue());
+                } catch (Exception e) {
+                    // a failed step only leaves its data to be loaded on first use
+                    logger.error("Startup warm-up step '{}' failed", step.getKey(), e);
+                }
+            }
+            startupTimings.warmedUp();
+        }, "startup-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private void run(String name, Step step) throws Exception {
+        long start = System.nanoTime();
+        step.run();
+        logger.debug("Startup warm-up step '{}' took {} ms", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
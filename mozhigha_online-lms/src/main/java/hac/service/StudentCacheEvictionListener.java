@@ -0,0 +1,29 @@
+package hac.service;
+
+import hac.entity.Student;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener that drops a student's cached identity whenever the student row changes.
+ * The cache is looked up lazily because listeners are created while the EntityManagerFactory
+ * (which the cache depends on) is still being built.
+ */
+public class StudentCacheEvictionListener {
+
+    private final ObjectProvider<StudentIdentityCache> identityCache;
+
+    @Autowired
+    public StudentCacheEvictionListener(ObjectProvider<StudentIdentityCache> identityCache) {
+        this.identityCache = identityCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(Student student) {
+        // the login id itself may have changed, so every entry is dropped rather than just the new one
+        identityCache.ifAvailable(StudentIdentityCache::evictAll);
+    }
+}
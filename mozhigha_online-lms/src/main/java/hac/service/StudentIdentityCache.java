@@ -0,0 +1,69 @@
+package hac.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hac.entity.Student;
+import hac.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resolves the logged-in principal name (the 9 digit student id) to the student's key and email.
+ * Entries are small immutable values, never entities, so they can be shared between requests and
+ * threads without leaking one user's session state into another's. Unknown principals are not cached.
+ */
+@Service
+public class StudentIdentityCache {
+
+    private final StudentRepository studentRepository;
+    private final Cache<String, StudentIdentity> cache;
+
+    @Autowired
+    public StudentIdentityCache(StudentRepository studentRepository,
+                                @Value("${lms.student-cache.max-size:10000}") long maxSize,
+                                @Value("${lms.student-cache.ttl:10m}") Duration ttl) {
+        this.studentRepository = studentRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param principalName The name of the authenticated principal.
+     * @return The student behind it, or empty if there is no such student.
+     */
+    public Optional<StudentIdentity> resolve(String principalName) {
+        if (principalName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(principalName, this::load));
+    }
+
+    private StudentIdentity load(String principalName) {
+        Student student = studentRepository.findStudentsByStudentId(principalName);
+        return student == null ? null : new StudentIdentity(student.getId(), student.getStudentId(), student.getStudentEmail());
+    }
+
+    public void evict(String principalName) {
+        if (principalName != null) {
+            cache.invalidate(principalName);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @param id        The student's primary key.
+     * @param studentId The 9 digit login id.
+     * @param email     The student's email.
+     */
+    public record StudentIdentity(int id, String studentId, String email) {
+    }
+}
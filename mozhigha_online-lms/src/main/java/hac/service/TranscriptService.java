@@ -0,0 +1,208 @@
+package hac.service;
+
+import hac.repository.EnrollmentJdbcRepository;
+import hac.repository.TranscriptJdbcRepository;
+import hac.repository.TranscriptJdbcRepository.HonorRollEntry;
+import hac.repository.TranscriptJdbcRepository.Transcript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps each student's transcript row (credits, grade points, GPA, completed and in-progress
+ * courses) in step with their enrollments.
+ * <p>
+ * Every enrollment contributes to its student's row depending on its grade: no grade counts as in
+ * progress, any grade as completed, and a grade on the {@link GradeScale} also adds its points
+ * times the course credits. Enrolling, leaving a course and grading add the difference between the
+ * old and the new contribution, so no change ever reads a student's other enrollments. The callers
+ * are expected to run these methods in the transaction that changed course_student.
+ */
+@Service
+public class TranscriptService {
+
+    private final TranscriptJdbcRepository transcriptRepository;
+    private final EnrollmentJdbcRepository enrollmentRepository;
+
+    @Value("${lms.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Autowired
+    public TranscriptService(TranscriptJdbcRepository transcriptRepository, EnrollmentJdbcRepository enrollmentRepository) {
+        this.transcriptRepository = transcriptRepository;
+        this.enrollmentRepository = enrollmentRepository;
+    }
+
+    /**
+     * @return The student's transcript, or an empty one if it was never computed.
+     */
+    public Transcript find(int studentKey) {
+        return transcriptRepository.find(studentKey)
+                .orElse(new Transcript(studentKey, 0, 0, 0, 0, 0, 0, null));
+    }
+
+    /**
+     * The students with at least the given GPA and earned credits, best GPA first.
+     */
+    public List<HonorRollEntry> honorRoll(BigDecimal minGpa, int minCredits, int limit) {
+        return transcriptRepository.findHonorRoll(minGpa, minCredits, limit);
+    }
+
+    //-------------------------------------------- incremental updates --------------------------------------------
+
+    /**
+     * Counts new (ungraded) enrollments of the given students in one course.
+     */
+    public void enrolled(int courseId, Collection<Integer> studentKeys) {
+        Integer credits = enrollmentRepository.findCredits(List.of(courseId)).get(courseId);
+        if (credits == null || studentKeys.isEmpty()) {
+            return;
+        }
+        Contribution added = Contribution.of(null, credits);
+        Map<Integer, Contribution> deltas = new TreeMap<>();
+        for (int studentKey : studentKeys) {
+            deltas.put(studentKey, added);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Takes back what a removed enrollment contributed.
+     *
+     * @param grade The grade the enrollment had when it was removed.
+     */
+    public void unenrolled(int courseId, int studentKey, String grade) {
+        Integer credits = enrollmentRepository.findCredits(List.of(courseId)).get(courseId);
+        if (credits == null) {
+            return;
+        }
+        Map<Integer, Contribution> deltas = new TreeMap<>();
+        deltas.put(studentKey, Contribution.ZERO.minus(Contribution.of(grade, credits)));
+        apply(deltas);
+    }
+
+    /**
+     * Moves the contribution of each changed enrollment from its old grade to its new one.
+     * A blank new grade takes the course back to in progress.
+     */
+    public void gradesChanged(List<GradeChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> credits = enrollmentRepository.findCredits(
+                changes.stream().map(GradeChange::courseId).distinct().toList());
+        Map<Integer, Contribution> deltas = new TreeMap<>();
+        for (GradeChange change : changes) {
+            Integer courseCredits = credits.get(change.courseId());
+            if (courseCredits == null) {
+                continue;
+            }
+            Contribution delta = Contribution.of(change.newGrade(), courseCredits)
+                    .minus(Contribution.of(change.oldGrade(), courseCredits));
+            deltas.merge(change.studentKey(), delta, Contribution::plus);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * @return The students whose transcripts depend on the course, to pass to {@link #recompute} after
+     * a change that affects all of its enrollments at once.
+     */
+    public List<Integer> studentsOf(int courseId) {
+        return enrollmentRepository.findStudentKeysOfCourse(courseId);
+    }
+
+    /**
+     * Computes the given students' transcripts afresh from their enrollments. Meant for the rare
+     * changes that touch every enrollment of a course (its credits changed or it was deleted).
+     */
+    @Transactional
+    public void recompute(Collection<Integer> studentKeys) {
+        List<Integer> keys = new ArrayList<>(studentKeys);
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<Integer> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+            transcriptRepository.delete(chunk);
+            transcriptRepository.insertComputed(chunk, GradeScale.POINTS);
+        }
+    }
+
+    // rows are updated in student key order so concurrent batches lock them in the same order
+    private void apply(Map<Integer, Contribution> deltas) {
+        List<Integer> students = new ArrayList<>();
+        List<MapSqlParameterSource> params = new ArrayList<>();
+        deltas.forEach((studentKey, delta) -> {
+            if (!delta.equals(Contribution.ZERO)) {
+                students.add(studentKey);
+                params.add(delta.toParams(studentKey));
+            }
+        });
+        if (params.isEmpty()) {
+            return;
+        }
+        int[] counts = transcriptRepository.applyDeltas(params);
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(students.get(i));
+            }
+        }
+        // computed from the enrollments as they are now, so the change is already included
+        transcriptRepository.insertComputed(missing, GradeScale.POINTS);
+    }
+
+    /**
+     * A grade change of one enrollment; null or blank grades mean "not graded".
+     */
+    public record GradeChange(int courseId, int studentKey, String oldGrade, String newGrade) {
+    }
+
+    /**
+     * What one enrollment (or a difference of enrollments) adds to a transcript row.
+     */
+    private record Contribution(int coursesInProgress, int creditsInProgress, int coursesCompleted,
+                                int creditsEarned, int gradedCredits, int gradePoints) {
+
+        static final Contribution ZERO = new Contribution(0, 0, 0, 0, 0, 0);
+
+        static Contribution of(String grade, int credits) {
+            if (!GradeScale.isGraded(grade)) {
+                return new Contribution(1, credits, 0, 0, 0, 0);
+            }
+            Integer points = GradeScale.points(grade);
+            return points == null
+                    ? new Contribution(0, 0, 1, credits, 0, 0)
+                    : new Contribution(0, 0, 1, credits, credits, points * credits);
+        }
+
+        Contribution plus(Contribution other) {
+            return new Contribution(coursesInProgress + other.coursesInProgress,
+                    creditsInProgress + other.creditsInProgress, coursesCompleted + other.coursesCompleted,
+                    creditsEarned + other.creditsEarned, gradedCredits + other.gradedCredits,
+                    gradePoints + other.gradePoints);
+        }
+
+        Contribution minus(Contribution other) {
+            return plus(new Contribution(-other.coursesInProgress, -other.creditsInProgress,
+                    -other.coursesCompleted, -other.creditsEarned, -other.gradedCredits, -other.gradePoints));
+        }
+
+        MapSqlParameterSource toParams(int studentKey) {
+            return new MapSqlParameterSource("studentKey", studentKey)
+                    .addValue("coursesInProgress", coursesInProgress)
+                    .addValue("creditsInProgress", creditsInProgress)
+                    .addValue("coursesCompleted", coursesCompleted)
+                    .addValue("creditsEarned", creditsEarned)
+                    .addValue("gradedCredits", gradedCredits)
+                    .addValue("gradePoints", gradePoints);
+        }
+    }
+}
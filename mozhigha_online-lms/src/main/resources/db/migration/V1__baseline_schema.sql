@@ -0,0 +1,57 @@
+-- The schema as hibernate.ddl-auto=update created it before Flyway took over: the course catalog, its
+-- students and their enrollments, and the Spring Session tables of spring.session.jdbc.initialize-schema.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and only
+-- run the later migrations, so this script must not change. Constraint names are the ones Hibernate
+-- generated. Written to run on MySQL and on H2, which the tests and benchmarks use.
+
+CREATE TABLE course (
+    course_id INTEGER NOT NULL AUTO_INCREMENT,
+    code VARCHAR(8),
+    description MEDIUMTEXT,
+    name VARCHAR(100),
+    professor VARCHAR(100),
+    PRIMARY KEY (course_id)
+);
+
+CREATE TABLE course_student (
+    course_id INTEGER NOT NULL,
+    student_id INTEGER NOT NULL,
+    grade VARCHAR(255),
+    PRIMARY KEY (course_id, student_id)
+);
+
+CREATE TABLE student (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    student_email VARCHAR(255),
+    student_id VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE course ADD CONSTRAINT UK_i60mruj0y7a7vs99dqpiye7en UNIQUE (code);
+ALTER TABLE course ADD CONSTRAINT UK_4xqvdpkafb91tt3hsb67ga3fj UNIQUE (name);
+ALTER TABLE student ADD CONSTRAINT UK_qm8ww2m2nj6rqaroqqelj9vl5 UNIQUE (student_email);
+ALTER TABLE course_student ADD CONSTRAINT FK4xxxkt1m6afc9vxp3ryb0xfhi FOREIGN KEY (student_id) REFERENCES student (id);
+ALTER TABLE course_student ADD CONSTRAINT FKlmj50qx9k98b7li5li74nnylb FOREIGN KEY (course_id) REFERENCES course (course_id);
+
+CREATE TABLE SPRING_SESSION (
+    PRIMARY_ID CHAR(36) NOT NULL,
+    SESSION_ID CHAR(36) NOT NULL,
+    CREATION_TIME BIGINT NOT NULL,
+    LAST_ACCESS_TIME BIGINT NOT NULL,
+    MAX_INACTIVE_INTERVAL INT NOT NULL,
+    EXPIRY_TIME BIGINT NOT NULL,
+    PRINCIPAL_NAME VARCHAR(100),
+    CONSTRAINT SPRING_SESSION_PK PRIMARY KEY (PRIMARY_ID)
+);
+CREATE UNIQUE INDEX SPRING_SESSION_IX1 ON SPRING_SESSION (SESSION_ID);
+CREATE INDEX SPRING_SESSION_IX2 ON SPRING_SESSION (EXPIRY_TIME);
+CREATE INDEX SPRING_SESSION_IX3 ON SPRING_SESSION (PRINCIPAL_NAME);
+
+CREATE TABLE SPRING_SESSION_ATTRIBUTES (
+    SESSION_PRIMARY_ID CHAR(36) NOT NULL,
+    ATTRIBUTE_NAME VARCHAR(200) NOT NULL,
+    ATTRIBUTE_BYTES BLOB NOT NULL,
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_PK PRIMARY KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME),
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_FK FOREIGN KEY (SESSION_PRIMARY_ID)
+        REFERENCES SPRING_SESSION (PRIMARY_ID) ON DELETE CASCADE
+);
@@ -0,0 +1,8 @@
+-- Every hot lookup gets an index. Enrollments by (course, student) already have the primary key;
+-- this adds enrollments by student and students by their login id.
+
+-- a student's courses, transcripts and unenrollment
+CREATE INDEX idx_course_student_student ON course_student (student_id, course_id);
+
+-- login and every principal -> student resolution
+CREATE UNIQUE INDEX uk_student_student_id ON student (student_id);
@@ -0,0 +1,9 @@
+-- Seat limits, credit points and the optimistic-lock version of a course. seats_taken is the
+-- denormalized enrollment count that takeSeat/releaseSeat keep in step with course_student.
+
+ALTER TABLE course ADD COLUMN capacity INTEGER DEFAULT 10 NOT NULL;
+ALTER TABLE course ADD COLUMN credits INTEGER DEFAULT 3 NOT NULL;
+ALTER TABLE course ADD COLUMN seats_taken INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE course ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE course SET seats_taken = (SELECT COUNT(*) FROM course_student cs WHERE cs.course_id = course.course_id);
@@ -0,0 +1,13 @@
+-- Accounts are checked against the database instead of the in-memory users: students log in with their
+-- student id and a BCrypt password, admins have a table of their own. Existing students have no
+-- password until one is set for them.
+
+ALTER TABLE student ADD COLUMN password VARCHAR(100);
+
+CREATE TABLE admin (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_admin_username UNIQUE (username)
+);
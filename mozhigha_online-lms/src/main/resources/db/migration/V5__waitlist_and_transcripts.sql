@@ -0,0 +1,51 @@
+-- The waitlist of full courses and the denormalized transcript of every student.
+
+CREATE TABLE course_waitlist (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    course_id INTEGER NOT NULL,
+    student_id INTEGER NOT NULL,
+    requested_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_course_waitlist_student UNIQUE (course_id, student_id),
+    CONSTRAINT fk_course_waitlist_course FOREIGN KEY (course_id) REFERENCES course (course_id),
+    CONSTRAINT fk_course_waitlist_student FOREIGN KEY (student_id) REFERENCES student (id)
+);
+CREATE INDEX idx_course_waitlist_queue ON course_waitlist (course_id, id);
+
+CREATE TABLE student_transcript (
+    student_id INTEGER NOT NULL,
+    credits_earned INTEGER NOT NULL,
+    credits_in_progress INTEGER NOT NULL,
+    graded_credits INTEGER NOT NULL,
+    grade_points INTEGER NOT NULL,
+    courses_completed INTEGER NOT NULL,
+    courses_in_progress INTEGER NOT NULL,
+    gpa DECIMAL(4, 2),
+    PRIMARY KEY (student_id),
+    CONSTRAINT fk_student_transcript_student FOREIGN KEY (student_id) REFERENCES student (id)
+);
+CREATE INDEX idx_student_transcript_gpa ON student_transcript (gpa);
+
+-- every existing student's transcript, computed as TranscriptJdbcRepository does with the points of
+-- hac.service.GradeScale; from here on the enrollment and grade changes keep them current
+INSERT INTO student_transcript (student_id, courses_in_progress, credits_in_progress, courses_completed,
+                                credits_earned, graded_credits, grade_points, gpa)
+    SELECT s.id,
+           SUM(CASE WHEN cs.course_id IS NOT NULL AND (cs.grade IS NULL OR cs.grade = '') THEN 1 ELSE 0 END),
+           SUM(CASE WHEN cs.course_id IS NOT NULL AND (cs.grade IS NULL OR cs.grade = '') THEN c.credits ELSE 0 END),
+           SUM(CASE WHEN cs.grade <> '' THEN 1 ELSE 0 END),
+           SUM(CASE WHEN cs.grade <> '' THEN c.credits ELSE 0 END),
+           SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END),
+           SUM(COALESCE(p.points, 0) * COALESCE(c.credits, 0)),
+           CASE WHEN SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END) > 0
+                THEN ROUND(SUM(COALESCE(p.points, 0) * COALESCE(c.credits, 0)) * 1.0
+                           / SUM(CASE WHEN p.points IS NOT NULL THEN c.credits ELSE 0 END), 2) END
+    FROM student s
+        LEFT JOIN course_student cs ON cs.student_id = s.id
+        LEFT JOIN course c ON c.course_id = cs.course_id
+        LEFT JOIN (SELECT 'O' AS grade, 10 AS points
+                   UNION ALL SELECT 'A+', 9
+                   UNION ALL SELECT 'A', 8
+                   UNION ALL SELECT 'B+', 7
+                   UNION ALL SELECT 'B', 6) p ON p.grade = cs.grade
+    GROUP BY s.id;
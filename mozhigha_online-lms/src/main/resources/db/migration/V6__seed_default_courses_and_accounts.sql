@@ -0,0 +1,45 @@
+-- Reference data that used to be written (and checked) on every boot. Each row is only added when
+-- nothing with the same code, name or login exists, so baselined databases keep what they have.
+
+-- pooled-lo id blocks of the Course entity; the row holds the next free id
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO course (course_id, name, professor, code, description, capacity, credits, seats_taken, version)
+    SELECT ids.next_id, 'Introduction to Computer Science', 'Dr. Yoram Biberman', '10204011',
+           'In this course, we will get to know the basics of programming...', 10, 3, 0, 0
+    FROM (SELECT COALESCE(MAX(course_id), 0) + 1 AS next_id FROM course) ids
+    WHERE NOT EXISTS (SELECT 1 FROM course WHERE code = '10204011' OR name = 'Introduction to Computer Science');
+
+INSERT INTO course (course_id, name, professor, code, description, capacity, credits, seats_taken, version)
+    SELECT ids.next_id, 'Digital Systems', 'Dr. Simcha Rozen', '10203012',
+           'How is data stored on a computer?...', 10, 3, 0, 0
+    FROM (SELECT COALESCE(MAX(course_id), 0) + 1 AS next_id FROM course) ids
+    WHERE NOT EXISTS (SELECT 1 FROM course WHERE code = '10203012' OR name = 'Digital Systems');
+
+INSERT INTO course (course_id, name, professor, code, description, capacity, credits, seats_taken, version)
+    SELECT ids.next_id, 'Discrete Mathematics', 'Dr. Eran London', '10202011',
+           'The course begins with the fundamentals of the language of mathematics...', 10, 3, 0, 0
+    FROM (SELECT COALESCE(MAX(course_id), 0) + 1 AS next_id FROM course) ids
+    WHERE NOT EXISTS (SELECT 1 FROM course WHERE code = '10202011' OR name = 'Discrete Mathematics');
+
+INSERT INTO id_generator (sequence_name, next_val)
+    SELECT 'course', 1 FROM (SELECT 1 AS one) x
+    WHERE NOT EXISTS (SELECT 1 FROM id_generator WHERE sequence_name = 'course');
+UPDATE id_generator SET next_val = GREATEST(COALESCE(next_val, 1), (SELECT COALESCE(MAX(course_id), 0) + 1 FROM course))
+    WHERE sequence_name = 'course';
+
+-- demo accounts, BCrypt (cost 10): admin 123456788 / Jessica123, student 123456789 / password123
+INSERT INTO admin (username, password)
+    SELECT '123456788', '$2a$10$foSlaIxYFDhc.WprB9b06O5JFD8YtJMIMhns872l51Du03D7CIJ2y' FROM (SELECT 1 AS one) x
+    WHERE NOT EXISTS (SELECT 1 FROM admin WHERE username = '123456788');
+
+INSERT INTO student (student_id, student_email, password)
+    SELECT '123456789', 'student1@university.edu', '$2a$10$G3EPYC9eJpP.06XcjSbpzeoChBt4whl5qgRTgV6c4wH4xSx7wnacW'
+    FROM (SELECT 1 AS one) x
+    WHERE NOT EXISTS (SELECT 1 FROM student WHERE student_id = '123456789');
+UPDATE student SET password = '$2a$10$G3EPYC9eJpP.06XcjSbpzeoChBt4whl5qgRTgV6c4wH4xSx7wnacW'
+    WHERE student_id = '123456789' AND password IS NULL;
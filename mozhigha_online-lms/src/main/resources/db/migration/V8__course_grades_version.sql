@@ -0,0 +1,4 @@
+-- Moves whenever enrollments or grades of the course change, in the same transaction, so the grade
+-- analytics of every application instance can tell a cached distribution is out of date.
+
+ALTER TABLE course ADD COLUMN grades_version BIGINT DEFAULT 0 NOT NULL;
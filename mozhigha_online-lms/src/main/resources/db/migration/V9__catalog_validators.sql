@@ -0,0 +1,15 @@
+-- The HTTP validators of the catalog views, each read with one primary-key lookup before a page is.
+-- catalog_version moves, once the change has committed, whenever something a catalog page shows changes:
+-- a course is added, edited or deleted, or its seats taken change. course.updated_at is the time a course
+-- row last changed, its details or its seat count, and is kept by the database.
+
+CREATE TABLE catalog_version (
+    id INTEGER NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO catalog_version (id, version, updated_at) VALUES (1, 0, CURRENT_TIMESTAMP);
+
+ALTER TABLE course ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL;
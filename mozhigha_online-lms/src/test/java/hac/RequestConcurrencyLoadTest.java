@@ -0,0 +1,93 @@
+package hac;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of a JDBC-backed page at 1k and 5k concurrent users, against an in-memory database.
+ * Not part of the regular build. Compare the serving modes by running it once per mode:
+ * <pre>
+ * mvn test -Dbenchmark=true -Dtest=RequestConcurrencyLoadTest
+ * mvn test -Dbenchmark=true -Dtest=RequestConcurrencyLoadTest -Dlms.virtual-threads.enabled=true -Dlms.jdbc.bulkhead.enabled=true
+ * </pre>
+ * (the second run needs Java 21).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "logging.level.hac.controllers=INFO",
+        "server.tomcat.max-connections=10000",
+        "server.tomcat.accept-count=10000"
+})
+class RequestConcurrencyLoadTest {
+
+    private static final int REQUESTS_PER_USER = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void measureThroughput() {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String mode = Boolean.getBoolean("lms.virtual-threads.enabled") ? "virtual threads" : "platform threads";
+
+        run(client, 100, "warm-up");
+        for (int users : new int[]{1000, 5000}) {
+            run(client, users, mode);
+        }
+    }
+
+    private void run(HttpClient client, int users, String mode) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/student/courses"))
+                .header("Authorization", "Basic " + Base64.getEncoder()
+                        .encodeToString("123456789:password123".getBytes(StandardCharsets.UTF_8)))
+                .build();
+        // at most one request in flight per user
+        Semaphore inFlight = new Semaphore(users);
+        AtomicInteger failures = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> calls = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < users * REQUESTS_PER_USER; i++) {
+            inFlight.acquireUninterruptibly();
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        latencies.add(System.nanoTime() - sent);
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%-16s %5d users: %8.0f req/s, p50 %6.1f ms, p99 %7.1f ms, %d failed%n",
+                mode, users, calls.size() / seconds,
+                sorted.get(sorted.size() / 2) / 1e6, sorted.get((int) (sorted.size() * 0.99)) / 1e6, failures.get());
+    }
+}
@@ -0,0 +1,87 @@
+package hac;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A database left behind by the old hibernate.ddl-auto=update (the V1 schema without a Flyway history)
+ * is baselined and brought up to date by the later migrations, as application.properties configures it.
+ * Its course_student may lack the primary key and hold the same enrollment twice.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void testLegacyDatabaseIsBaselinedAndMigrated() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("ALTER TABLE course_student DROP PRIMARY KEY");
+        jdbc.update("INSERT INTO course (course_id, code, description, name, professor) VALUES "
+                + "(1, '10204011', 'Basics', 'Introduction to Computer Science', 'Dr. Yoram Biberman'), "
+                + "(7, '55500001', 'Legacy', 'Legacy Course', 'Dr. Legacy')");
+        jdbc.update("INSERT INTO student (id, student_email, student_id) VALUES "
+                + "(1, 'legacy1@university.edu', '555000001'), (2, 'legacy2@university.edu', '555000002')");
+        jdbc.update("INSERT INTO course_student (course_id, student_id, grade) VALUES "
+                + "(1, 1, 'A'), (7, 1, NULL), (7, 1, 'B'), (7, 2, NULL), (7, 2, NULL)");
+
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+        // one row per enrollment, the graded one where there was a choice, and no second one from now on
+        assertEquals(List.of("B"), jdbc.queryForList(
+                "SELECT grade FROM course_student WHERE course_id = 7 AND student_id = 1", String.class));
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM course_student WHERE course_id = 7 AND student_id = 2", Integer.class));
+        assertThrows(DuplicateKeyException.class,
+                () -> jdbc.update("INSERT INTO course_student (course_id, student_id) VALUES (7, 2)"));
+
+        // the existing rows are kept and get the defaults and the seat counts of their enrollments
+        Map<String, Object> legacy = jdbc.queryForMap(
+                "SELECT capacity, credits, seats_taken, version FROM course WHERE course_id = 7");
+        assertEquals(10, legacy.get("capacity"));
+        assertEquals(3, legacy.get("credits"));
+        assertEquals(2, legacy.get("seats_taken"));
+        assertEquals(0L, legacy.get("version"));
+        assertEquals(1, jdbc.queryForObject("SELECT seats_taken FROM course WHERE course_id = 1", Integer.class));
+
+        // every student has a transcript: 3-credit A (8) and B (6) give a 7.00 GPA
+        Map<String, Object> graded = jdbc.queryForMap("SELECT * FROM student_transcript WHERE student_id = 1");
+        assertEquals(2, graded.get("courses_completed"));
+        assertEquals(6, graded.get("credits_earned"));
+        assertEquals(42, graded.get("grade_points"));
+        assertEquals(0, new BigDecimal("7.00").compareTo((BigDecimal) graded.get("gpa")));
+        Map<String, Object> ungraded = jdbc.queryForMap("SELECT * FROM student_transcript WHERE student_id = 2");
+        assertEquals(1, ungraded.get("courses_in_progress"));
+        assertEquals(3, ungraded.get("credits_in_progress"));
+        assertNull(ungraded.get("gpa"));
+
+        // the seed skips the default course the database already has and adds the other two after it
+        List<Integer> seeded = jdbc.queryForList(
+                "SELECT course_id FROM course WHERE code IN ('10203012', '10202011') ORDER BY course_id",
+                Integer.class);
+        assertEquals(List.of(8, 9), seeded);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM course WHERE code = '10204011'", Integer.class));
+        assertEquals(10L, jdbc.queryForObject(
+                "SELECT next_val FROM id_generator WHERE sequence_name = 'course'", Long.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM admin WHERE username = '123456788'",
+                Integer.class));
+        assertTrue(jdbc.queryForObject("SELECT password FROM student WHERE student_id = '123456789'",
+                String.class).startsWith("$2a$10$"));
+        assertNull(jdbc.queryForObject("SELECT password FROM student WHERE id = 1", String.class));
+    }
+}
@@ -0,0 +1,43 @@
+package hac.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    @Test
+    void testPermitIsHeldUntilConnectionIsClosed() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        Connection pooled = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(pool, 1, Duration.ofMillis(50));
+
+        Connection connection = bulkhead.getConnection();
+        assertEquals(0, bulkhead.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+
+        connection.close();
+        connection.close();
+        verify(pooled, times(1)).close();
+        assertEquals(1, bulkhead.getAvailablePermits());
+        bulkhead.getConnection();
+    }
+
+    @Test
+    void testPermitIsReturnedWhenThePoolFails() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool down"));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(pool, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+        assertEquals(1, bulkhead.getAvailablePermits());
+    }
+}
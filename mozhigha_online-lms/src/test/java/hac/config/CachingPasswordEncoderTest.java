@@ -0,0 +1,46 @@
+package hac.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CachingPasswordEncoderTest {
+
+    @Test
+    void testVerifiedCredentialsSkipTheDelegate() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches("password123", "$2a$hash")).thenReturn(true);
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+
+        assertTrue(encoder.matches("password123", "$2a$hash"));
+        assertTrue(encoder.matches("password123", "$2a$hash"));
+        verify(delegate, times(1)).matches("password123", "$2a$hash");
+    }
+
+    @Test
+    void testFailedMatchesAreNotCached() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+
+        assertFalse(encoder.matches("wrong", "$2a$hash"));
+        assertFalse(encoder.matches("wrong", "$2a$hash"));
+        verify(delegate, times(2)).matches("wrong", "$2a$hash");
+    }
+
+    @Test
+    void testChangedHashIsVerifiedAgain() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(eq("password123"), anyString())).thenReturn(true);
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+
+        encoder.matches("password123", "$2a$old");
+        encoder.matches("password123", "$2a$new");
+        verify(delegate).matches("password123", "$2a$old");
+        verify(delegate).matches("password123", "$2a$new");
+    }
+}
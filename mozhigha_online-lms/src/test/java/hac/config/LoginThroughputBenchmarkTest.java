@@ -0,0 +1,52 @@
+package hac.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+
+/**
+ * Logins/sec through the same authentication provider HTTP Basic uses, with and without the
+ * verified-credential cache. Not part of the regular build; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=LoginThroughputBenchmarkTest [-Dbcrypt.strength=12]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginThroughputBenchmarkTest {
+
+    private static final int STRENGTH = Integer.getInteger("bcrypt.strength", 10);
+
+    @Test
+    void benchmarkLoginsPerSecond() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(STRENGTH);
+        measure("bcrypt(" + STRENGTH + ")", bcrypt, 20);
+        measure("bcrypt(" + STRENGTH + ") + credential cache",
+                new CachingPasswordEncoder(bcrypt, Duration.ofMinutes(5), 10_000), 200_000);
+    }
+
+    private static void measure(String label, PasswordEncoder encoder, int logins) {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername("123456789")
+                .password(encoder.encode("password123"))
+                .roles("STUDENT")
+                .build());
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(users);
+        provider.setPasswordEncoder(encoder);
+
+        // warm up, and fills the cache for the cached run
+        for (int i = 0; i < Math.min(logins, 1000); i++) {
+            provider.authenticate(new UsernamePasswordAuthenticationToken("123456789", "password123"));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < logins; i++) {
+            provider.authenticate(new UsernamePasswordAuthenticationToken("123456789", "password123"));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-40s %12.0f logins/sec%n", label, logins / seconds);
+    }
+}
@@ -0,0 +1,54 @@
+package hac.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementMetricsFilterTest {
+
+    @Test
+    void testStatementsAreRecordedPerMappingPattern() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(pool);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(registry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courses/7");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.prepareStatement("select 1");
+                connection.prepareStatement("select 2");
+                connection.createStatement();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/courses/{id}");
+        });
+
+        DistributionSummary summary = registry.get("lms.sql.statements")
+                .tags("uri", "/courses/{id}", "method", "GET").summary();
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    @Test
+    void testStatementsOutsideRequestsAreNotCounted() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+        StatementCountingDataSource dataSource = new StatementCountingDataSource(pool);
+
+        dataSource.getConnection().prepareStatement("select 1");
+        assertEquals(0, StatementCountingDataSource.stop());
+    }
+}
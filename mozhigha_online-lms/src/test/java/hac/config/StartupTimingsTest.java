@@ -0,0 +1,71 @@
+package hac.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class StartupTimingsTest {
+
+    @Test
+    void testMilestonesAreRecordedOnceAndExposed() {
+        StartupTimings timings = new StartupTimings(Duration.ofSeconds(15), false);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        timings.bindTo(registry);
+        ConfigurableApplicationContext context = mock(ConfigurableApplicationContext.class);
+
+        timings.afterSingletonsInstantiated();
+        timings.applicationStarted(new ApplicationStartedEvent(new SpringApplication(), new String[0], context,
+                Duration.ofMillis(1)));
+        timings.readinessChanged(new AvailabilityChangeEvent<>(context, ReadinessState.REFUSING_TRAFFIC));
+        assertFalse(timings.getMilestones().containsKey(StartupTimings.READY));
+        timings.readinessChanged(new AvailabilityChangeEvent<>(context, ReadinessState.ACCEPTING_TRAFFIC));
+        long ready = timings.getMilestones().get(StartupTimings.READY);
+        timings.readinessChanged(new AvailabilityChangeEvent<>(context, ReadinessState.ACCEPTING_TRAFFIC));
+        timings.warmedUp();
+
+        assertEquals(Set.of(StartupTimings.MAIN, StartupTimings.BEANS, StartupTimings.STARTED, StartupTimings.READY,
+                StartupTimings.WARM_UP), timings.getMilestones().keySet());
+        assertEquals(ready, timings.getMilestones().get(StartupTimings.READY));
+        assertEquals(timings.getMilestones().get(StartupTimings.STARTED) - 1,
+                timings.getMilestones().get(StartupTimings.MAIN));
+        assertTrue(timings.report().contains("ready " + ready + " ms"));
+        assertEquals(ready / 1000.0, registry.get("lms.startup.uptime").tag("milestone", "ready").timeGauge()
+                .value(TimeUnit.SECONDS), 0.001);
+        assertTrue(Double.isNaN(registry.get("lms.startup.uptime").tag("milestone", "first-request").timeGauge()
+                .value(TimeUnit.SECONDS)));
+        assertEquals(15, registry.get("lms.startup.first.request.target").timeGauge()
+                .value(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFirstRequestIgnoresActuatorProbes() {
+        StartupTimings timings = new StartupTimings(Duration.ofSeconds(15), false);
+
+        timings.requestHandled(requestHandled("/actuator/health"));
+        assertFalse(timings.getMilestones().containsKey(StartupTimings.FIRST_REQUEST));
+
+        timings.requestHandled(requestHandled("/courses"));
+        long firstRequest = timings.getMilestones().get(StartupTimings.FIRST_REQUEST);
+        timings.requestHandled(requestHandled("/courses"));
+        assertEquals(firstRequest, timings.getMilestones().get(StartupTimings.FIRST_REQUEST));
+    }
+
+    private static ServletRequestHandledEvent requestHandled(String path) {
+        return new ServletRequestHandledEvent(new Object(), path, "127.0.0.1", "GET", "dispatcherServlet",
+                null, null, 5);
+    }
+}
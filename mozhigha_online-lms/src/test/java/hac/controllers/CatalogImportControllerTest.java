@@ -0,0 +1,85 @@
+package hac.controllers;
+
+import hac.service.CatalogImportReport;
+import hac.service.CatalogImportService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.Reader;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogImportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CatalogImportControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImportControllerTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogImportService catalogImportService;
+
+    @Test
+    void testImportCsv() throws Exception {
+        logger.info("Running test: testImportCsv");
+        CatalogImportReport report = new CatalogImportReport();
+        report.processed();
+        report.processed();
+        report.inserted(1);
+        report.skip(3, "Course 10204011 already exists");
+        when(catalogImportService.importCsv(any(Reader.class), eq(false))).thenReturn(report);
+
+        mockMvc.perform(post("/api/admin/courses/import")
+                        .contentType("text/csv")
+                        .content("code,name,professor,description\n"
+                                + "88830001,Algorithms,Dr. A,Sorting\n"
+                                + "10204011,Intro,Dr. B,Again\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(2))
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.skipped").value(1))
+                .andExpect(jsonPath("$.skippedRows[0].line").value(3));
+
+        logger.info("testImportCsv passed.");
+    }
+
+    @Test
+    void testImportJsonWithUpdates() throws Exception {
+        logger.info("Running test: testImportJsonWithUpdates");
+        when(catalogImportService.importJson(any(), eq(true))).thenReturn(new CatalogImportReport());
+
+        mockMvc.perform(post("/api/admin/courses/import").param("update", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk());
+
+        verify(catalogImportService).importJson(any(), eq(true));
+        logger.info("testImportJsonWithUpdates passed.");
+    }
+
+    @Test
+    void testMalformedUpload() throws Exception {
+        logger.info("Running test: testMalformedUpload");
+        when(catalogImportService.importCsv(any(Reader.class), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("The header line has no 'code' column"));
+
+        mockMvc.perform(post("/api/admin/courses/import").contentType("text/csv").content("name\nAlgorithms\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The header line has no 'code' column"));
+
+        logger.info("testMalformedUpload passed.");
+    }
+}
@@ -0,0 +1,199 @@
+package hac.controllers;
+
+import hac.repository.CatalogVersionJdbcRepository;
+import hac.repository.CatalogVersionJdbcRepository.CatalogVersion;
+import hac.repository.CatalogVersionJdbcRepository.CourseVersion;
+import hac.repository.CourseRepository;
+import hac.repository.CourseRepository.CourseDescription;
+import hac.repository.CourseRepository.CourseSummary;
+import hac.repository.StudentRepository;
+import hac.service.CatalogVersions;
+import hac.service.EnrollmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CourseApiController.class)
+@Import(CatalogVersions.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CourseApiControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseApiControllerTest.class);
+
+    private static final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private static final Instant UPDATED = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private StudentRepository studentRepository;
+
+    @MockBean
+    private EnrollmentService enrollmentService;
+
+    @MockBean
+    private CatalogVersionJdbcRepository catalogVersionRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogVersionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(0, UPDATED));
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(new CourseVersion(1, 0, 0, 10, UPDATED)));
+    }
+
+    private static CourseSummary summary(int id, String code, String name) {
+        return summary(id, code, name, 0);
+    }
+
+    private static CourseSummary summary(int id, String code, String name, int seatsTaken) {
+        return projections.createProjection(CourseSummary.class,
+                Map.of("id", id, "code", code, "name", name, "professor", "Dr. X", "seatsTaken", seatsTaken));
+    }
+
+    @Test
+    void testCoursesOmitDescriptionByDefault() throws Exception {
+        logger.info("Running test: testCoursesOmitDescriptionByDefault");
+        when(courseRepository.findSummariesAfter(eq(0), any(Pageable.class)))
+                .thenReturn(List.of(summary(1, "10204011", "Intro", 7), summary(2, "10203012", "Digital")));
+
+        mockMvc.perform(get("/api/courses"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].code").value("10204011"))
+                .andExpect(jsonPath("$.items[0].enrolled").value(7))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(courseRepository, never()).findDescriptions(anyCollection());
+        verify(courseRepository, never()).findAll();
+        logger.info("testCoursesOmitDescriptionByDefault passed.");
+    }
+
+    @Test
+    void testFieldSelection() throws Exception {
+        logger.info("Running test: testFieldSelection");
+        when(courseRepository.findSummaryById(1)).thenReturn(Optional.of(summary(1, "10204011", "Intro")));
+        when(courseRepository.findDescriptions(anyCollection())).thenReturn(List.of(
+                projections.createProjection(CourseDescription.class, Map.of("id", 1, "description", "Long text"))));
+
+        mockMvc.perform(get("/api/courses/1").param("fields", "name,description"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Intro"))
+                .andExpect(jsonPath("$.description").value("Long text"))
+                .andExpect(jsonPath("$.code").doesNotExist());
+
+        mockMvc.perform(get("/api/courses/1").param("fields", "name,students"))
+                .andExpect(status().isBadRequest());
+
+        logger.info("testFieldSelection passed.");
+    }
+
+    @Test
+    void testUnknownCourseIs404() throws Exception {
+        logger.info("Running test: testUnknownCourseIs404");
+        when(courseRepository.findSummaryById(9)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/courses/9"))
+                .andExpect(status().isNotFound());
+
+        logger.info("testUnknownCourseIs404 passed.");
+    }
+
+    @Test
+    void testConditionalGet() throws Exception {
+        logger.info("Running test: testConditionalGet");
+        when(courseRepository.findSummaryById(1)).thenReturn(Optional.of(summary(1, "10204011", "Intro")));
+
+        String etag = mockMvc.perform(get("/api/courses/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().dateValue("Last-Modified", UPDATED.toEpochMilli()))
+                .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(courseRepository);
+
+        mockMvc.perform(get("/api/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(courseRepository, never()).findSummaryById(1);
+        // a different field selection is a different representation
+        mockMvc.perform(get("/api/courses/1").param("fields", "name").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        // an enrollment leaves the course version alone but changes the seats returned
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(new CourseVersion(1, 0, 1, 10, UPDATED)));
+        mockMvc.perform(get("/api/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(new CourseVersion(1, 1, 0, 10, UPDATED)));
+        mockMvc.perform(get("/api/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        logger.info("testConditionalGet passed.");
+    }
+
+    @Test
+    void testSetGrade() throws Exception {
+        logger.info("Running test: testSetGrade");
+        when(enrollmentService.assignGrade(1, 5, "A+")).thenReturn(true);
+
+        mockMvc.perform(put("/api/admin/courses/1/students/5/grade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"grade\":\"A+\"}"))
+                .andExpect(status().isNoContent());
+        verify(enrollmentService).assignGrade(1, 5, "A+");
+
+        mockMvc.perform(put("/api/admin/courses/1/students/6/grade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"grade\":\"A+\"}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/api/admin/courses/1/students/5/grade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"grade\":\"Z\"}"))
+                .andExpect(status().isBadRequest());
+        verify(enrollmentService, never()).assignGrade(1, 5, "Z");
+
+        logger.info("testSetGrade passed.");
+    }
+
+    @Test
+    void testUnenroll() throws Exception {
+        logger.info("Running test: testUnenroll");
+        when(enrollmentService.unenroll(1, 5)).thenReturn(true);
+
+        mockMvc.perform(delete("/api/admin/courses/1/students/5"))
+                .andExpect(status().isNoContent());
+        verify(enrollmentService).unenroll(1, 5);
+
+        mockMvc.perform(delete("/api/admin/courses/1/students/6"))
+                .andExpect(status().isNotFound());
+
+        logger.info("testUnenroll passed.");
+    }
+}
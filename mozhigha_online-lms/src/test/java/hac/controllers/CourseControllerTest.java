@@ -3,6 +3,12 @@ package hac.controllers;
 import hac.entity.Course;
 import hac.repository.CourseRepository;
 import hac.repository.StudentRepository;
+import hac.service.CatalogVersions;
+import hac.service.CourseSearchIndex;
+import hac.service.CourseService;
+import hac.service.DashboardMetrics;
+import hac.service.EnrollmentService;
+import hac.service.TranscriptService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -19,6 +25,10 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +48,24 @@ class CourseControllerTest {
     @MockBean
     private StudentRepository studentRepository;
 
+    @MockBean
+    private DashboardMetrics dashboardMetrics;
+
+    @MockBean
+    private CourseSearchIndex courseSearchIndex;
+
+    @MockBean
+    private CourseService courseService;
+
+    @MockBean
+    private EnrollmentService enrollmentService;
+
+    @MockBean
+    private TranscriptService transcriptService;
+
+    @MockBean
+    private CatalogVersions catalogVersions;
+
     private Course testCourse;
 
     @BeforeEach
@@ -45,20 +73,25 @@ class CourseControllerTest {
         logger.info("Setting up test data...");
         testCourse = new Course("Test Course", "Test Instructor", "1111", "Test Description");
         testCourse.setId(1);
+        clearInvocations(courseRepository, studentRepository, dashboardMetrics, courseSearchIndex);
     }
 
     @Test
     void testGetAdminPage() throws Exception {
         logger.info("Running test: testGetAdminPage");
-        when(courseRepository.findAll()).thenReturn(List.of(testCourse));
-        when(studentRepository.findAll()).thenReturn(new ArrayList<>());
+        when(dashboardMetrics.getCourses()).thenReturn(1L);
+        when(dashboardMetrics.getStudents()).thenReturn(0L);
 
         mockMvc.perform(get("/admin"))
                 .andExpect(status().isOk())
-                .andExpect(model().attributeExists("courses"))
-                .andExpect(model().attributeExists("students"))
+                .andExpect(model().attribute("courses", 1L))
+                .andExpect(model().attribute("students", 0L))
+                .andExpect(model().attributeExists("enrollments"))
                 .andExpect(view().name("admin-page"));
 
+        verify(courseRepository, never()).findAll();
+        verify(studentRepository, never()).findAll();
+
         logger.info("testGetAdminPage passed.");
     }
 
@@ -78,13 +111,16 @@ class CourseControllerTest {
     void testDeleteCourse() throws Exception {
         logger.info("Running test: testDeleteCourse");
 
-        when(courseRepository.findAll()).thenReturn(new ArrayList<>());
+        when(courseService.deleteCourse(1)).thenReturn(true);
 
         mockMvc.perform(get("/admin/course-delete/1"))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/all-courses"));
+                .andExpect(redirectedUrl("/all-courses"))
+                .andExpect(flash().attribute("message", "The course has been deleted successfully."));
 
-        verify(courseRepository).deleteById(1);
+        verify(courseService).deleteCourse(1);
+        verify(courseRepository, never()).findAll();
+        verify(courseRepository, never()).save(any(Course.class));
         logger.info("testDeleteCourse passed.");
     }
 
@@ -106,8 +142,6 @@ class CourseControllerTest {
     void testSaveCourse_Valid() throws Exception {
         logger.info("Running test: testSaveCourse_Valid");
 
-        when(courseRepository.findAll()).thenReturn(List.of(testCourse));
-
         mockMvc.perform(post("/admin/add-course")
                         .param("name", "New Course")
                         .param("code", "ABC12345")
@@ -116,7 +150,144 @@ class CourseControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/all-courses"));
 
-        verify(courseRepository).save(any(Course.class));
+        verify(courseService).addCourse(argThat(course -> course.getCode().equals("ABC12345")));
+        verify(courseRepository, never()).findAll();
         logger.info("testSaveCourse_Valid passed.");
     }
+
+    @Test
+    void testSaveCourse_ExistingCodeUpdatesInPlace() throws Exception {
+        logger.info("Running test: testSaveCourse_ExistingCodeUpdatesInPlace");
+
+        when(courseRepository.updateDetailsByCode("ABC12345", "New Course", "Dr. XYZ", "Some description", 10, 3))
+                .thenReturn(1);
+        when(courseRepository.findIdByCode("ABC12345")).thenReturn(Optional.of(4));
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("name", "New Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Dr. XYZ")
+                        .param("description", "Some description"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/all-courses"));
+
+        verify(courseService, never()).addCourse(any(Course.class));
+        verify(courseSearchIndex).courseSaved(argThat(course -> course.getId() == 4 && course.getName().equals("New Course")));
+        verify(catalogVersions).catalogChanged();
+        verify(courseRepository).findCreditsById(4);
+        verify(enrollmentService).promoteWaitlisted(4);
+        logger.info("testSaveCourse_ExistingCodeUpdatesInPlace passed.");
+    }
+
+    @Test
+    void testSaveCourse_StaleEditIsRejected() throws Exception {
+        logger.info("Running test: testSaveCourse_StaleEditIsRejected");
+
+        when(courseRepository.updateDetailsIfVersion(1, 3L, "Test Course", "Test Instructor", "ABC12345", "Test", 10, 3))
+                .thenReturn(0);
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("id", "1")
+                        .param("version", "3")
+                        .param("name", "Test Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Test Instructor")
+                        .param("description", "Test"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("course-adding"))
+                .andExpect(model().attributeHasErrors("course"));
+
+        verify(courseService, never()).addCourse(any(Course.class));
+        verify(courseSearchIndex, never()).courseSaved(any(Course.class));
+        verify(catalogVersions, never()).catalogChanged();
+        logger.info("testSaveCourse_StaleEditIsRejected passed.");
+    }
+
+    @Test
+    void testRaisingCapacityPromotesWaitlist() throws Exception {
+        logger.info("Running test: testRaisingCapacityPromotesWaitlist");
+
+        when(courseRepository.updateDetailsIfVersion(1, 3L, "Test Course", "Test Instructor", "ABC12345", "Test", 25, 3))
+                .thenReturn(1);
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("id", "1")
+                        .param("version", "3")
+                        .param("name", "Test Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Test Instructor")
+                        .param("description", "Test")
+                        .param("capacity", "25"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/all-courses"));
+
+        verify(enrollmentService).promoteWaitlisted(1);
+        logger.info("testRaisingCapacityPromotesWaitlist passed.");
+    }
+
+    @Test
+    void testChangingCreditsRecomputesTranscripts() throws Exception {
+        logger.info("Running test: testChangingCreditsRecomputesTranscripts");
+
+        when(courseRepository.findCreditsById(1)).thenReturn(Optional.of(3));
+        when(courseRepository.updateDetailsIfVersion(eq(1), anyLong(), anyString(), anyString(), anyString(),
+                anyString(), anyInt(), anyInt())).thenReturn(1);
+        when(transcriptService.studentsOf(1)).thenReturn(List.of(5));
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("id", "1")
+                        .param("version", "3")
+                        .param("name", "Test Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Test Instructor")
+                        .param("description", "Test"))
+                .andExpect(status().is3xxRedirection());
+        verify(transcriptService, never()).recompute(any());
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("id", "1")
+                        .param("version", "4")
+                        .param("name", "Test Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Test Instructor")
+                        .param("description", "Test")
+                        .param("credits", "5"))
+                .andExpect(status().is3xxRedirection());
+        verify(transcriptService).recompute(List.of(5));
+        logger.info("testChangingCreditsRecomputesTranscripts passed.");
+    }
+
+    @Test
+    void testSaveCourse_InvalidCapacity() throws Exception {
+        logger.info("Running test: testSaveCourse_InvalidCapacity");
+
+        mockMvc.perform(post("/admin/add-course")
+                        .param("name", "New Course")
+                        .param("code", "ABC12345")
+                        .param("professor", "Dr. XYZ")
+                        .param("description", "Some description")
+                        .param("capacity", "0"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("course-adding"))
+                .andExpect(model().attributeHasFieldErrors("course", "capacity"));
+
+        verify(courseService, never()).addCourse(any(Course.class));
+        logger.info("testSaveCourse_InvalidCapacity passed.");
+    }
+
+    @Test
+    void testDeleteStudentFromCourse() throws Exception {
+        logger.info("Running test: testDeleteStudentFromCourse");
+
+        when(enrollmentService.unenroll(1, 5)).thenReturn(true);
+
+        mockMvc.perform(post("/admin/course-delete/1/5"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/admin/course/1/students"))
+                .andExpect(flash().attribute("success", "Student removed successfully"));
+
+        verify(enrollmentService).unenroll(1, 5);
+        verify(courseService, never()).addCourse(any(Course.class));
+        logger.info("testDeleteStudentFromCourse passed.");
+    }
 }
@@ -0,0 +1,59 @@
+package hac.controllers;
+
+import hac.service.CourseSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CourseSearchController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CourseSearchControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchControllerTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CourseSearchIndex courseSearchIndex;
+
+    @Test
+    void testSearchReturnsRankedHits() throws Exception {
+        logger.info("Running test: testSearchReturnsRankedHits");
+        CourseSearchIndex.IndexedCourse course =
+                new CourseSearchIndex.IndexedCourse(2, "Digital Systems", "Dr. Simcha Rozen", "10203012", "Data");
+        when(courseSearchIndex.search("digital", 0, 50)).thenReturn(new CourseSearchIndex.SearchPage(
+                "digital", 1, 0, 50, List.of(new CourseSearchIndex.SearchHit(course, 4f))));
+
+        mockMvc.perform(get("/api/courses/search").param("q", "digital"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.hits[0].course.code").value("10203012"));
+
+        logger.info("testSearchReturnsRankedHits passed.");
+    }
+
+    @Test
+    void testPageSizeIsCapped() throws Exception {
+        logger.info("Running test: testPageSizeIsCapped");
+        when(courseSearchIndex.search(anyString(), anyInt(), anyInt()))
+                .thenReturn(new CourseSearchIndex.SearchPage("x", 0, 0, 200, List.of()));
+
+        mockMvc.perform(get("/api/courses/search").param("q", "x").param("size", "5000"))
+                .andExpect(status().isOk());
+
+        verify(courseSearchIndex).search("x", 0, 200);
+        logger.info("testPageSizeIsCapped passed.");
+    }
+}
@@ -0,0 +1,133 @@
+package hac.controllers;
+
+import hac.repository.CourseRepository;
+import hac.service.CsvExportService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ExportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ExportControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportControllerTest.class);
+
+    private static final String ROSTER = "student_key,student_id,email,grade\r\n7,123456789,student1@university.edu,A\r\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CsvExportService csvExportService;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @Test
+    void testExportRoster() throws Exception {
+        logger.info("Running test: testExportRoster");
+        when(courseRepository.existsById(1)).thenReturn(true);
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(ROSTER.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(csvExportService).exportRoster(eq(1), any());
+
+        MvcResult started = mockMvc.perform(get("/api/admin/export/courses/1/roster.csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // the long timeout is given to the export alone, not to every async request
+        assertEquals(Duration.ofHours(1).toMillis(), started.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"roster-1.csv\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(ROSTER));
+
+        logger.info("testExportRoster passed.");
+    }
+
+    @Test
+    void testExportRosterGzipped() throws Exception {
+        logger.info("Running test: testExportRosterGzipped");
+        when(courseRepository.existsById(1)).thenReturn(true);
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(ROSTER.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(csvExportService).exportRoster(eq(1), any());
+
+        MvcResult started = mockMvc.perform(get("/api/admin/export/courses/1/roster.csv")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(ROSTER, new String(unzipped.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        logger.info("testExportRosterGzipped passed.");
+    }
+
+    @Test
+    void testExportRosterOfUnknownCourse() throws Exception {
+        logger.info("Running test: testExportRosterOfUnknownCourse");
+
+        mockMvc.perform(get("/api/admin/export/courses/9/roster.csv"))
+                .andExpect(status().isNotFound());
+
+        verify(csvExportService, never()).exportRoster(anyInt(), any());
+        logger.info("testExportRosterOfUnknownCourse passed.");
+    }
+
+    @Test
+    void testExportEnrollmentsAndCatalog() throws Exception {
+        logger.info("Running test: testExportEnrollmentsAndCatalog");
+
+        MvcResult enrollments = mockMvc.perform(get("/api/admin/export/enrollments.csv")).andReturn();
+        mockMvc.perform(asyncDispatch(enrollments)).andExpect(status().isOk());
+        verify(csvExportService).exportEnrollments(any());
+
+        MvcResult catalog = mockMvc.perform(get("/api/admin/export/courses.csv")).andReturn();
+        mockMvc.perform(asyncDispatch(catalog))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"courses.csv\""));
+        verify(csvExportService).exportCatalog(any());
+
+        logger.info("testExportEnrollmentsAndCatalog passed.");
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(ExportController.acceptsGzip("gzip"));
+        assertTrue(ExportController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(ExportController.acceptsGzip("gzip;q=0"));
+        assertFalse(ExportController.acceptsGzip("deflate"));
+        assertFalse(ExportController.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,88 @@
+package hac.controllers;
+
+import hac.service.GradeAnalyticsService;
+import hac.service.GradeAnalyticsService.CourseGradeReport;
+import hac.service.GradeAnalyticsService.CourseGradeStats;
+import hac.service.GradeAnalyticsService.ProfessorGradeStats;
+import hac.service.GradeAnalyticsService.StudentStanding;
+import hac.service.GradeDistribution;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(GradeAnalyticsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class GradeAnalyticsControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeAnalyticsControllerTest.class);
+
+    private static final GradeDistribution DISTRIBUTION = GradeDistribution.of(Map.of("O", 1, "B", 1, "", 1), 6);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GradeAnalyticsService gradeAnalyticsService;
+
+    @Test
+    void testAllCourses() throws Exception {
+        logger.info("Running test: testAllCourses");
+        when(gradeAnalyticsService.allCourses()).thenReturn(List.of(
+                new CourseGradeStats(1, "10204011", "Algebra", "Dr. A", DISTRIBUTION)));
+
+        mockMvc.perform(get("/api/admin/grade-analytics/courses"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("10204011"))
+                .andExpect(jsonPath("$[0].distribution.enrolled").value(3))
+                .andExpect(jsonPath("$[0].distribution.passRate").value(100.0))
+                .andExpect(jsonPath("$[0].distribution.mean").value(8.0))
+                .andExpect(jsonPath("$[0].distribution.histogram.O").value(1));
+
+        logger.info("testAllCourses passed.");
+    }
+
+    @Test
+    void testCourse() throws Exception {
+        logger.info("Running test: testCourse");
+        when(gradeAnalyticsService.course(1)).thenReturn(Optional.of(new CourseGradeReport(
+                new CourseGradeStats(1, "10204011", "Algebra", "Dr. A", DISTRIBUTION),
+                List.of(new StudentStanding(7, "123456789", "student1@university.edu", "O", new BigDecimal("75.0"))))));
+
+        mockMvc.perform(get("/api/admin/grade-analytics/courses/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.course.distribution.median").value(8.0))
+                .andExpect(jsonPath("$.students[0].percentile").value(75.0));
+
+        mockMvc.perform(get("/api/admin/grade-analytics/courses/2"))
+                .andExpect(status().isNotFound());
+
+        logger.info("testCourse passed.");
+    }
+
+    @Test
+    void testProfessors() throws Exception {
+        logger.info("Running test: testProfessors");
+        when(gradeAnalyticsService.professors()).thenReturn(List.of(new ProfessorGradeStats("Dr. A", 2, DISTRIBUTION)));
+
+        mockMvc.perform(get("/api/admin/grade-analytics/professors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].professor").value("Dr. A"))
+                .andExpect(jsonPath("$[0].courses").value(2));
+
+        logger.info("testProfessors passed.");
+    }
+}
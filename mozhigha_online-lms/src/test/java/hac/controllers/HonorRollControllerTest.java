@@ -0,0 +1,62 @@
+package hac.controllers;
+
+import hac.repository.TranscriptJdbcRepository.HonorRollEntry;
+import hac.service.TranscriptService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HonorRollController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class HonorRollControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HonorRollControllerTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TranscriptService transcriptService;
+
+    @Test
+    void testHonorRoll() throws Exception {
+        logger.info("Running test: testHonorRoll");
+        when(transcriptService.honorRoll(new BigDecimal("9.0"), 6, 10)).thenReturn(List.of(
+                new HonorRollEntry(3, "123456789", "student1@university.edu", new BigDecimal("9.50"), 12)));
+
+        mockMvc.perform(get("/api/admin/honor-roll")
+                        .param("minGpa", "9.0")
+                        .param("minCredits", "6")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].studentId").value("123456789"))
+                .andExpect(jsonPath("$[0].gpa").value(9.5));
+
+        logger.info("testHonorRoll passed.");
+    }
+
+    @Test
+    void testHonorRollRejectsGpaOffScale() throws Exception {
+        logger.info("Running test: testHonorRollRejectsGpaOffScale");
+
+        mockMvc.perform(get("/api/admin/honor-roll").param("minGpa", "11"))
+                .andExpect(status().isBadRequest());
+
+        verify(transcriptService, never()).honorRoll(any(), anyInt(), anyInt());
+        logger.info("testHonorRollRejectsGpaOffScale passed.");
+    }
+}
@@ -0,0 +1,115 @@
+package hac.controllers;
+
+import hac.repository.CourseRepository;
+import hac.repository.CourseRepository.EnrolledCourse;
+import hac.repository.TranscriptJdbcRepository.Transcript;
+import hac.service.EnrollmentService;
+import hac.service.EnrollmentService.EnrollOutcome;
+import hac.service.StudentIdentityCache;
+import hac.service.StudentIdentityCache.StudentIdentity;
+import hac.service.TranscriptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StudentApiController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class StudentApiControllerTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentApiControllerTest.class);
+
+    private static final Principal STUDENT = () -> "123456789";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CourseRepository courseRepository;
+
+    @MockBean
+    private StudentIdentityCache studentIdentityCache;
+
+    @MockBean
+    private EnrollmentService enrollmentService;
+
+    @MockBean
+    private TranscriptService transcriptService;
+
+    @BeforeEach
+    void setUp() {
+        when(studentIdentityCache.resolve("123456789"))
+                .thenReturn(Optional.of(new StudentIdentity(3, "123456789", "student1@university.edu")));
+    }
+
+    @Test
+    void testMyCourses() throws Exception {
+        logger.info("Running test: testMyCourses");
+        Map<String, Object> row = new HashMap<>(Map.of("id", 1, "code", "10204011", "name", "Intro", "professor", "Dr. X"));
+        row.put("grade", null);
+        when(courseRepository.findEnrolledCourses(3)).thenReturn(List.of(
+                new SpelAwareProxyProjectionFactory().createProjection(EnrolledCourse.class, row)));
+
+        mockMvc.perform(get("/api/student/courses").principal(STUDENT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("10204011"))
+                .andExpect(jsonPath("$[0].grade").doesNotExist());
+
+        verify(courseRepository, never()).findCoursesWithGradeOfStudent(3);
+        logger.info("testMyCourses passed.");
+    }
+
+    @Test
+    void testEnroll() throws Exception {
+        logger.info("Running test: testEnroll");
+        when(enrollmentService.enroll(1, 3)).thenReturn(EnrollOutcome.ENROLLED);
+        when(enrollmentService.enroll(2, 3)).thenReturn(EnrollOutcome.ALREADY_ENROLLED);
+        when(enrollmentService.enroll(9, 3)).thenReturn(EnrollOutcome.COURSE_NOT_FOUND);
+        when(enrollmentService.enroll(4, 3)).thenReturn(EnrollOutcome.WAITLISTED);
+
+        mockMvc.perform(post("/api/student/courses/1/enrollment").principal(STUDENT))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/student/courses/2/enrollment").principal(STUDENT))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/student/courses/9/enrollment").principal(STUDENT))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/student/courses/4/enrollment").principal(STUDENT))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$").value("WAITLISTED"));
+
+        logger.info("testEnroll passed.");
+    }
+
+    @Test
+    void testMyTranscript() throws Exception {
+        logger.info("Running test: testMyTranscript");
+        when(transcriptService.find(3)).thenReturn(new Transcript(3, 1, 4, 2, 6, 6, 51, new BigDecimal("8.50")));
+
+        mockMvc.perform(get("/api/student/transcript").principal(STUDENT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.gpa").value(8.5))
+                .andExpect(jsonPath("$.creditsEarned").value(6))
+                .andExpect(jsonPath("$.coursesInProgress").value(1));
+
+        verify(courseRepository, never()).findEnrolledCourses(3);
+        logger.info("testMyTranscript passed.");
+    }
+}
@@ -2,8 +2,18 @@ package hac.controllers;
 
 import hac.entity.Course;
 import hac.entity.Student;
+import hac.repository.CatalogVersionJdbcRepository;
+import hac.repository.CatalogVersionJdbcRepository.CatalogVersion;
+import hac.repository.CatalogVersionJdbcRepository.CourseVersion;
 import hac.repository.CourseRepository;
 import hac.repository.StudentRepository;
+import hac.repository.TranscriptJdbcRepository.Transcript;
+import hac.service.CatalogVersions;
+import hac.service.EnrollmentService;
+import hac.service.FragmentCache;
+import hac.service.StudentIdentityCache;
+import hac.service.StudentIdentityCache.StudentIdentity;
+import hac.service.TranscriptService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,19 +22,35 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Instant;
 import java.util.*;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StudentController.class)
+@Import({CatalogVersions.class, FragmentCache.class})
 public class StudentControllerTest {
 
     private static final Logger logger = LoggerFactory.getLogger(StudentControllerTest.class);
+    private static final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private static final Instant UPDATED = Instant.parse("2024-01-01T10:00:00Z");
 
     @Autowired
     private MockMvc mockMvc;
@@ -32,9 +58,27 @@ public class StudentControllerTest {
     @MockBean
     private StudentRepository studentRepository;
 
+    @MockBean
+    private StudentIdentityCache studentIdentityCache;
+
+    @MockBean
+    private EnrollmentService enrollmentService;
+
     @MockBean
     private CourseRepository courseRepository;
 
+    @MockBean
+    private TranscriptService transcriptService;
+
+    @MockBean
+    private CatalogVersionJdbcRepository catalogVersionRepository;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    // fragments stay cached between tests, so every test starts from versions of its own
+    private static long version;
+
     private Course course;
     private Student student;
 
@@ -53,20 +97,36 @@ public class StudentControllerTest {
         Set<Student> students = new HashSet<>();
         students.add(student);
         course.setStudents(students);
+        version++;
+        course.setVersion(version);
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(courseVersion(0)));
+        when(catalogVersionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(version, UPDATED));
 
         logger.info("Setup complete.");
     }
 
+    private static CourseVersion courseVersion(int seatsTaken) {
+        return new CourseVersion(1, version, seatsTaken, 10, UPDATED);
+    }
+
+    private static CourseRepository.CourseSeats seats(int id, int seatsTaken) {
+        return projections.createProjection(CourseRepository.CourseSeats.class,
+                Map.of("id", id, "seatsTaken", seatsTaken, "capacity", 10));
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     public void testGetAllStudentsInCourse() throws Exception {
         logger.info("Running testGetAllStudentsInCourse...");
         when(courseRepository.findById(1)).thenReturn(Optional.of(course));
+        when(studentRepository.findRosterAfter(eq(1), eq(0), any(Pageable.class))).thenReturn(List.of(student));
+        when(courseRepository.findGrades(1, List.of(1))).thenReturn(List.<Object[]>of(new Object[]{1, "A"}));
 
         mockMvc.perform(get("/admin/course/1/students"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("students-page"))
-                .andExpect(model().attributeExists("students"))
+                .andExpect(model().attribute("students", List.of(student)))
+                .andExpect(model().attribute("grades", Map.of(1, "A")))
                 .andExpect(model().attributeExists("course"));
 
         logger.info("testGetAllStudentsInCourse passed.");
@@ -76,12 +136,17 @@ public class StudentControllerTest {
     @WithMockUser(username = "student1", roles = {"STUDENT"})
     public void testGetStudentCoursesRedirectsIfNoPrincipal() throws Exception {
         logger.info("Running testGetStudentCoursesRedirectsIfNoPrincipal...");
-        when(studentRepository.findStudentsByStudentId("student1")).thenReturn(student);
-        when(courseRepository.findCoursesWithGradesForStudent(student)).thenReturn(new ArrayList<>());
+        when(studentIdentityCache.resolve("student1"))
+                .thenReturn(Optional.of(new StudentIdentity(1, "124568907", "student1@example.com")));
+        when(courseRepository.findCoursesWithGradeOfStudent(1)).thenReturn(List.<Object[]>of(new Object[]{course, null}));
 
         mockMvc.perform(get("/student/courses"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("student-courses"));
+                .andExpect(view().name("student-courses"))
+                .andExpect(model().attribute("courses", List.of(course)))
+                .andExpect(model().attribute("courseGrades", Map.of(1, "Nil")));
+
+        verify(studentRepository, never()).findStudentsByStudentId(any());
 
         logger.info("testGetStudentCoursesRedirectsIfNoPrincipal passed.");
     }
@@ -90,13 +155,17 @@ public class StudentControllerTest {
     @WithMockUser(username = "student1", roles = {"STUDENT"})
     public void testAddStudentToCourse() throws Exception {
         logger.info("Running testAddStudentToCourse...");
-        when(courseRepository.findById(1)).thenReturn(Optional.of(course));
-        when(studentRepository.findStudentsByStudentId("student1")).thenReturn(student);
+        when(studentIdentityCache.resolve("student1"))
+                .thenReturn(Optional.of(new StudentIdentity(1, "124568907", "student1@example.com")));
+        when(enrollmentService.enroll(1, 1)).thenReturn(EnrollmentService.EnrollOutcome.ENROLLED);
 
         mockMvc.perform(get("/student/courses/1/add"))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/student/courses"));
 
+        verify(enrollmentService).enroll(1, 1);
+        verify(courseRepository, never()).save(any(Course.class));
+
         logger.info("testAddStudentToCourse passed.");
     }
 
@@ -105,13 +174,162 @@ public class StudentControllerTest {
     public void testGetAllCoursesAsAdmin() throws Exception {
         logger.info("Running testGetAllCoursesAsAdmin...");
         List<Course> courses = Collections.singletonList(course);
-        when(courseRepository.findAll()).thenReturn(courses);
+        when(courseRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class))).thenReturn(courses);
 
         mockMvc.perform(get("/all-courses"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("courses-page"))
-                .andExpect(model().attributeExists("courses"));
+                .andExpect(model().attribute("courses", courses))
+                .andExpect(model().attribute("nextCursor", (Object) null));
 
         logger.info("testGetAllCoursesAsAdmin passed.");
     }
+
+    @Test
+    @WithMockUser(username = "student1", roles = {"STUDENT"})
+    public void testGetAvailableCoursesAsStudent() throws Exception {
+        logger.info("Running testGetAvailableCoursesAsStudent...");
+        Course second = new Course();
+        second.setId(2);
+        second.setName("Physics");
+        when(courseRepository.findCoursesNotEnrolledAfter(eq("student1"), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(course, second));
+
+        mockMvc.perform(get("/all-courses").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("courses-page"))
+                .andExpect(model().attribute("courses", List.of(course)))
+                .andExpect(model().attribute("nextCursor", 1));
+
+        verify(courseRepository, never()).findAll();
+        logger.info("testGetAvailableCoursesAsStudent passed.");
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = {"STUDENT"})
+    public void testCoursePageRevalidation() throws Exception {
+        logger.info("Running testCoursePageRevalidation...");
+        when(courseRepository.findById(1)).thenReturn(Optional.of(course));
+
+        String etag = mockMvc.perform(get("/courses/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "private, no-cache"))
+                .andExpect(header().dateValue("Last-Modified", UPDATED.toEpochMilli()))
+                .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(courseRepository);
+
+        mockMvc.perform(get("/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/courses/1").header("If-Modified-Since", "Mon, 01 Jan 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(courseRepository);
+
+        // an enrollment leaves the course version alone but changes the seats shown
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(courseVersion(1)));
+        mockMvc.perform(get("/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        version++;
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(courseVersion(0)));
+        mockMvc.perform(get("/courses/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(courseRepository, times(2)).findById(1);
+
+        logger.info("testCoursePageRevalidation passed.");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void testCatalogRevalidation() throws Exception {
+        logger.info("Running testCatalogRevalidation...");
+        when(courseRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class))).thenReturn(List.of(course));
+
+        String etag = mockMvc.perform(get("/all-courses"))
+                .andExpect(status().isOk())
+                .andExpect(header().dateValue("Last-Modified", UPDATED.toEpochMilli()))
+                .andReturn().getResponse().getHeader("ETag");
+        clearInvocations(courseRepository);
+
+        // answered from the version row alone, before any course or seat is read
+        mockMvc.perform(get("/all-courses").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verifyNoInteractions(courseRepository);
+        // another page is another representation
+        mockMvc.perform(get("/all-courses").param("after", "1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        // an enrollment moves the catalog version
+        when(catalogVersionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(++version, UPDATED.plusSeconds(1)));
+        mockMvc.perform(get("/all-courses").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().dateValue("Last-Modified", UPDATED.plusSeconds(1).toEpochMilli()));
+
+        logger.info("testCatalogRevalidation passed.");
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = {"STUDENT"})
+    public void testCourseCardIsRenderedOncePerVersion() throws Exception {
+        logger.info("Running testCourseCardIsRenderedOncePerVersion...");
+        course.setCode("10204011");
+        when(courseRepository.findById(1)).thenReturn(Optional.of(course));
+
+        mockMvc.perform(get("/courses/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Mathematics")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("/student/courses/1/add")));
+
+        // the card follows the version of the entity it is rendered from, not the one in the table
+        course.setName("Algebra");
+        version++;
+        when(catalogVersionRepository.findCourseVersion(1)).thenReturn(Optional.of(courseVersion(0)));
+        mockMvc.perform(get("/courses/1"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Mathematics")));
+
+        course.setVersion(version);
+        mockMvc.perform(get("/courses/1"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Algebra")));
+
+        logger.info("testCourseCardIsRenderedOncePerVersion passed.");
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void testCatalogRowsRenderAdminLinks() throws Exception {
+        logger.info("Running testCatalogRowsRenderAdminLinks...");
+        when(courseRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any(Pageable.class))).thenReturn(List.of(course));
+        when(courseRepository.findSeats(List.of(1))).thenReturn(List.of(seats(1, 4)));
+
+        mockMvc.perform(get("/all-courses"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("/admin/course-edit/1")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("4/10")));
+
+        // the seats are rendered with every page; the cached cells of the row are not rendered again
+        when(courseRepository.findSeats(List.of(1))).thenReturn(List.of(seats(1, 5)));
+        course.setName("Renamed without a new version");
+        mockMvc.perform(get("/all-courses"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("5/10")))
+                .andExpect(content().string(org.hamcrest.Matchers.not(
+                        org.hamcrest.Matchers.containsString("Renamed without a new version"))));
+
+        logger.info("testCatalogRowsRenderAdminLinks passed.");
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = {"STUDENT"})
+    public void testStudentPageShowsTranscript() throws Exception {
+        logger.info("Running testStudentPageShowsTranscript...");
+        when(studentIdentityCache.resolve("student1"))
+                .thenReturn(Optional.of(new StudentIdentity(1, "124568907", "student1@example.com")));
+        when(transcriptService.find(1)).thenReturn(new Transcript(1, 1, 3, 2, 7, 7, 61, new java.math.BigDecimal("8.71")));
+
+        mockMvc.perform(get("/student"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("student-page"))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("8.71")))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("1 (3 credits)")));
+
+        verify(courseRepository, never()).findCoursesWithGradeOfStudent(anyInt());
+        logger.info("testStudentPageShowsTranscript passed.");
+    }
 }
@@ -0,0 +1,160 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Catalog imports against a real schema: dedup within the upload and against the table, updates,
+ * and ids shared with JPA saves. Large uploads are timed by CatalogImportBenchmark in the benchmarks module.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCsvImportInsertsSkipsAndRejects() throws Exception {
+        String csv = "course_id,code,name,professor,description,capacity,credits,seats_taken\r\n"
+                + "1,88830001,\"Algorithms, Advanced\",Dr. A,\"Sorting, \"\"graphs\"\"\nand more\",40,5,7\r\n"
+                + ",88830002,Compilers,Dr. B,Parsing,,,\r\n"
+                + ",88830001,Other,Dr. C,Same code,,,\r\n"
+                + ",88830003,Compilers,Dr. C,Same name,,,\r\n"
+                + ",123,Short,Dr. D,Bad code,,,\r\n"
+                + ",88830004,Networks,Dr. E,Bad capacity,lots,3,\r\n"
+                + "\r\n"
+                + ",10204011,Another Intro,Dr. F,Default course code,,,\r\n";
+
+        CatalogImportReport report = catalogImportService.importCsv(new StringReader(csv), false);
+
+        assertEquals(7, report.getProcessed());
+        assertEquals(2, report.getInserted());
+        assertEquals(0, report.getUpdated());
+        assertEquals(3, report.getSkipped());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of(5L, 6L, 10L), report.getSkippedRows().stream().map(ImportReport.RowError::line).toList());
+        assertEquals(List.of(7L, 8L), report.getErrors().stream().map(ImportReport.RowError::line).toList());
+
+        Map<String, Object> algorithms = jdbcTemplate.queryForMap(
+                "SELECT course_id, name, description, capacity, credits, seats_taken FROM course WHERE code = '88830001'");
+        assertEquals("Algorithms, Advanced", algorithms.get("NAME"));
+        assertEquals("Sorting, \"graphs\"\nand more", algorithms.get("DESCRIPTION"));
+        assertEquals(40, algorithms.get("CAPACITY"));
+        assertEquals(5, algorithms.get("CREDITS"));
+        assertEquals(0, algorithms.get("SEATS_TAKEN"));
+        assertNotEquals(1, algorithms.get("COURSE_ID"));
+        Course compilers = courseRepository.findById(courseId("88830002")).orElseThrow();
+        assertEquals(Course.DEFAULT_CAPACITY, compilers.getCapacity());
+        assertEquals(Course.DEFAULT_CREDITS, compilers.getCredits());
+
+        // JPA saves and imports draw from the same id row, in either order
+        Course saved = courseRepository.save(new Course("Operating Systems", "Dr. G", "88830005", "Processes"));
+        catalogImportService.importCourses(List.of(new Course("Security", "Dr. H", "88830006", "Threats")), false);
+        Course savedAgain = courseRepository.save(new Course("Graphics", "Dr. I", "88830007", "Pixels"));
+        List<Integer> ids = List.of(courseId("88830001"), courseId("88830002"), saved.getId(),
+                courseId("88830006"), savedAgain.getId());
+        assertEquals(ids.size(), ids.stream().distinct().count());
+    }
+
+    @Test
+    void testUpdateExistingCourses() throws Exception {
+        catalogImportService.importCourses(List.of(new Course("Databases", "Dr. J", "88831001", "Tables"),
+                new Course("Distributed Systems", "Dr. K", "88831002", "Clocks")), false);
+        int databases = courseId("88831001");
+        // cached by Hibernate before the import changes the row behind its back
+        assertEquals("Dr. J", courseRepository.findById(databases).orElseThrow().getProfessor());
+
+        String json = "[{\"code\": \"88831001\", \"name\": \"Databases\", \"professor\": \"Dr. L\", "
+                + "\"description\": \"Tables and indexes\", \"capacity\": 25, \"credits\": 4},"
+                + "{\"code\": \"88831002\", \"name\": \"Databases\", \"professor\": \"Dr. K\", \"description\": \"Clocks\"},"
+                + "{\"code\": \"88831003\", \"name\": \"Distributed Systems\", \"professor\": \"Dr. M\", \"description\": \"Taken\"}]";
+
+        CatalogImportReport skipped = catalogImportService.importJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), false);
+        assertEquals(0, skipped.getApplied());
+        assertEquals(3, skipped.getSkipped());
+
+        CatalogImportReport report = catalogImportService.importJson(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), true);
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getInserted());
+        // the second row repeats a name of the upload, the third a name of another existing course
+        assertEquals(List.of(2L, 3L), report.getSkippedRows().stream().map(ImportReport.RowError::line).toList());
+
+        Course updated = courseRepository.findById(databases).orElseThrow();
+        assertEquals("Dr. L", updated.getProfessor());
+        assertEquals(25, updated.getCapacity());
+        assertEquals(4, updated.getCredits());
+        assertEquals(1, updated.getVersion());
+        assertNull(jdbcTemplate.queryForList("SELECT course_id FROM course WHERE code = '88831003'", Integer.class)
+                .stream().findFirst().orElse(null));
+    }
+
+    @Test
+    void testCommittedChunksAreEvictedWhenALaterRecordIsMalformed() throws Exception {
+        catalogImportService.importCourses(List.of(new Course("Cryptography", "Dr. N", "88832001", "Ciphers")), false);
+        int cryptography = courseId("88832001");
+        assertEquals("Dr. N", courseRepository.findById(cryptography).orElseThrow().getProfessor());
+
+        String json = "[{\"code\": \"88832001\", \"name\": \"Cryptography\", \"professor\": \"Dr. O\", "
+                + "\"description\": \"Ciphers\"}, {\"code\": ";
+        ReflectionTestUtils.setField(catalogImportService, "chunkSize", 1);
+        try {
+            assertThrows(IOException.class, () -> catalogImportService.importJson(
+                    new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), true));
+        } finally {
+            ReflectionTestUtils.setField(catalogImportService, "chunkSize", 1000);
+        }
+
+        // the first chunk committed before the parse error, and Hibernate no longer serves the old row
+        assertEquals("Dr. O", courseRepository.findById(cryptography).orElseThrow().getProfessor());
+    }
+
+    @Test
+    void testCsvReader() throws Exception {
+        CsvReader csv = new CsvReader(new StringReader("a, b ,\"c\r\nd\"\r\n'=1,'x,\"\"\"\"\n\nlast"));
+
+        assertEquals(List.of("a", "b", "c\r\nd"), csv.next());
+        assertEquals(1, csv.getRecordLine());
+        assertEquals(List.of("=1", "'x", "\""), csv.next());
+        assertEquals(3, csv.getRecordLine());
+        assertEquals(List.of(""), csv.next());
+        assertEquals(List.of("last"), csv.next());
+        assertEquals(5, csv.getRecordLine());
+        assertNull(csv.next());
+    }
+
+    private int courseId(String code) {
+        return jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = ?", Integer.class, code);
+    }
+}
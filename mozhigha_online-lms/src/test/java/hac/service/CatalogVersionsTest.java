@@ -0,0 +1,79 @@
+package hac.service;
+
+import hac.repository.CatalogVersionJdbcRepository;
+import hac.repository.CatalogVersionJdbcRepository.CatalogVersion;
+import hac.repository.CatalogVersionJdbcRepository.CourseVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionsTest {
+
+    private static final Instant UPDATED = Instant.parse("2024-01-01T10:00:00Z");
+
+    private final CatalogVersionJdbcRepository versionRepository = mock(CatalogVersionJdbcRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final CatalogVersions versions = new CatalogVersions(versionRepository, transactionManager);
+
+    @Test
+    void testCourseTagFollowsTheVersionAndSeatsOfItsRow() {
+        String course1 = versions.course(new CourseVersion(1, 3, 0, 10, UPDATED)).etag();
+        assertNotEquals(course1, versions.course(new CourseVersion(2, 3, 0, 10, UPDATED)).etag());
+        // another instance, or this one after a restart, derives the same tag from the same row
+        assertEquals(course1, new CatalogVersions(versionRepository, transactionManager)
+                .course(new CourseVersion(1, 3, 0, 10, UPDATED)).etag());
+
+        assertNotEquals(course1, versions.course(new CourseVersion(1, 4, 0, 10, UPDATED)).etag());
+        assertNotEquals(course1, versions.course(new CourseVersion(1, 3, 1, 10, UPDATED)).etag());
+        assertEquals(UPDATED.toEpochMilli(), versions.course(new CourseVersion(1, 3, 0, 10, UPDATED)).lastModified());
+    }
+
+    @Test
+    void testCatalogTagFollowsTheVersionRow() {
+        when(versionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(5, UPDATED));
+        CatalogVersions.Validators catalog = versions.catalog();
+        assertEquals(UPDATED.toEpochMilli(), catalog.lastModified());
+
+        when(versionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(6, UPDATED.plusSeconds(1)));
+        CatalogVersions.Validators changed = versions.catalog();
+
+        assertNotEquals(catalog.etag(), changed.etag());
+        assertEquals(UPDATED.plusSeconds(1).toEpochMilli(), changed.lastModified());
+    }
+
+    @Test
+    void testVariantsGetTheirOwnTags() {
+        when(versionRepository.findCatalogVersion()).thenReturn(new CatalogVersion(1, UPDATED));
+
+        assertEquals(versions.catalog("student1", "10").etag(), versions.catalog("student1", "10").etag());
+        assertEquals(3, Set.of(versions.catalog().etag(), versions.catalog("student1").etag(),
+                versions.catalog("student2").etag()).size());
+    }
+
+    @Test
+    void testCatalogVersionMovesOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versions.catalogChanged();
+            verify(versionRepository, never()).bumpCatalogVersion();
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(versionRepository).bumpCatalogVersion();
+    }
+}
@@ -0,0 +1,79 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CourseSearchIndexTest {
+
+    private CourseRepository courseRepository;
+    private CourseSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findAll()).thenReturn(List.of(
+                course(1, "Introduction to Computer Science", "Dr. Yoram Biberman", "10204011", "Basics of programming"),
+                course(2, "Digital Systems", "Dr. Simcha Rozen", "10203012", "How is data stored on a computer?"),
+                course(3, "Discrete Mathematics", "Dr. Eran London", "10202011", "The language of mathematics")));
+        index = new CourseSearchIndex(courseRepository);
+        index.refresh();
+    }
+
+    @Test
+    void testRanksNameMatchesAboveDescriptionMatches() {
+        CourseSearchIndex.SearchPage result = index.search("computer", 0, 10);
+
+        assertEquals(2, result.total());
+        assertEquals(1, result.hits().get(0).course().id());
+        assertEquals(2, result.hits().get(1).course().id());
+    }
+
+    @Test
+    void testPrefixAndAllTokensMustMatch() {
+        assertEquals(List.of(3), ids(index.search("disc math", 0, 10)));
+        assertEquals(List.of(2, 3), ids(index.search("d", 0, 10)).subList(0, 2));
+        assertEquals(3, index.search("1020", 0, 10).total());
+        assertTrue(index.search("disc physics", 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    void testPagination() {
+        CourseSearchIndex.SearchPage second = index.search("dr", 1, 2);
+
+        assertEquals(3, second.total());
+        assertEquals(1, second.hits().size());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        index.courseSaved(course(4, "Data Structures", "Dr. Ada Lovelace", "10205011", "Trees and graphs"));
+        assertEquals(List.of(4), ids(index.search("lovelace", 0, 10)));
+
+        index.courseSaved(course(4, "Algorithms", "Dr. Ada Lovelace", "10205011", "Sorting"));
+        assertTrue(index.search("trees", 0, 10).hits().isEmpty());
+        assertEquals(List.of(4), ids(index.search("algo", 0, 10)));
+
+        index.courseRemoved(4);
+        assertTrue(index.search("lovelace", 0, 10).hits().isEmpty());
+        assertEquals(3, index.size());
+        verify(courseRepository, times(1)).findAll();
+    }
+
+    private static List<Integer> ids(CourseSearchIndex.SearchPage page) {
+        return page.hits().stream().map(hit -> hit.course().id()).toList();
+    }
+
+    private static Course course(int id, String name, String professor, String code, String description) {
+        Course course = new Course(name, professor, code, description);
+        course.setId(id);
+        return course;
+    }
+}
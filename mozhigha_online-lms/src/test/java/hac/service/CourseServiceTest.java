@@ -0,0 +1,83 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CourseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class CourseServiceTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final TranscriptService transcriptService = mock(TranscriptService.class);
+    private final DashboardMetrics dashboardMetrics = mock(DashboardMetrics.class);
+    private final CourseSearchIndex courseSearchIndex = mock(CourseSearchIndex.class);
+    private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+    private final CourseService service = new CourseService(courseRepository, transcriptService, dashboardMetrics,
+            courseSearchIndex, catalogVersions);
+
+    @Test
+    void testAddCourseCountsItInTheTransaction() {
+        Course course = new Course("Compilers", "Dr. B", "88830002", "Parsing");
+        when(courseRepository.saveAndFlush(course)).thenAnswer(invocation -> {
+            course.setId(3);
+            return course;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertSame(course, service.addCourse(course));
+            verify(dashboardMetrics).courseAdded(3);
+            verify(catalogVersions).catalogChanged();
+            verify(courseSearchIndex, never()).courseSaved(any());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(courseSearchIndex).courseSaved(course);
+    }
+
+    @Test
+    void testDeleteCourseUpdatesTheSearchIndexOnlyOnceCommitted() {
+        when(courseRepository.countGradedInCourse(1)).thenReturn(1);
+        when(transcriptService.studentsOf(1)).thenReturn(List.of(5, 6));
+        when(courseRepository.deleteCourseAndEnrollments(1)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(service.deleteCourse(1));
+            verify(transcriptService).recompute(List.of(5, 6));
+            verify(dashboardMetrics).courseRemoved(1, 1);
+            verify(catalogVersions).catalogChanged();
+            verify(courseSearchIndex, never()).courseRemoved(anyInt());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(courseSearchIndex).courseRemoved(1);
+    }
+
+    @Test
+    void testDeleteMissingCourse() {
+        when(courseRepository.deleteCourseAndEnrollments(9)).thenReturn(false);
+
+        assertFalse(service.deleteCourse(9));
+        verify(transcriptService, never()).recompute(any());
+        verifyNoInteractions(dashboardMetrics, courseSearchIndex, catalogVersions);
+    }
+}
@@ -0,0 +1,83 @@
+package hac.service;
+
+import hac.entity.Course;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The exports against a real schema, read through the streaming cursor.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class CsvExportServiceTest {
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testExports() throws Exception {
+        Course export = new Course("Export, Advanced", "Dr. \"E\"", "66660001", "=SUM(A1)");
+        export.setCredits(4);
+        catalogImportService.importCourses(List.of(export), false);
+        int course = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '66660001'", Integer.class);
+        jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) "
+                + "VALUES ('660000001', 'first@example.com', 'x'), ('660000002', 'second@example.com', 'x')");
+        enrollmentService.enrollAll(List.of("660000001", "660000002"), List.of(course));
+        int first = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '660000001'", Integer.class);
+        int second = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '660000002'", Integer.class);
+        enrollmentService.assignGrade(course, first, "A+");
+
+        ByteArrayOutputStream roster = new ByteArrayOutputStream();
+        csvExportService.exportRoster(course, roster);
+        assertEquals("student_key,student_id,email,grade\r\n"
+                        + first + ",660000001,first@example.com,A+\r\n"
+                        + second + ",660000002,second@example.com,\r\n",
+                roster.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream enrollments = new ByteArrayOutputStream();
+        csvExportService.exportEnrollments(enrollments);
+        assertTrue(enrollments.toString(StandardCharsets.UTF_8)
+                .contains(course + ",66660001,660000001,first@example.com,A+\r\n"));
+
+        ByteArrayOutputStream catalog = new ByteArrayOutputStream();
+        csvExportService.exportCatalog(catalog);
+        assertTrue(catalog.toString(StandardCharsets.UTF_8)
+                .contains(course + ",66660001,\"Export, Advanced\",\"Dr. \"\"E\"\"\",'=SUM(A1),10,4,2\r\n"));
+    }
+
+    @Test
+    void testCsvWriter() throws Exception {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.row("plain", null, -5, "-5", "line\nbreak", "@home");
+        csv.flush();
+
+        assertEquals("plain,,-5,'-5,\"line\nbreak\",'@home\r\n", out.toString());
+    }
+}
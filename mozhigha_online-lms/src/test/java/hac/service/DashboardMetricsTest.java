@@ -0,0 +1,145 @@
+package hac.service;
+
+import hac.repository.CourseRepository;
+import hac.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class DashboardMetricsTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+    private final DashboardMetrics metrics = new DashboardMetrics(courseRepository, studentRepository);
+
+    @Test
+    void testChangesCountOnlyOnceCommitted() {
+        stubDatabase(3, 1);
+        metrics.refresh();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            metrics.enrolled(1, 2);
+            metrics.gradesAssigned(1);
+            assertEquals(3, metrics.getEnrollments());
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            metrics.enrolled(1, 2);
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(5, metrics.getEnrollments());
+        assertEquals(1, metrics.getGraded());
+    }
+
+    @Test
+    void testChangeCommittingDuringARefreshCountsOnce() throws Exception {
+        stubDatabase(3, 1);
+        metrics.refresh();
+        // the tables show the enrollment as soon as its transaction has committed
+        AtomicBoolean committed = new AtomicBoolean();
+        CourseRepository.EnrollmentTotals after = totals(4, 1);
+        CourseRepository.EnrollmentTotals before = totals(3, 1);
+        when(courseRepository.countEnrollments()).thenAnswer(invocation -> committed.get() ? after : before);
+        when(courseRepository.countEnrollmentsPerCourse()).thenAnswer(invocation ->
+                List.<Object[]>of(new Object[]{1, committed.get() ? 4 : 3}));
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        CountDownLatch reported = new CountDownLatch(1);
+        List<Future<?>> transaction = new ArrayList<>();
+        // the enrollment tries to commit between the first and the last query of the load
+        when(courseRepository.count()).thenAnswer(invocation -> {
+            transaction.add(writer.submit(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    metrics.enrolled(1, 1);
+                    reported.countDown();
+                    complete(TransactionSynchronization.STATUS_COMMITTED, () -> committed.set(true));
+                } finally {
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+            }));
+            reported.await();
+            Thread.sleep(100);
+            return 1L;
+        });
+
+        metrics.refresh();
+        transaction.get(0).get();
+        writer.shutdown();
+
+        assertEquals(4, metrics.getEnrollments());
+        assertEquals(4, metrics.getFill(1));
+        assertEquals(3, metrics.getUngraded());
+        // the course's fill follows too, so removing it takes off all four
+        metrics.courseRemoved(1, 1);
+        assertEquals(0, metrics.getEnrollments());
+        assertEquals(0, metrics.getGraded());
+        assertEquals(0, metrics.getFill(1));
+    }
+
+    @Test
+    void testStudentsAndFillAreKeptCurrent() {
+        stubDatabase(3, 1);
+        metrics.refresh();
+
+        metrics.studentsAdded(2);
+        metrics.studentRemoved();
+        metrics.enrolled(2, 1);
+
+        assertEquals(4, metrics.getStudents());
+        assertEquals(3, metrics.getFill(1));
+        assertEquals(1, metrics.getFill(2));
+        assertEquals(0, metrics.getFill(9));
+    }
+
+    private void stubDatabase(int enrollments, int graded) {
+        CourseRepository.EnrollmentTotals totals = totals(enrollments, graded);
+        when(courseRepository.count()).thenReturn(1L);
+        when(studentRepository.count()).thenReturn(3L);
+        when(courseRepository.countEnrollments()).thenReturn(totals);
+        when(courseRepository.countEnrollmentsPerCourse()).thenReturn(List.<Object[]>of(new Object[]{1, enrollments}));
+    }
+
+    private static CourseRepository.EnrollmentTotals totals(int enrollments, int graded) {
+        CourseRepository.EnrollmentTotals totals = mock(CourseRepository.EnrollmentTotals.class);
+        when(totals.getEnrollments()).thenReturn((long) enrollments);
+        when(totals.getGraded()).thenReturn((long) graded);
+        return totals;
+    }
+
+    private static void complete(int status) {
+        complete(status, () -> {
+        });
+    }
+
+    // what the transaction manager does when a transaction ends; the commit runs between the callbacks
+    private static void complete(int status, Runnable commit) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            commit.run();
+        }
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.CatalogVersionJdbcRepository;
+import hac.repository.EnrollmentJdbcRepository;
+import hac.service.EnrollmentService.EnrollOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many students rushing the same course against a real (in-memory) database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class EnrollmentConcurrencyTest {
+
+    private static final int CAPACITY = 25;
+    private static final int STUDENTS = 200;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private EnrollmentJdbcRepository enrollmentRepository;
+
+    @Autowired
+    private CatalogVersionJdbcRepository catalogVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testRushNeverOversellsAndWaitlistIsPromotedInOrder() throws Exception {
+        Course rush = new Course("Rush", "Dr. Rush", "99999999", "Popular");
+        rush.setCapacity(CAPACITY);
+        catalogImportService.importCourses(List.of(rush), false);
+        int courseId = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '99999999'", Integer.class);
+        List<Integer> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) VALUES (?, ?, 'x')",
+                    String.valueOf(500000000 + i), "rush" + i + "@example.com");
+            students.add(jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = ?", Integer.class,
+                    String.valueOf(500000000 + i)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<EnrollOutcome>> outcomes = new ArrayList<>();
+        for (int student : students) {
+            outcomes.add(pool.submit(() -> {
+                start.await();
+                return enrollmentService.enroll(courseId, student);
+            }));
+        }
+        start.countDown();
+        List<EnrollOutcome> results = new ArrayList<>();
+        for (Future<EnrollOutcome> outcome : outcomes) {
+            results.add(outcome.get());
+        }
+        pool.shutdown();
+
+        Map<EnrollOutcome, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertEquals(CAPACITY, counts.get(EnrollOutcome.ENROLLED));
+        assertEquals(STUDENTS - CAPACITY, counts.get(EnrollOutcome.WAITLISTED));
+        assertEquals(CAPACITY, enrolledCount(courseId));
+        assertEquals(CAPACITY, seatsTaken(courseId));
+        assertEquals(STUDENTS - CAPACITY, waitlistCount(courseId));
+
+        // the freed seat goes to whoever joined the waitlist first
+        Integer head = jdbcTemplate.queryForObject(
+                "SELECT student_id FROM course_waitlist WHERE course_id = ? ORDER BY id LIMIT 1", Integer.class, courseId);
+        Integer leaving = jdbcTemplate.queryForObject(
+                "SELECT student_id FROM course_student WHERE course_id = ? LIMIT 1", Integer.class, courseId);
+        assertTrue(enrollmentService.unenroll(courseId, leaving));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM course_student WHERE course_id = ? AND student_id = ?", Integer.class, courseId, head));
+        assertEquals(CAPACITY, enrolledCount(courseId));
+        assertEquals(CAPACITY, seatsTaken(courseId));
+        assertEquals(STUDENTS - CAPACITY - 1, waitlistCount(courseId));
+
+        // raising the capacity fills the new seats from the waitlist
+        jdbcTemplate.update("UPDATE course SET capacity = ? WHERE course_id = ?", CAPACITY + 10, courseId);
+        assertEquals(10, enrollmentService.promoteWaitlisted(courseId));
+        assertEquals(CAPACITY + 10, enrolledCount(courseId));
+        assertEquals(CAPACITY + 10, seatsTaken(courseId));
+
+        // a counter changed behind the application's back is put right by the maintenance recount
+        jdbcTemplate.update("UPDATE course SET seats_taken = 0 WHERE course_id = ?", courseId);
+        assertTrue(enrollmentService.recountSeats() >= 1);
+        assertEquals(CAPACITY + 10, seatsTaken(courseId));
+    }
+
+    @Test
+    void testBulkEnrollmentSkipsExistingPairs() {
+        Course bulk = new Course("Bulk", "Dr. Bulk", "99999998", "Everyone");
+        catalogImportService.importCourses(List.of(bulk), false);
+        int courseId = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '99999998'", Integer.class);
+        List<String> studentIds = List.of("510000001", "510000002", "510000003");
+        for (String studentId : studentIds) {
+            jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) VALUES (?, ?, 'x')",
+                    studentId, "bulk" + studentId + "@example.com");
+        }
+        int first = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '510000001'", Integer.class);
+        int second = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '510000002'", Integer.class);
+
+        // an enrollment that already exists is skipped by the insert itself, not rejected by the primary key
+        assertArrayEquals(new int[]{1}, enrollmentRepository.insertEnrollments(List.<int[]>of(new int[]{courseId, first})));
+        assertArrayEquals(new int[]{0, 1}, enrollmentRepository.insertEnrollments(
+                List.of(new int[]{courseId, first}, new int[]{courseId, second})));
+        jdbcTemplate.update("UPDATE course SET seats_taken = 2 WHERE course_id = ?", courseId);
+
+        EnrollmentService.BulkEnrollmentResult result = enrollmentService.enrollAll(studentIds, List.of(courseId));
+        assertEquals(1, result.inserted());
+        assertEquals(2, result.alreadyEnrolled());
+        result = enrollmentService.enrollAll(studentIds, List.of(courseId));
+        assertEquals(0, result.inserted());
+        assertEquals(3, result.alreadyEnrolled());
+        assertEquals(3, enrolledCount(courseId));
+        assertEquals(3, seatsTaken(courseId));
+    }
+
+    @Test
+    void testBulkEnrollmentRetriesAPairInsertedConcurrently() throws Exception {
+        Course race = new Course("Race", "Dr. Race", "99999997", "Same pair");
+        catalogImportService.importCourses(List.of(race), false);
+        int courseId = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '99999997'", Integer.class);
+        jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) "
+                + "VALUES ('520000001', 'race@example.com', 'x')");
+        int student = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '520000001'", Integer.class);
+
+        // the other thread has inserted the pair but not committed when the bulk enrollment reads and inserts it
+        CountDownLatch insertedElsewhere = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> other = pool.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            enrollmentRepository.insertEnrollments(List.<int[]>of(new int[]{courseId, student}));
+            insertedElsewhere.countDown();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        insertedElsewhere.await();
+        EnrollmentService.BulkEnrollmentResult result = enrollmentService.enrollAll(List.of("520000001"), List.of(courseId));
+        other.get();
+        pool.shutdown();
+
+        assertEquals(0, result.inserted());
+        assertEquals(1, result.alreadyEnrolled());
+        assertEquals(1, enrolledCount(courseId));
+    }
+
+    @Test
+    void testEnrollmentMovesTheCatalogAndCourseValidators() {
+        Course course = new Course("Validators", "Dr. Tag", "99999996", "Revalidated");
+        catalogImportService.importCourses(List.of(course), false);
+        int courseId = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '99999996'", Integer.class);
+        jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) VALUES ('530000001', 'tag@example.com', 'x')");
+        int student = jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = '530000001'", Integer.class);
+        Instant longAgo = Instant.parse("2000-01-01T00:00:00Z");
+        jdbcTemplate.update("UPDATE course SET updated_at = ? WHERE course_id = ?", Timestamp.from(longAgo), courseId);
+        long catalogVersion = catalogVersionRepository.findCatalogVersion().version();
+
+        assertEquals(EnrollOutcome.ENROLLED, enrollmentService.enroll(courseId, student));
+
+        // moved once the enrollment committed, and by the database for the course row
+        assertTrue(catalogVersionRepository.findCatalogVersion().version() > catalogVersion);
+        CatalogVersionJdbcRepository.CourseVersion version = catalogVersionRepository.findCourseVersion(courseId).orElseThrow();
+        assertEquals(1, version.seatsTaken());
+        assertTrue(version.updatedAt().isAfter(longAgo));
+    }
+
+    private int enrolledCount(int courseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM course_student WHERE course_id = ?", Integer.class, courseId);
+    }
+
+    private int seatsTaken(int courseId) {
+        return jdbcTemplate.queryForObject("SELECT seats_taken FROM course WHERE course_id = ?", Integer.class, courseId);
+    }
+
+    private int waitlistCount(int courseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM course_waitlist WHERE course_id = ?", Integer.class, courseId);
+    }
+}
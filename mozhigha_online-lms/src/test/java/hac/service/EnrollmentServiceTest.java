@@ -0,0 +1,208 @@
+package hac.service;
+
+import hac.repository.EnrollmentJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class EnrollmentServiceTest {
+
+    private final EnrollmentJdbcRepository enrollmentRepository = mock(EnrollmentJdbcRepository.class);
+    private final DashboardMetrics dashboardMetrics = mock(DashboardMetrics.class);
+    private final TranscriptService transcriptService = mock(TranscriptService.class);
+    private final GradeAnalyticsService gradeAnalyticsService = mock(GradeAnalyticsService.class);
+    private final CatalogVersions catalogVersions = mock(CatalogVersions.class);
+    private final EnrollmentService service = new EnrollmentService(enrollmentRepository, dashboardMetrics,
+            transcriptService, gradeAnalyticsService, catalogVersions, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        // every pair is new unless a test says otherwise
+        when(enrollmentRepository.insertEnrollments(any()))
+                .thenAnswer(invocation -> inserted(invocation.<List<int[]>>getArgument(0).size()));
+    }
+
+    private static int[] inserted(int pairs) {
+        int[] counts = new int[pairs];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEnrollAllInsertsOnlyMissingRows() {
+
+        when(enrollmentRepository.findExistingCourseIds(anyCollection())).thenReturn(Set.of(1));
+        when(enrollmentRepository.findStudentKeys(anyCollection())).thenReturn(Map.of("123456789", 7, "111111111", 8));
+        when(enrollmentRepository.findEnrollments(any(), any())).thenReturn(List.<int[]>of(new int[]{1, 7}));
+
+        EnrollmentService.BulkEnrollmentResult result =
+                service.enrollAll(List.of("123456789", "111111111", "222222222"), List.of(1, 2));
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.alreadyEnrolled());
+        assertEquals(List.of("222222222"), result.unknownStudents());
+        assertEquals(List.of(2), result.unknownCourses());
+
+        ArgumentCaptor<List<int[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(enrollmentRepository).insertEnrollments(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+        assertArrayEquals(new int[]{1, 8}, inserted.getValue().get(0));
+        verify(dashboardMetrics).enrolled(1, 1);
+        verify(enrollmentRepository).addSeatsTaken(1, 1);
+        verify(transcriptService).enrolled(1, List.of(8));
+    }
+
+    @Test
+    void testEnrollAllCountsPairsEnrolledConcurrentlyAsExisting() {
+        when(enrollmentRepository.findExistingCourseIds(anyCollection())).thenReturn(Set.of(1));
+        when(enrollmentRepository.findStudentKeys(anyCollection())).thenReturn(Map.of("123456789", 7));
+        // not there when read, but inserted by someone else before this insert ran
+        doReturn(new int[]{0}).when(enrollmentRepository).insertEnrollments(any());
+
+        EnrollmentService.BulkEnrollmentResult result = service.enrollAll(List.of("123456789"), List.of(1));
+
+        assertEquals(0, result.inserted());
+        assertEquals(1, result.alreadyEnrolled());
+        verify(enrollmentRepository, never()).addSeatsTaken(anyInt(), anyInt());
+        verify(dashboardMetrics, never()).enrolled(anyInt(), anyInt());
+        verify(transcriptService, never()).enrolled(anyInt(), any());
+    }
+
+    @Test
+    void testEnrollTakesAFreeSeat() {
+        when(enrollmentRepository.takeSeat(1)).thenReturn(true);
+
+        assertEquals(EnrollmentService.EnrollOutcome.ENROLLED, service.enroll(1, 7));
+
+        verify(enrollmentRepository).insertEnrollments(argThat(rows -> rows.size() == 1
+                && rows.get(0)[0] == 1 && rows.get(0)[1] == 7));
+        verify(dashboardMetrics).enrolled(1, 1);
+        verify(transcriptService).enrolled(1, List.of(7));
+        verify(catalogVersions).catalogChanged();
+        verify(enrollmentRepository, never()).addToWaitlist(anyInt(), anyInt());
+    }
+
+    @Test
+    void testEnrollIsRunAgainAfterADeadlock() {
+        when(enrollmentRepository.takeSeat(1)).thenReturn(true);
+        doThrow(new DeadlockLoserDataAccessException("deadlock", null)).doReturn(new int[]{1})
+                .when(enrollmentRepository).insertEnrollments(any());
+
+        assertEquals(EnrollmentService.EnrollOutcome.ENROLLED, service.enroll(1, 7));
+
+        verify(enrollmentRepository, times(2)).takeSeat(1);
+        verify(dashboardMetrics, times(1)).enrolled(1, 1);
+    }
+
+    @Test
+    void testEnrollIntoFullCourseJoinsWaitlist() {
+        when(enrollmentRepository.takeSeat(1)).thenReturn(false);
+        when(enrollmentRepository.findExistingCourseIds(List.of(1))).thenReturn(Set.of(1));
+
+        assertEquals(EnrollmentService.EnrollOutcome.WAITLISTED, service.enroll(1, 7));
+        verify(enrollmentRepository).addToWaitlist(1, 7);
+
+        when(enrollmentRepository.isWaitlisted(1, 7)).thenReturn(true);
+        assertEquals(EnrollmentService.EnrollOutcome.ALREADY_WAITLISTED, service.enroll(1, 7));
+
+        verify(enrollmentRepository, never()).insertEnrollments(any());
+        verify(dashboardMetrics, never()).enrolled(anyInt(), anyInt());
+        // the waitlist is not shown in the catalog
+        verify(catalogVersions, never()).catalogChanged();
+    }
+
+    @Test
+    void testEnrollIntoMissingCourse() {
+        when(enrollmentRepository.findExistingCourseIds(List.of(9))).thenReturn(Set.of());
+
+        assertEquals(EnrollmentService.EnrollOutcome.COURSE_NOT_FOUND, service.enroll(9, 7));
+        verify(enrollmentRepository, never()).addToWaitlist(anyInt(), anyInt());
+    }
+
+    @Test
+    void testUnenrollPromotesHeadOfWaitlist() {
+        when(enrollmentRepository.findGradeForUpdate(1, 7)).thenReturn(List.of("A"));
+        when(enrollmentRepository.deleteEnrollment(1, 7)).thenReturn(1);
+        when(enrollmentRepository.findFirstWaitlisted(1)).thenReturn(8, (Integer) null);
+        when(enrollmentRepository.takeSeat(1)).thenReturn(true);
+
+        assertTrue(service.unenroll(1, 7));
+
+        InOrder order = inOrder(enrollmentRepository);
+        order.verify(enrollmentRepository).releaseSeat(1);
+        order.verify(enrollmentRepository).takeSeat(1);
+        order.verify(enrollmentRepository).removeFromWaitlist(1, 8);
+        verify(enrollmentRepository).insertEnrollments(argThat(rows -> rows.get(0)[1] == 8));
+        verify(dashboardMetrics).unenrolled(1, true);
+        verify(dashboardMetrics).enrolled(1, 1);
+        verify(transcriptService).unenrolled(1, 7, "A");
+        verify(transcriptService).enrolled(1, List.of(8));
+    }
+
+    @Test
+    void testAssignGradeMovesTranscript() {
+        when(enrollmentRepository.findGradeForUpdate(1, 7)).thenReturn(Collections.singletonList(null));
+
+        assertTrue(service.assignGrade(1, 7, "A"));
+        verify(dashboardMetrics).gradesAssigned(1);
+        verify(transcriptService).gradesChanged(List.of(new TranscriptService.GradeChange(1, 7, null, "A")));
+
+        // regrading changes the transcript but not the number of graded enrollments
+        when(enrollmentRepository.findGradeForUpdate(1, 7)).thenReturn(List.of("A"));
+        assertTrue(service.assignGrade(1, 7, "O"));
+        verify(dashboardMetrics).gradesAssigned(0);
+        verify(transcriptService).gradesChanged(List.of(new TranscriptService.GradeChange(1, 7, "A", "O")));
+        verify(gradeAnalyticsService, times(2)).gradesChanged(List.of(1));
+    }
+
+    @Test
+    void testAssignGradeOfStudentNotEnrolled() {
+        when(enrollmentRepository.findGradeForUpdate(1, 7)).thenReturn(List.of());
+
+        assertFalse(service.assignGrade(1, 7, "A"));
+        verify(enrollmentRepository, never()).updateGrades(any());
+        verifyNoInteractions(transcriptService, gradeAnalyticsService);
+    }
+
+    @Test
+    void testUnenrollOfStudentNotEnrolled() {
+        when(enrollmentRepository.findGradeForUpdate(1, 7)).thenReturn(List.of());
+
+        assertFalse(service.unenroll(1, 7));
+        verify(enrollmentRepository, never()).releaseSeat(anyInt());
+        verify(enrollmentRepository, never()).findFirstWaitlisted(anyInt());
+    }
+
+    @Test
+    void testRecountSeatsWorksThroughTheCoursesInIdRanges() {
+        when(enrollmentRepository.findMaxCourseId()).thenReturn(1200);
+        when(enrollmentRepository.recountSeatsTaken(anyInt(), anyInt())).thenReturn(0, 2, 1);
+
+        assertEquals(3, service.recountSeats());
+        verify(enrollmentRepository).recountSeatsTaken(0, 500);
+        verify(enrollmentRepository).recountSeatsTaken(500, 1000);
+        verify(enrollmentRepository).recountSeatsTaken(1000, 1500);
+        verify(enrollmentRepository, times(3)).recountSeatsTaken(anyInt(), anyInt());
+        verify(catalogVersions).catalogChanged();
+    }
+}
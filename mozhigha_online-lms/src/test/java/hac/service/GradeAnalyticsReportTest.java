@@ -0,0 +1,69 @@
+package hac.service;
+
+import hac.entity.Course;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Grade analytics against a real schema: the cached report follows grading and enrollment changes.
+ * The report over a large catalog is timed by GradeAnalyticsBenchmark in the benchmarks module.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class GradeAnalyticsReportTest {
+
+    @Autowired
+    private GradeAnalyticsService gradeAnalyticsService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testReportFollowsGrading() {
+        catalogImportService.importCourses(List.of(new Course("Statistics", "Dr. S", "77770001", "Analytics test")), false);
+        int course = jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = '77770001'", Integer.class);
+        int first = student("700000001");
+        int second = student("700000002");
+        enrollmentService.enroll(course, first);
+        enrollmentService.enroll(course, second);
+        enrollmentService.assignGrade(course, first, "A");
+
+        GradeDistribution before = gradeAnalyticsService.course(course).orElseThrow().course().distribution();
+        assertEquals(2, before.enrolled());
+        assertEquals(1, before.inProgress());
+
+        enrollmentService.assignGrade(course, second, "O");
+        GradeAnalyticsService.CourseGradeReport after = gradeAnalyticsService.course(course).orElseThrow();
+        assertEquals(0, after.course().distribution().inProgress());
+        assertEquals(new BigDecimal("9.00"), after.course().distribution().mean());
+        assertEquals(new BigDecimal("75.0"), after.students().get(1).percentile());
+
+        enrollmentService.unenroll(course, first);
+        assertEquals(1, gradeAnalyticsService.course(course).orElseThrow().course().distribution().enrolled());
+    }
+
+    private int student(String studentId) {
+        jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) VALUES (?, ?, 'x')",
+                studentId, studentId + "@example.com");
+        return jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = ?", Integer.class, studentId);
+    }
+}
@@ -0,0 +1,126 @@
+package hac.service;
+
+import hac.repository.GradeAnalyticsJdbcRepository;
+import hac.repository.GradeAnalyticsJdbcRepository.CourseRef;
+import hac.repository.GradeAnalyticsJdbcRepository.StudentGrade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class GradeAnalyticsServiceTest {
+
+    private final GradeAnalyticsJdbcRepository analyticsRepository = mock(GradeAnalyticsJdbcRepository.class);
+    private final GradeAnalyticsService service =
+            new GradeAnalyticsService(analyticsRepository, 100, Duration.ofHours(1), 2);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testDistribution() {
+        // 2 x O, 1 x A, 1 x B, a grade off the scale and one in progress
+        GradeDistribution distribution = GradeDistribution.of(Map.of("O", 2, "A", 1, "B", 1, "F", 1, "", 1), 7);
+
+        assertEquals(6, distribution.enrolled());
+        assertEquals(1, distribution.inProgress());
+        assertEquals(5, distribution.graded());
+        assertEquals(3, distribution.passed());
+        assertEquals(new BigDecimal("60.0"), distribution.passRate());
+        assertEquals(new BigDecimal("8.50"), distribution.mean());    // (10 + 10 + 8 + 6) / 4
+        assertEquals(new BigDecimal("9.0"), distribution.median());   // between A and O
+        assertEquals(List.of("O", "A+", "A", "B+", "B", "F"), List.copyOf(distribution.histogram().keySet()));
+        assertEquals(0, distribution.histogram().get("A+"));
+
+        assertEquals(new BigDecimal("75.0"), distribution.percentile("O"));
+        assertEquals(new BigDecimal("37.5"), distribution.percentile("A"));
+        assertEquals(new BigDecimal("12.5"), distribution.percentile("B"));
+        assertNull(distribution.percentile("F"));
+        assertNull(distribution.percentile(null));
+    }
+
+    @Test
+    void testEmptyCourse() {
+        GradeDistribution distribution = GradeDistribution.of(Map.of(), 6);
+
+        assertEquals(0, distribution.enrolled());
+        assertNull(distribution.passRate());
+        assertNull(distribution.mean());
+        assertNull(distribution.median());
+    }
+
+    @Test
+    void testReportIsCachedUntilGradesOrEnrollmentsChange() {
+        when(analyticsRepository.findCourses()).thenReturn(List.of(
+                new CourseRef(1, "10204011", "Algebra", "Dr. A", 0, 0), new CourseRef(2, "10204012", "Physics", "Dr. B", 0, 0)));
+        when(analyticsRepository.countGrades(anyInt(), anyInt()))
+                .thenReturn(Map.of(1, Map.of("O", 1, "B", 1), 2, Map.of("", 3)));
+
+        List<GradeAnalyticsService.CourseGradeStats> report = service.allCourses();
+        assertEquals(List.of(1, 2), report.stream().map(GradeAnalyticsService.CourseGradeStats::courseId).toList());
+        assertEquals(new BigDecimal("8.00"), report.get(0).distribution().mean());
+        assertEquals(3, report.get(1).distribution().inProgress());
+
+        service.allCourses();
+        verify(analyticsRepository, times(1)).countGrades(1, 2);
+
+        // the change moves the grades version in the table, and only the graded course is counted again
+        service.gradesChanged(List.of(2));
+        verify(analyticsRepository).bumpGradesVersions(List.of(2));
+        when(analyticsRepository.findCourses()).thenReturn(List.of(
+                new CourseRef(1, "10204011", "Algebra", "Dr. A", 0, 0), new CourseRef(2, "10204012", "Physics", "Dr. B", 0, 1)));
+        service.allCourses();
+        verify(analyticsRepository).countGrades(2, 2);
+
+        when(analyticsRepository.findCourses()).thenReturn(List.of(
+                new CourseRef(1, "10204011", "Algebra", "Dr. A", 0, 1), new CourseRef(2, "10204012", "Physics", "Dr. B", 0, 1)));
+        service.allCourses();
+        verify(analyticsRepository).countGrades(1, 1);
+    }
+
+    @Test
+    void testProfessorsCombineTheirCourses() {
+        when(analyticsRepository.findCourses()).thenReturn(List.of(
+                new CourseRef(1, "10204011", "Algebra", "Dr. A", 0, 0), new CourseRef(2, "10204012", "Physics", "Dr. B", 0, 0),
+                new CourseRef(3, "10204013", "Geometry", "Dr. A", 0, 0)));
+        when(analyticsRepository.countGrades(anyInt(), anyInt()))
+                .thenReturn(Map.of(1, Map.of("O", 1), 2, Map.of("A", 2), 3, Map.of("B", 1, "", 1)));
+
+        List<GradeAnalyticsService.ProfessorGradeStats> professors = service.professors();
+
+        assertEquals(List.of("Dr. A", "Dr. B"),
+                professors.stream().map(GradeAnalyticsService.ProfessorGradeStats::professor).toList());
+        assertEquals(2, professors.get(0).courses());
+        assertEquals(3, professors.get(0).distribution().enrolled());
+        assertEquals(new BigDecimal("8.00"), professors.get(0).distribution().mean());
+    }
+
+    @Test
+    void testCourseReportRanksStudents() {
+        when(analyticsRepository.findCourse(1)).thenReturn(Optional.of(new CourseRef(1, "10204011", "Algebra", "Dr. A", 0, 0)));
+        when(analyticsRepository.countGrades(1, 1)).thenReturn(Map.of(1, Map.of("O", 1, "B", 1, "", 1)));
+        when(analyticsRepository.findStudentGrades(1)).thenReturn(List.of(
+                new StudentGrade(7, "123456789", "a@example.com", "O"),
+                new StudentGrade(8, "111111111", "b@example.com", "B"),
+                new StudentGrade(9, "222222222", "c@example.com", null)));
+
+        GradeAnalyticsService.CourseGradeReport report = service.course(1).orElseThrow();
+
+        assertEquals(3, report.course().distribution().enrolled());
+        assertEquals(new BigDecimal("75.0"), report.students().get(0).percentile());
+        assertEquals(new BigDecimal("25.0"), report.students().get(1).percentile());
+        assertNull(report.students().get(2).percentile());
+        assertEquals(Optional.empty(), service.course(2));
+    }
+}
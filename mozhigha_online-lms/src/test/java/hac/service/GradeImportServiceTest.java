@@ -0,0 +1,117 @@
+package hac.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hac.repository.EnrollmentJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class GradeImportServiceTest {
+
+    private EnrollmentJdbcRepository enrollmentRepository;
+    private DashboardMetrics dashboardMetrics;
+    private TranscriptService transcriptService;
+    private GradeAnalyticsService gradeAnalyticsService;
+    private GradeImportService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        enrollmentRepository = mock(EnrollmentJdbcRepository.class);
+        dashboardMetrics = mock(DashboardMetrics.class);
+        transcriptService = mock(TranscriptService.class);
+        gradeAnalyticsService = mock(GradeAnalyticsService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+
+        when(enrollmentRepository.findCourseIdsByCode(anyCollection())).thenReturn(Map.of("10204011", 1));
+        when(enrollmentRepository.findStudentKeys(anyCollection()))
+                .thenReturn(Map.of("123456789", 7, "111111111", 8));
+
+        service = new GradeImportService(enrollmentRepository, transactionTemplate, dashboardMetrics,
+                transcriptService, gradeAnalyticsService, new ObjectMapper());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCsvImportReportsRowErrors() throws Exception {
+        when(enrollmentRepository.updateGrades(any())).thenReturn(new int[]{1, 0});
+        when(enrollmentRepository.findGradesForUpdate(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new EnrollmentJdbcRepository.EnrollmentGrade(1, 7, "B")));
+
+        String csv = "course_code,student_id,grade\n"
+                + "10204011,123456789,A\n"
+                + "\"10204011\",111111111,\"B+\"\n"
+                + "10204011,123456789,Z\n"
+                + "99999999,123456789,A\n"
+                + "10204011,222222222,A\n";
+
+        ImportReport report = service.importCsv(new StringReader(csv));
+
+        assertEquals(5, report.getProcessed());
+        assertEquals(1, report.getApplied());
+        assertEquals(4, report.getRejected());
+        assertEquals(List.of(4L, 5L, 6L, 3L),
+                report.getErrors().stream().map(ImportReport.RowError::line).toList());
+
+        ArgumentCaptor<List<MapSqlParameterSource>> batch = ArgumentCaptor.forClass(List.class);
+        verify(enrollmentRepository).updateGrades(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals(7, batch.getValue().get(0).getValue("studentId"));
+        // B -> A regrades an enrollment that was already graded
+        verify(dashboardMetrics).gradesAssigned(0);
+        verify(dashboardMetrics, never()).refresh();
+        // only the enrolled student's transcript moves, from the old grade to the new one
+        verify(transcriptService).gradesChanged(List.of(new TranscriptService.GradeChange(1, 7, "B", "A")));
+        verify(gradeAnalyticsService).gradesChanged(List.of(1));
+    }
+
+    @Test
+    void testCsvImportReadsQuotedFieldsAndCountsNewGrades() throws Exception {
+        when(enrollmentRepository.updateGrades(any())).thenReturn(new int[]{1, 1});
+        when(enrollmentRepository.findGradesForUpdate(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new EnrollmentJdbcRepository.EnrollmentGrade(1, 7, null),
+                        new EnrollmentJdbcRepository.EnrollmentGrade(1, 8, "")));
+
+        String csv = "\"10204011\",\"123456789\",\"A\"\r\n"
+                + "\"1020,4011\",123456789,A\r\n"
+                + "10204011,111111111,O\r\n";
+
+        ImportReport report = service.importCsv(new StringReader(csv));
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(2, report.getApplied());
+        assertEquals("Invalid course code '1020,4011'", report.getErrors().get(0).message());
+        verify(dashboardMetrics).gradesAssigned(2);
+    }
+
+    @Test
+    void testJsonImport() throws Exception {
+        when(enrollmentRepository.updateGrades(any())).thenReturn(new int[]{1});
+
+        String json = "[{\"courseCode\":\"10204011\",\"studentId\":\"123456789\",\"grade\":\"O\"},"
+                + "{\"courseCode\":\"10204011\",\"grade\":\"O\"}]";
+
+        ImportReport report = service.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, report.getProcessed());
+        assertEquals(1, report.getApplied());
+        assertTrue(report.getErrors().get(0).message().startsWith("Invalid student id"));
+    }
+}
@@ -0,0 +1,41 @@
+package hac.service;
+
+import hac.config.StartupTimings;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.*;
+
+class StartupWarmupTest {
+
+    private final CatalogImportService catalogImportService = mock(CatalogImportService.class);
+    private final DashboardMetrics dashboardMetrics = mock(DashboardMetrics.class);
+    private final CourseSearchIndex courseSearchIndex = mock(CourseSearchIndex.class);
+    private final StartupTimings startupTimings = mock(StartupTimings.class);
+
+    @Test
+    void testWarmUpRunsBeforeReadinessByDefault() throws Exception {
+        warmup(false).applicationReady();
+
+        InOrder order = inOrder(catalogImportService, dashboardMetrics, courseSearchIndex, startupTimings);
+        order.verify(catalogImportService).importStartupFile();
+        order.verify(dashboardMetrics).refresh();
+        order.verify(courseSearchIndex).refresh();
+        order.verify(startupTimings).warmedUp();
+    }
+
+    @Test
+    void testDeferredWarmUpSurvivesAFailedStep() throws Exception {
+        doThrow(new IllegalStateException("database unavailable")).when(catalogImportService).importStartupFile();
+
+        warmup(true).applicationReady();
+
+        verify(startupTimings, timeout(5000)).warmedUp();
+        verify(dashboardMetrics).refresh();
+        verify(courseSearchIndex).refresh();
+    }
+
+    private StartupWarmup warmup(boolean deferred) {
+        return new StartupWarmup(catalogImportService, dashboardMetrics, courseSearchIndex, startupTimings, deferred);
+    }
+}
@@ -0,0 +1,42 @@
+package hac.service;
+
+import hac.entity.Student;
+import hac.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class StudentIdentityCacheTest {
+
+    @Test
+    void testResolveHitsRepositoryOncePerPrincipal() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        Student student = new Student("123456789", "student1@university.edu");
+        student.setId(7);
+        when(studentRepository.findStudentsByStudentId("123456789")).thenReturn(student);
+
+        StudentIdentityCache cache = new StudentIdentityCache(studentRepository, 100, Duration.ofMinutes(1));
+
+        assertEquals(7, cache.resolve("123456789").orElseThrow().id());
+        assertEquals("student1@university.edu", cache.resolve("123456789").orElseThrow().email());
+        verify(studentRepository, times(1)).findStudentsByStudentId("123456789");
+
+        cache.evict("123456789");
+        cache.resolve("123456789");
+        verify(studentRepository, times(2)).findStudentsByStudentId("123456789");
+    }
+
+    @Test
+    void testUnknownPrincipalIsNotCached() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        StudentIdentityCache cache = new StudentIdentityCache(studentRepository, 100, Duration.ofMinutes(1));
+
+        assertTrue(cache.resolve("999999999").isEmpty());
+        assertTrue(cache.resolve("999999999").isEmpty());
+        verify(studentRepository, times(2)).findStudentsByStudentId("999999999");
+    }
+}
@@ -0,0 +1,125 @@
+package hac.service;
+
+import hac.entity.Course;
+import hac.repository.TranscriptJdbcRepository.Transcript;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The incrementally maintained transcripts must always equal what the enrollments add up to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:enrollment;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+class TranscriptConsistencyTest {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Autowired
+    private GradeImportService gradeImportService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testTranscriptFollowsEveryChange() throws Exception {
+        int algebra = course("Algebra", "88880001", 4);
+        int physics = course("Physics", "88880002", 3);
+        int student = student("600000001");
+        assertEquals(new Transcript(student, 0, 0, 0, 0, 0, 0, null), transcriptService.find(student));
+
+        enrollmentService.enroll(algebra, student);
+        enrollmentService.enrollAll(List.of("600000001"), List.of(physics));
+        assertEquals(new Transcript(student, 2, 7, 0, 0, 0, 0, null), transcriptService.find(student));
+
+        enrollmentService.assignGrade(algebra, student, "O");
+        enrollmentService.assignGrade(physics, student, "Pass");
+        // "Pass" completes physics but is not on the scale, so only algebra counts for the GPA
+        Transcript graded = transcriptService.find(student);
+        assertEquals(new Transcript(student, 0, 0, 2, 7, 4, 40, graded.gpa()), graded);
+        assertEquals(0, new BigDecimal("10.00").compareTo(graded.gpa()));
+        assertMatchesEnrollments(student);
+
+        gradeImportService.importCsv(new StringReader("88880002,600000001,B\n88880001,600000001,A\n"));
+        Transcript imported = transcriptService.find(student);
+        assertEquals(0, new BigDecimal("7.14").compareTo(imported.gpa()));  // (8*4 + 6*3) / 7
+        assertMatchesEnrollments(student);
+
+        enrollmentService.assignGrade(algebra, student, "");
+        assertEquals(1, transcriptService.find(student).coursesInProgress());
+        assertMatchesEnrollments(student);
+
+        enrollmentService.unenroll(physics, student);
+        Transcript left = transcriptService.find(student);
+        assertEquals(new Transcript(student, 1, 4, 0, 0, 0, 0, null), left);
+        assertNull(left.gpa());
+        assertMatchesEnrollments(student);
+    }
+
+    @Test
+    void testHonorRollAndWholeCourseChanges() {
+        int course = course("Chemistry", "88880003", 5);
+        int best = student("600000002");
+        int good = student("600000003");
+        enrollmentService.enrollAll(List.of("600000002", "600000003"), List.of(course));
+        enrollmentService.assignGrade(course, best, "O");
+        enrollmentService.assignGrade(course, good, "B+");
+
+        List<Integer> ranked = transcriptService.honorRoll(new BigDecimal("7.0"), 5, 10).stream()
+                .map(entry -> entry.id()).filter(id -> id == best || id == good).toList();
+        assertEquals(List.of(best, good), ranked);
+
+        // changing the credits of a course rewrites the transcripts of its students
+        jdbcTemplate.update("UPDATE course SET credits = 2 WHERE course_id = ?", course);
+        transcriptService.recompute(transcriptService.studentsOf(course));
+        assertEquals(2, transcriptService.find(best).creditsEarned());
+        assertMatchesEnrollments(best);
+
+        // and so does deleting it
+        List<Integer> enrolled = transcriptService.studentsOf(course);
+        jdbcTemplate.update("DELETE FROM course_student WHERE course_id = ?", course);
+        transcriptService.recompute(enrolled);
+        assertEquals(new Transcript(good, 0, 0, 0, 0, 0, 0, null), transcriptService.find(good));
+    }
+
+    // recomputing from course_student gives the same row as all the deltas applied so far
+    private void assertMatchesEnrollments(int student) {
+        Transcript incremental = transcriptService.find(student);
+        transcriptService.recompute(List.of(student));
+        assertEquals(transcriptService.find(student), incremental);
+    }
+
+    private int course(String name, String code, int credits) {
+        Course course = new Course(name, "Dr. T", code, "Transcript test");
+        course.setCredits(credits);
+        catalogImportService.importCourses(List.of(course), false);
+        return jdbcTemplate.queryForObject("SELECT course_id FROM course WHERE code = ?", Integer.class, code);
+    }
+
+    private int student(String studentId) {
+        jdbcTemplate.update("INSERT INTO student (student_id, student_email, password) VALUES (?, ?, 'x')",
+                studentId, studentId + "@example.com");
+        return jdbcTemplate.queryForObject("SELECT id FROM student WHERE student_id = ?", Integer.class, studentId);
+    }
+}
@@ -0,0 +1,90 @@
+package hac.service;
+
+import hac.repository.EnrollmentJdbcRepository;
+import hac.repository.TranscriptJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class TranscriptServiceTest {
+
+    private final TranscriptJdbcRepository transcriptRepository = mock(TranscriptJdbcRepository.class);
+    private final EnrollmentJdbcRepository enrollmentRepository = mock(EnrollmentJdbcRepository.class);
+    private final TranscriptService service = new TranscriptService(transcriptRepository, enrollmentRepository);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRegradingAppliesTheDifference() {
+        when(enrollmentRepository.findCredits(anyCollection())).thenReturn(Map.of(1, 4, 2, 3));
+        when(transcriptRepository.applyDeltas(any())).thenReturn(new int[]{1, 1});
+
+        service.gradesChanged(List.of(
+                new TranscriptService.GradeChange(1, 7, "A", "O"),    // 8 -> 10 points on 4 credits
+                new TranscriptService.GradeChange(2, 7, null, "B"),   // completes a 3 credit course with 6 points
+                new TranscriptService.GradeChange(2, 8, "B+", "")));  // back to in progress
+
+        ArgumentCaptor<List<MapSqlParameterSource>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(transcriptRepository).applyDeltas(deltas.capture());
+        MapSqlParameterSource first = deltas.getValue().get(0);
+        assertEquals(7, first.getValue("studentKey"));
+        assertEquals(-1, first.getValue("coursesInProgress"));
+        assertEquals(-3, first.getValue("creditsInProgress"));
+        assertEquals(1, first.getValue("coursesCompleted"));
+        assertEquals(3, first.getValue("creditsEarned"));
+        assertEquals(3, first.getValue("gradedCredits"));
+        assertEquals(2 * 4 + 6 * 3, first.getValue("gradePoints"));
+
+        MapSqlParameterSource second = deltas.getValue().get(1);
+        assertEquals(8, second.getValue("studentKey"));
+        assertEquals(1, second.getValue("coursesInProgress"));
+        assertEquals(-1, second.getValue("coursesCompleted"));
+        assertEquals(-3, second.getValue("gradedCredits"));
+        assertEquals(-21, second.getValue("gradePoints"));
+        verify(transcriptRepository).insertComputed(List.of(), GradeScale.POINTS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGradeOffTheScaleCompletesWithoutPoints() {
+        when(enrollmentRepository.findCredits(anyCollection())).thenReturn(Map.of(1, 4));
+        when(transcriptRepository.applyDeltas(any())).thenReturn(new int[]{1});
+
+        service.gradesChanged(List.of(new TranscriptService.GradeChange(1, 7, null, "Pass")));
+
+        ArgumentCaptor<List<MapSqlParameterSource>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(transcriptRepository).applyDeltas(deltas.capture());
+        MapSqlParameterSource delta = deltas.getValue().get(0);
+        assertEquals(1, delta.getValue("coursesCompleted"));
+        assertEquals(4, delta.getValue("creditsEarned"));
+        assertEquals(0, delta.getValue("gradedCredits"));
+        assertEquals(0, delta.getValue("gradePoints"));
+    }
+
+    @Test
+    void testStudentsWithoutRowAreComputed() {
+        when(enrollmentRepository.findCredits(anyCollection())).thenReturn(Map.of(1, 4));
+        when(transcriptRepository.applyDeltas(any())).thenReturn(new int[]{1, 0});
+
+        service.enrolled(1, List.of(9, 8));
+
+        // rows are updated in key order; 9 had no row yet
+        verify(transcriptRepository).insertComputed(List.of(9), GradeScale.POINTS);
+    }
+
+    @Test
+    void testUnchangedGradeWritesNothing() {
+        when(enrollmentRepository.findCredits(anyCollection())).thenReturn(Map.of(1, 4));
+
+        service.gradesChanged(List.of(new TranscriptService.GradeChange(1, 7, "A", "A")));
+
+        verify(transcriptRepository, never()).applyDeltas(any());
+    }
+}